@@ -0,0 +1,38 @@
+package frc.robot;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+
+import frc.robot.utilities.FileLog;
+import frc.robot.utilities.RobotPreferences;
+import frc.robot.utilities.SensorFrame;
+
+/**
+ * Sets up the parts of Robot that the benchmarked code uses, without starting the robot.
+ * WPILib and vendor classes are the stubs in src/jmh/stubs, so nothing talks to hardware.
+ */
+public class BenchmarkRobot {
+
+	/**
+	 * Creates Robot.log (in a temporary directory), Robot.robotPrefs, and Robot.sensors, if they have not been created yet
+	 */
+	public static synchronized void init() {
+		if (Robot.log != null) return;
+		Robot.log = new FileLog(new File(tempDirectory(), "logfile").getPath(), "bench");
+		Robot.robotPrefs = new RobotPreferences();
+		Robot.sensors = new SensorFrame();
+	}
+
+	/**
+	 * @return a new temporary directory (ex. for log files)
+	 */
+	public static File tempDirectory() {
+		try {
+			return Files.createTempDirectory("benchmark").toFile();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package frc.robot.pathfinder;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading a deployed path from its CSV file.  The jmh task runs this for every file in src/main/deploy/paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathfinderBenchmark {
+
+	@Param({"src/main/deploy/paths"})
+	public String pathDirectory;
+
+	@Param({"LeftCurve.pf1.csv"})		// Set to every deployed path by the jmh task
+	public String pathFile;
+
+	private File file;
+
+	@Setup
+	public void setup() {
+		file = new File(pathDirectory, pathFile);
+		if (!file.isFile()) throw new IllegalStateException("Path file not found:  " + file.getAbsolutePath());
+	}
+
+	@Benchmark
+	public Trajectory readFromCSV() {
+		return Pathfinder.readFromCSV(file, true);
+	}
+}
@@ -0,0 +1,65 @@
+package frc.robot.pathfinder.followers;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.pathfinder.Pathfinder;
+import frc.robot.pathfinder.Trajectory;
+import frc.robot.utilities.VirtualClock;
+
+/**
+ * One DistanceFollower.calculate() per 20ms robot cycle, following a deployed path.
+ * A VirtualClock advances 20ms per call, and the follower restarts when it reaches the end of the path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DistanceFollowerBenchmark {
+
+	private static final long CYCLE_NANOS = 20000000;
+
+	@Param({"src/main/deploy/paths/LeftCurve.pf1.csv"})
+	public String trajectoryFile;
+
+	private VirtualClock clock;
+	private DistanceFollower follower;
+	private double distance;
+
+	@Setup
+	public void setup() {
+		Trajectory trajectory = Pathfinder.readFromCSV(new File(trajectoryFile), true);
+		if (trajectory == null) throw new IllegalStateException("Path file not found:  " + trajectoryFile);
+
+		clock = new VirtualClock();
+		follower = new DistanceFollower(trajectory, clock);
+		follower.configurePIDVA(0.08, 0.0, 0.0, 1 / 115.0, 0.0013, 0.0012);		// Same as DrivePathfinder's center follower
+		distance = 0;
+	}
+
+	@Benchmark
+	public double calculate() {
+		clock.advanceNanos(CYCLE_NANOS);
+		if (follower.isFinished()) {
+			follower.reset();
+			distance = 0;
+		}
+		double output = follower.calculate(distance);
+		distance = follower.getSegment().position;
+		return output;
+	}
+}
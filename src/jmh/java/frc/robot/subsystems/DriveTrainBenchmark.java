@@ -0,0 +1,79 @@
+package frc.robot.subsystems;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.BenchmarkRobot;
+import frc.robot.Robot;
+
+/**
+ * DriveTrain.areEncodersStopped() with a full encoder list, on a drive train with no motors
+ * (the navX is a stub).  updateAndCheck() is the per-cycle pattern used by commands:
+ * read the sensor frame, add the encoder readings, then check if the robot has stopped.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriveTrainBenchmark {
+
+	/**
+	 * Drive train with no motors.  The encoders read leftTicks and rightTicks.
+	 */
+	static class BenchmarkDriveTrain extends DriveTrain {
+		double leftTicks, rightTicks;
+
+		public void tankDrive(double leftPercent, double rightPercent) {}
+		public void tankDrive(double leftPercent, double rightPercent, boolean squaredInputs) {}
+		public void setLeftMotors(double percent) {}
+		public void setRightMotors(double percent) {}
+		public void driveAtCurve(double speedPct, double curve) {}
+		public void setVoltageCompensation(boolean turnOn) {}
+		public double getLeftEncoderRaw() { return leftTicks; }
+		public double getRightEncoderRaw() { return rightTicks; }
+		public double getLeftEncoderVelocityRaw() { return 0; }
+		public double getRightEncoderVelocityRaw() { return 0; }
+		public void setDriveModeCoast(boolean setCoast) {}
+		void fillDriveLogChannels(boolean readMotors) {}
+	}
+
+	private BenchmarkDriveTrain driveTrain;
+
+	@Setup
+	public void setup() {
+		BenchmarkRobot.init();
+		driveTrain = new BenchmarkDriveTrain();
+		for (int i = 0; i < 50; i++) {
+			driveTrain.leftTicks = i;
+			driveTrain.rightTicks = -i;
+			driveTrain.readSensors(Robot.sensors);
+			driveTrain.updateEncoderList();
+		}
+	}
+
+	@Benchmark
+	public boolean areEncodersStopped() {
+		return driveTrain.areEncodersStopped(5.0);
+	}
+
+	@Benchmark
+	public boolean updateAndCheck() {
+		driveTrain.leftTicks += 1;
+		driveTrain.rightTicks -= 1;
+		driveTrain.readSensors(Robot.sensors);
+		driveTrain.updateEncoderList();
+		return driveTrain.areEncodersStopped(5.0);
+	}
+}
@@ -0,0 +1,53 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.BenchmarkRobot;
+
+/**
+ * One DriveProfileGenerator.updateProfileCalcs() per 20ms robot cycle.  A VirtualClock advances 20ms per call,
+ * and a new profile is started when the last one is done, so every phase of the profile is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DriveProfileGeneratorBenchmark {
+
+	private static final long CYCLE_NANOS = 20000000;
+
+	private VirtualClock clock;
+	private DriveProfileGenerator profile;
+
+	@Setup
+	public void setup() {
+		BenchmarkRobot.init();
+		clock = new VirtualClock();
+		profile = newProfile();
+	}
+
+	private DriveProfileGenerator newProfile() {
+		return new DriveProfileGenerator(0, 120, 0, 115, 130, clock);
+	}
+
+	@Benchmark
+	public double updateProfileCalcs() {
+		clock.advanceNanos(CYCLE_NANOS);
+		if (profile.doneFlag) profile = newProfile();
+		profile.updateProfileCalcs();
+		return profile.getCurrentPosition();
+	}
+}
@@ -0,0 +1,57 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.BenchmarkRobot;
+
+/**
+ * One ElevatorProfileGenerator.updateProfileCalcs() per 20ms robot cycle.  A VirtualClock advances 20ms per call,
+ * and the profile is restarted from 0 inches when it finishes (so setProfileTarget() is included once per profile).
+ * maxJerk = 0 is the trapezoidal profile, and maxJerk > 0 is the S-curve profile.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElevatorProfileGeneratorBenchmark {
+
+	private static final long CYCLE_NANOS = 20000000;
+	private static final double TARGET = 60.0;		// inches
+
+	@Param({"0", "1000"})
+	public double maxJerk;
+
+	private VirtualClock clock;
+	private ElevatorProfileGenerator profile;
+
+	@Setup
+	public void setup() {
+		BenchmarkRobot.init();
+		clock = new VirtualClock();
+		profile = new ElevatorProfileGenerator(clock);
+		profile.setMaxJerk(maxJerk);
+		profile.setProfileTarget(TARGET, 0, 0);
+	}
+
+	@Benchmark
+	public double updateProfileCalcs() {
+		clock.advanceNanos(CYCLE_NANOS);
+		if (profile.isProfileFinished()) profile.setProfileTarget(TARGET, 0, 0);
+		profile.updateProfileCalcs();
+		return profile.getCurrentPosition();
+	}
+}
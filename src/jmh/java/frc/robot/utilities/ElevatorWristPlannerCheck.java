@@ -0,0 +1,85 @@
+package frc.robot.utilities;
+
+import frc.robot.BenchmarkRobot;
+import frc.robot.Robot;
+
+/**
+ * Desktop check of ElevatorWristPlanner on the usual elevator/wrist transitions (not a JMH benchmark).
+ * For each transition, prints the planned time, the time to move one axis after the other, and how long
+ * plan() took, and checks the planned path against the safe region every millisecond (without the margins).
+ * <p>
+ * The elevator uses the ElevatorProfileGenerator limits, and the wrist uses the wristProfileVelocity and
+ * wristProfileAcceleration preference defaults, unless they are given as arguments.
+ * <pre>
+ *   ./gradlew plannerCheck
+ *   ./gradlew plannerCheck -PcheckArgs="150 400"     (wrist velocity in deg/s, wrist acceleration in deg/s^2)
+ * </pre>
+ * Exits with status 1 if any planned path leaves the safe region.
+ */
+public class ElevatorWristPlannerCheck {
+
+	private static final double CHECK_STEP = 0.001;		// seconds between points that are checked on the path
+
+	public static void main(String[] args) {
+		BenchmarkRobot.init();
+		RobotPreferences prefs = Robot.robotPrefs;
+		if (args.length >= 2) {
+			prefs.wristProfileVelocity = Double.parseDouble(args[0]);
+			prefs.wristProfileAcceleration = Double.parseDouble(args[1]);
+		}
+
+		// Transitions:  name, start height, start angle, end height, end angle
+		Object[][] transitions = {
+			{"stowed -> hatch high", prefs.elevatorBottomToFloor, prefs.wristStowed, prefs.hatchHigh, prefs.wristUp},
+			{"hatch high -> stowed", prefs.hatchHigh, prefs.wristUp, prefs.elevatorBottomToFloor, prefs.wristStowed},
+			{"stowed -> hatch mid", prefs.elevatorBottomToFloor, prefs.wristStowed, prefs.hatchMid, prefs.wristStraight},
+			{"hatch low -> stowed", prefs.hatchLow, prefs.wristStraight, prefs.elevatorBottomToFloor, prefs.wristStowed},
+			{"stowed -> hatch low", prefs.elevatorBottomToFloor, prefs.wristStowed, prefs.hatchLow, prefs.wristStraight},
+			{"cargo ship -> ground cargo", prefs.cargoShipCargo, prefs.wristCargoShot, prefs.groundCargo, prefs.wristDown},
+			{"vision -> ground cargo", prefs.elevatorBottomToFloor, prefs.wristVision, prefs.groundCargo, prefs.wristDown},
+			{"ground cargo -> stowed", prefs.groundCargo, prefs.wristDown, prefs.elevatorBottomToFloor, prefs.wristStowed},
+		};
+
+		ElevatorProfileGenerator elevatorProfile = new ElevatorProfileGenerator(new VirtualClock());
+		boolean allSafe = true;
+
+		System.out.printf("Wrist profile:  %.0f deg/s, %.0f deg/s^2%n", prefs.wristProfileVelocity, prefs.wristProfileAcceleration);
+		System.out.printf("%-28s %9s %11s %8s %9s %6s%n", "Transition", "Plan (s)", "One at a time", "Saved", "plan() us", "Safe");
+		for (Object[] transition : transitions) {
+			double elevatorStart = (Double) transition[1], wristStart = (Double) transition[2];
+			double elevatorEnd = (Double) transition[3], wristEnd = (Double) transition[4];
+			MotionProfile elevator = elevatorProfile.createProfile(elevatorEnd - elevatorStart, 0);
+			MotionProfile wrist = new MotionProfile(wristEnd - wristStart, 0, prefs.wristProfileVelocity,
+				prefs.wristProfileAcceleration, prefs.wristProfileAcceleration, 0);	// Same as Wrist.createProfile()
+
+			long startNanos = System.nanoTime();
+			ElevatorWristPlanner.Plan plan = ElevatorWristPlanner.plan(elevatorStart, elevator, wristStart, wrist);
+			long planNanos = System.nanoTime() - startNanos;
+
+			boolean safe = isPathSafe(plan);
+			allSafe &= safe;
+			double oneAtATime = elevator.getTotalTime() + wrist.getTotalTime();
+			System.out.printf("%-28s %9.2f %13.2f %8.2f %9d %6s%n", transition[0], plan.getTotalTime(), oneAtATime,
+				oneAtATime - plan.getTotalTime(), planNanos / 1000, safe ? "yes" : "NO");
+		}
+
+		if (!allSafe) {
+			System.out.println("A planned path leaves the safe region");
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * @return true = every point on the planned path is in the safe region (the interlock limits, without the margins)
+	 */
+	private static boolean isPathSafe(ElevatorWristPlanner.Plan plan) {
+		for (double t = 0; t <= plan.getTotalTime(); t += CHECK_STEP) {
+			double height = plan.getElevatorPos(t), angle = plan.getWristAngle(t);
+			if (height > ElevatorWristPlanner.getElevatorMax(angle) || height < ElevatorWristPlanner.getElevatorMin(angle)) {
+				System.out.printf("  Unsafe at %.3f s:  height %.2f in, angle %.1f deg%n", t, height, angle);
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,59 @@
+package frc.robot.utilities;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.BenchmarkRobot;
+
+/**
+ * FileLog.writeLog() on the robot thread.  Only the cost to the caller is measured:  the records are
+ * written to a file in a temporary directory by the log's writer thread, and records are dropped
+ * (not blocked on) if the writer falls behind, same as on the robot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileLogBenchmark {
+
+	private static final String MESSAGE = "L Enc Ticks,1234.5,R Enc Ticks,1230.25,L Vel,54.2,R Vel,53.9";
+
+	private FileLog log;
+
+	@Setup
+	public void setup() {
+		log = new FileLog(new File(BenchmarkRobot.tempDirectory(), "logfile").getPath(), "bench");
+	}
+
+	@TearDown
+	public void tearDown() {
+		log.close();
+	}
+
+	@Benchmark
+	public void writeLog() {
+		log.writeLog("DriveTrain", "Update Variables", MESSAGE);
+	}
+
+	/**
+	 * A detailed message below the log level, which should not build the message or queue anything
+	 */
+	@Benchmark
+	public void writeLogBelowLevel() {
+		log.writeLog(1, "DriveTrain", "Update Variables", () -> MESSAGE);
+	}
+}
@@ -0,0 +1,78 @@
+package frc.robot.utilities;
+
+import frc.robot.BenchmarkRobot;
+import frc.robot.Robot;
+
+/**
+ * Desktop check of the elevator Motion Magic settings on a SimulatedTalon (not a JMH benchmark).
+ * For moves up and down from the bottom, prints the time to reach the target, the overshoot, and the
+ * time to settle within SETTLE_INCHES.
+ * <p>
+ * The gains and limits are the elevatorMM preferences that Elevator uses (their defaults, since the
+ * preferences stub returns the defaults).  The model's free speed defaults to 1 / kV (so the feed forward
+ * matches the model), and the hold output to the gravity feed forward.
+ * <pre>
+ *   ./gradlew motionMagicCheck
+ *   ./gradlew motionMagicCheck -PcheckArgs="80 0.12 0.08"     (free speed in in/s, hold output, time constant in seconds)
+ * </pre>
+ * Exits with status 1 if a move doesn't settle within TIMEOUT.
+ */
+public class MotionMagicCheck {
+
+	private static final double CYCLE = 0.02;			// seconds per robot cycle
+	private static final double SETTLE_INCHES = 0.25;	// settled = within this distance of the target from then on
+	private static final double TIMEOUT = 5.0;			// seconds to wait for each move to settle
+
+	public static void main(String[] args) {
+		BenchmarkRobot.init();
+		RobotPreferences prefs = Robot.robotPrefs;
+		double freeSpeed = (args.length >= 1) ? Double.parseDouble(args[0]) : 1.0 / prefs.elevatorMMKV;
+		double holdOutput = (args.length >= 2) ? Double.parseDouble(args[1]) : prefs.elevatorMMKGravity;
+		double timeConstant = (args.length >= 3) ? Double.parseDouble(args[2]) : 0.05;
+		// Same as Elevator.inchesToEncoderTicks(1.0)
+		double ticksPerInch = prefs.encoderTicksPerRevolution / (prefs.elevatorGearCircumference * 2);
+
+		System.out.printf("Model:  free speed %.1f in/s, hold output %.2f, time constant %.3f s%n", freeSpeed, holdOutput, timeConstant);
+		System.out.printf("%-10s %10s %12s %14s %11s%n", "Move (in)", "Profile (s)", "At target (s)", "Overshoot (in)", "Settled (s)");
+		boolean allSettled = true;
+		for (double distance : new double[] {10, 20, 40, 54, -40}) {
+			// Down moves start at the top of the move
+			double start = (distance < 0) ? -distance : 0;
+			SimulatedTalon talon = new SimulatedTalon(ticksPerInch, freeSpeed, holdOutput, timeConstant);
+			talon.configure(prefs.elevatorMMCruiseVelocity, prefs.elevatorMMAcceleration, prefs.elevatorMMKV, prefs.elevatorMMKP);
+			if (start > 0) {
+				talon.setTarget(start, prefs.elevatorMMKGravity);
+				talon.update(TIMEOUT);
+			}
+
+			double target = start + distance;
+			double startTime = talon.getTime();
+			double atTarget = Double.NaN, settled = Double.NaN, overshoot = 0;
+			talon.setTarget(target, prefs.elevatorMMKGravity);
+			while (talon.getTime() - startTime < TIMEOUT) {
+				talon.update(CYCLE);
+				double time = talon.getTime() - startTime;
+				double error = (talon.getPosition() - target) * Math.signum(distance);		// + = past the target
+				overshoot = Math.max(overshoot, error);
+				if (Double.isNaN(atTarget) && error >= -SETTLE_INCHES) {
+					atTarget = time;
+				}
+				if (Math.abs(error) <= SETTLE_INCHES) {
+					settled = Double.isNaN(settled) ? time : settled;
+				} else {
+					settled = Double.NaN;
+				}
+			}
+			allSettled &= !Double.isNaN(settled);
+
+			MotionProfile profile = new MotionProfile(distance, 0, prefs.elevatorMMCruiseVelocity, prefs.elevatorMMAcceleration,
+				prefs.elevatorMMAcceleration, 0);		// Same as Elevator.createProfile()
+			System.out.printf("%-10.0f %10.2f %12.2f %14.2f %11.2f%n", distance, profile.getTotalTime(), atTarget, overshoot, settled);
+		}
+
+		if (!allSettled) {
+			System.out.println("A move did not settle within " + TIMEOUT + " seconds");
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * VelocityChecker.getAverage() for the window sizes used by the robot code
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VelocityCheckerBenchmark {
+
+	@Param({"10", "50"})
+	public int size;
+
+	private VelocityChecker checker;
+
+	@Setup
+	public void setup() {
+		checker = VelocityChecker.getBySize(size);
+		for (int i = 0; i < size; i++) {
+			checker.addValue(40.0 + i * 0.1);
+		}
+	}
+
+	@Benchmark
+	public double getAverage() {
+		return checker.getAverage();
+	}
+}
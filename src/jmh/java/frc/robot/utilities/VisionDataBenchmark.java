@@ -0,0 +1,43 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * VisionData.calcDistanceUsingCorners() with the corners of a typical pair of targets (2 x 4 corners).
+ * The network tables are stubs, so the corners are set directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VisionDataBenchmark {
+
+	private VisionData vision;
+
+	@Setup
+	public void setup() {
+		vision = new VisionData();
+		vision.valid = true;
+		vision.cornX = new double[] {112, 121, 131, 138, 182, 189, 199, 208};
+		vision.cornY = new double[] {64, 57, 104, 98, 57, 64, 98, 104};
+	}
+
+	@Benchmark
+	public double calcDistanceUsingCorners() {
+		vision.calcDistanceUsingCorners();
+		return vision.distanceUsingCorners;
+	}
+}
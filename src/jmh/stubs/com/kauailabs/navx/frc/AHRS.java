@@ -0,0 +1,16 @@
+package com.kauailabs.navx.frc;
+
+import edu.wpi.first.wpilibj.I2C;
+
+/**
+ * Benchmark stub:  a navX that never turns
+ */
+public class AHRS {
+	public AHRS(I2C.Port port) {}
+
+	public void zeroYaw() {}
+
+	public double getAngle() {
+		return 0;
+	}
+}
@@ -0,0 +1,10 @@
+package edu.wpi.first.networktables;
+
+/**
+ * Benchmark stub (see NetworkTableInstance)
+ */
+public class NetworkTable {
+	public NetworkTableEntry getEntry(String key) {
+		return new NetworkTableEntry();
+	}
+}
@@ -0,0 +1,22 @@
+package edu.wpi.first.networktables;
+
+/**
+ * Benchmark stub (see NetworkTableInstance)
+ */
+public class NetworkTableEntry {
+	public double getDouble(double defaultValue) {
+		return defaultValue;
+	}
+
+	public double[] getDoubleArray(double[] defaultValue) {
+		return defaultValue;
+	}
+
+	public boolean setDouble(double value) {
+		return true;
+	}
+
+	public boolean setNumber(Number value) {
+		return true;
+	}
+}
@@ -0,0 +1,18 @@
+package edu.wpi.first.networktables;
+
+/**
+ * Benchmark stub:  never connects, and every entry reads its default value.
+ */
+public class NetworkTableInstance {
+	private static final NetworkTableInstance instance = new NetworkTableInstance();
+
+	public static NetworkTableInstance getDefault() {
+		return instance;
+	}
+
+	public NetworkTable getTable(String key) {
+		return new NetworkTable();
+	}
+
+	public void startClientTeam(int team) {}
+}
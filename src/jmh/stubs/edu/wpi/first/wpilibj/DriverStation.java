@@ -0,0 +1,28 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub:  the robot is always disabled, and errors are printed to standard error.
+ */
+public class DriverStation {
+	private static final DriverStation instance = new DriverStation();
+
+	public static DriverStation getInstance() {
+		return instance;
+	}
+
+	public boolean isEnabled() {
+		return false;
+	}
+
+	public boolean isDisabled() {
+		return true;
+	}
+
+	public static void reportError(String error, boolean printTrace) {
+		System.err.println(error);
+	}
+
+	public static void reportWarning(String warning, boolean printTrace) {
+		System.err.println(warning);
+	}
+}
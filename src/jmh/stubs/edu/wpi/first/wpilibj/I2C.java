@@ -0,0 +1,10 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub:  only the port names, for the navX constructor
+ */
+public class I2C {
+	public enum Port {
+		kOnboard, kMXP
+	}
+}
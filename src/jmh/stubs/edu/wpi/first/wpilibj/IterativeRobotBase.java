@@ -0,0 +1,8 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub (see RobotBase)
+ */
+public abstract class IterativeRobotBase extends RobotBase {
+	protected void loopFunc() {}
+}
@@ -0,0 +1,37 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub:  every preference has its default value, and nothing is saved.
+ */
+public class Preferences {
+	private static final Preferences instance = new Preferences();
+
+	public static Preferences getInstance() {
+		return instance;
+	}
+
+	public boolean containsKey(String key) {
+		return false;
+	}
+
+	public String getString(String key, String backup) {
+		return backup;
+	}
+
+	public int getInt(String key, int backup) {
+		return backup;
+	}
+
+	public double getDouble(String key, double backup) {
+		return backup;
+	}
+
+	public boolean getBoolean(String key, boolean backup) {
+		return backup;
+	}
+
+	public void putString(String key, String value) {}
+	public void putInt(String key, int value) {}
+	public void putDouble(String key, double value) {}
+	public void putBoolean(String key, boolean value) {}
+}
@@ -0,0 +1,7 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub (see src/jmh/java):  Robot's base classes, so Robot's static fields can be used without starting the robot.
+ */
+public abstract class RobotBase {
+}
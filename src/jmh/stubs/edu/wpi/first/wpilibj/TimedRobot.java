@@ -0,0 +1,7 @@
+package edu.wpi.first.wpilibj;
+
+/**
+ * Benchmark stub (see RobotBase)
+ */
+public class TimedRobot extends IterativeRobotBase {
+}
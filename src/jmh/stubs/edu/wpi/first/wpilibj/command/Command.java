@@ -0,0 +1,7 @@
+package edu.wpi.first.wpilibj.command;
+
+/**
+ * Benchmark stub:  only the type, for Subsystem.setDefaultCommand()
+ */
+public abstract class Command {
+}
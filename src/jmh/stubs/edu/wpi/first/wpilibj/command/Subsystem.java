@@ -0,0 +1,16 @@
+package edu.wpi.first.wpilibj.command;
+
+/**
+ * Benchmark stub:  subsystems are never registered with the scheduler.
+ */
+public abstract class Subsystem {
+	public Subsystem() {}
+
+	public Subsystem(String name) {}
+
+	protected abstract void initDefaultCommand();
+
+	public void periodic() {}
+
+	public void setDefaultCommand(Command command) {}
+}
@@ -0,0 +1,30 @@
+package edu.wpi.first.wpilibj.smartdashboard;
+
+/**
+ * Benchmark stub:  values put on the dashboard are discarded, and gets return the default value.
+ */
+public class SmartDashboard {
+	public static boolean putNumber(String key, double value) {
+		return true;
+	}
+
+	public static boolean putBoolean(String key, boolean value) {
+		return true;
+	}
+
+	public static boolean putString(String key, String value) {
+		return true;
+	}
+
+	public static double getNumber(String key, double defaultValue) {
+		return defaultValue;
+	}
+
+	public static boolean getBoolean(String key, boolean defaultValue) {
+		return defaultValue;
+	}
+
+	public static String getString(String key, String defaultValue) {
+		return defaultValue;
+	}
+}
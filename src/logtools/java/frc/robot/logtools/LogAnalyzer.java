@@ -0,0 +1,274 @@
+package frc.robot.logtools;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Command line tool for looking at FileLog CSV files on a laptop (replaces the PlotLogFile.xlsm macros).
+ * <pre>
+ * java -jar logtools.jar index [-t threads] logfile...
+ * java -jar logtools.jar extract -s subsystem [-e event] -k key1,key2,... [--from sec] [--to sec]
+ *     [--format csv|json] [-o output] [-t threads] logfile...
+ * </pre>
+ * index lists every subsystem and event in the log, with the number of records, time range, and keys.
+ * extract writes the values of some keys over time.  Times are in seconds from the first record
+ * of the first log file.  Log files are read in the order given (segments of one log should be
+ * given in order, ex. logfile.H1.date.s1.csv logfile.H1.date.s2.csv).  .csv.gz files are also read.
+ * Binary logs (.bin and .bin.gz, with the periodic subsystem data) are decoded as they are read,
+ * ex. index logfile.H1.date.bin.gz, or extract ... logfile.H1.date.s1.csv logfile.H1.date.bin to
+ * search the CSV and binary logs of one run together.
+ */
+public class LogAnalyzer {
+
+	private final static String USAGE =
+		"Usage:\n" +
+		"  index [-t threads] logfile...\n" +
+		"  extract -s subsystem [-e event] -k key1,key2,... [--from sec] [--to sec] [--format csv|json] [-o output] [-t threads] logfile...";
+
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+
+	private String command;
+	private String subsystem, event, output;
+	private String[] keys;
+	private double fromSeconds = Double.NEGATIVE_INFINITY, toSeconds = Double.POSITIVE_INFINITY;
+	private boolean json = false;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private final List<File> files = new ArrayList<File>();
+
+	public static void main(String[] args) {
+		LogAnalyzer analyzer = new LogAnalyzer();
+		try {
+			analyzer.parseArgs(args);
+		} catch (IllegalArgumentException exception) {
+			System.err.println(exception.getMessage());
+			System.err.println(USAGE);
+			System.exit(1);
+		}
+
+		try {
+			analyzer.run();
+		} catch (IOException exception) {
+			System.err.println("Error: " + exception.getMessage());
+			System.exit(2);
+		}
+	}
+
+	private LogAnalyzer() {
+		// LogLine reads times as UTC, so format them as UTC to get the original time back
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+	}
+
+	private void parseArgs(String[] args) {
+		if (args.length == 0) throw new IllegalArgumentException("No command");
+		command = args[0];
+		if (!command.equals("index") && !command.equals("extract")) {
+			throw new IllegalArgumentException("Unknown command " + command);
+		}
+
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (!arg.startsWith("-")) {
+				files.add(new File(arg));
+				continue;
+			}
+			if (i + 1 >= args.length) throw new IllegalArgumentException("Missing value for " + arg);
+			String value = args[++i];
+			try {
+				switch (arg) {
+					case "-s": subsystem = value; break;
+					case "-e": event = value; break;
+					case "-k": keys = value.split(","); break;
+					case "--from": fromSeconds = Double.parseDouble(value); break;
+					case "--to": toSeconds = Double.parseDouble(value); break;
+					case "-o": output = value; break;
+					case "-t": threads = Integer.parseInt(value); break;
+					case "--format":
+						if (!value.equals("csv") && !value.equals("json")) throw new IllegalArgumentException("Unknown format " + value);
+						json = value.equals("json");
+						break;
+					default: throw new IllegalArgumentException("Unknown option " + arg);
+				}
+			} catch (NumberFormatException exception) {
+				throw new IllegalArgumentException("Bad number for " + arg + ": " + value);
+			}
+		}
+
+		if (files.isEmpty()) throw new IllegalArgumentException("No log files");
+		for (File file : files) {
+			if (!file.isFile()) throw new IllegalArgumentException("Log file not found: " + file);
+		}
+		if (command.equals("extract") && (subsystem == null || keys == null)) {
+			throw new IllegalArgumentException("extract needs -s and -k");
+		}
+	}
+
+	private void run() throws IOException {
+		long startMillis = LogScanner.findFirstTime(files.get(0));
+		if (startMillis == Long.MIN_VALUE) throw new IOException("No log records in " + files.get(0));
+
+		try (LogScanner scanner = new LogScanner(threads);
+				Writer writer = (output == null) ? new OutputStreamWriter(System.out, StandardCharsets.ISO_8859_1)
+					: new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.ISO_8859_1);
+				PrintWriter out = new PrintWriter(new BufferedWriter(writer, 65536))) {
+			if (command.equals("index")) {
+				LogIndex index = new LogIndex();
+				for (File file : files) {
+					for (LogIndex chunk : scanner.scan(file, LogIndex.Builder::new)) index.merge(chunk);
+				}
+				writeIndex(out, index, startMillis);
+			} else {
+				long fromMillis = toMillis(startMillis, fromSeconds);
+				long toMillis = toMillis(startMillis, toSeconds);
+				List<SeriesExtractor.Row> rows = new ArrayList<SeriesExtractor.Row>();
+				for (File file : files) {
+					for (List<SeriesExtractor.Row> chunk : scanner.scan(file, () -> new SeriesExtractor(subsystem, event, keys, fromMillis, toMillis))) {
+						rows.addAll(chunk);
+					}
+				}
+				if (json) {
+					writeJson(out, rows, startMillis);
+				} else {
+					writeCsv(out, rows, startMillis);
+				}
+			}
+		}
+	}
+
+	private static long toMillis(long startMillis, double seconds) {
+		if (seconds == Double.NEGATIVE_INFINITY) return Long.MIN_VALUE + 1;
+		if (seconds == Double.POSITIVE_INFINITY) return Long.MAX_VALUE;
+		return startMillis + Math.round(seconds * 1000.0);
+	}
+
+	private void writeIndex(PrintWriter out, LogIndex index, long startMillis) {
+		out.println("Log start," + dateFormat.format(startMillis));
+		out.println("Subsystem,Event,Records,First sec,Last sec,Keys");
+		for (LogIndex.Entry entry : index.getEntries()) {
+			out.print(entry.subsystem + "," + entry.event + "," + entry.count + ",");
+			if (entry.firstMillis <= entry.lastMillis) {
+				out.print(seconds(entry.firstMillis, startMillis) + "," + seconds(entry.lastMillis, startMillis));
+			} else {
+				out.print(",");
+			}
+			out.println("," + entry.keys);
+		}
+	}
+
+	private void writeCsv(PrintWriter out, List<SeriesExtractor.Row> rows, long startMillis) {
+		StringBuilder header = new StringBuilder("Seconds");
+		if (event == null) header.append(",Event");
+		for (String key : keys) header.append(',').append(key);
+		out.println(header);
+
+		for (SeriesExtractor.Row row : rows) {
+			out.print(seconds(row.timeMillis, startMillis));
+			if (event == null) out.print("," + row.event);
+			for (String value : row.values) {
+				out.print(',');
+				if (value != null) out.print(value);
+			}
+			out.println();
+		}
+	}
+
+	/**
+	 * Writes the rows as one array per column:
+	 * {"start":"date time","subsystem":"...","event":"...","series":{"Seconds":[...],"key1":[...],...}}
+	 */
+	private void writeJson(PrintWriter out, List<SeriesExtractor.Row> rows, long startMillis) {
+		out.print("{\"start\":" + jsonString(dateFormat.format(startMillis)));
+		out.print(",\"subsystem\":" + jsonString(subsystem));
+		if (event != null) out.print(",\"event\":" + jsonString(event));
+		out.println(",\"series\":{");
+
+		out.print("\"Seconds\":[");
+		for (int i = 0; i < rows.size(); i++) {
+			if (i > 0) out.print(',');
+			out.print(seconds(rows.get(i).timeMillis, startMillis));
+		}
+		out.print("]");
+
+		if (event == null) {
+			out.print(",\n\"Event\":[");
+			for (int i = 0; i < rows.size(); i++) {
+				if (i > 0) out.print(',');
+				out.print(jsonString(rows.get(i).event));
+			}
+			out.print("]");
+		}
+
+		for (int k = 0; k < keys.length; k++) {
+			out.print(",\n" + jsonString(keys[k]) + ":[");
+			for (int i = 0; i < rows.size(); i++) {
+				if (i > 0) out.print(',');
+				out.print(jsonValue(rows.get(i).values[k]));
+			}
+			out.print("]");
+		}
+		out.println("}}");
+	}
+
+	private static String seconds(long timeMillis, long startMillis) {
+		long millis = timeMillis - startMillis;
+		String sign = (millis < 0) ? "-" : "";
+		millis = Math.abs(millis);
+		return String.format("%s%d.%03d", sign, millis / 1000, millis % 1000);
+	}
+
+	private static String jsonValue(String value) {
+		if (value == null) return "null";
+		if (value.equals("true") || value.equals("false")) return value;
+		if (isJsonNumber(value)) return value;
+		return jsonString(value);
+	}
+
+	/**
+	 * @return true if the value can be written as a JSON number as-is
+	 */
+	private static boolean isJsonNumber(String value) {
+		int i = 0, n = value.length();
+		if (i < n && value.charAt(i) == '-') i++;
+		int digits = 0;
+		while (i < n && Character.isDigit(value.charAt(i))) { i++; digits++; }
+		if (digits == 0 || (digits > 1 && value.charAt(i - digits) == '0')) return false;
+		if (i < n && value.charAt(i) == '.') {
+			i++;
+			digits = 0;
+			while (i < n && Character.isDigit(value.charAt(i))) { i++; digits++; }
+			if (digits == 0) return false;
+		}
+		if (i < n && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+			i++;
+			if (i < n && (value.charAt(i) == '-' || value.charAt(i) == '+')) i++;
+			digits = 0;
+			while (i < n && Character.isDigit(value.charAt(i))) { i++; digits++; }
+			if (digits == 0) return false;
+		}
+		return i == n;
+	}
+
+	private static String jsonString(String value) {
+		StringBuilder s = new StringBuilder(value.length() + 2).append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				s.append('\\').append(c);
+			} else if (c < 0x20) {
+				s.append(String.format("\\u%04x", (int) c));
+			} else {
+				s.append(c);
+			}
+		}
+		return s.append('"').toString();
+	}
+}
@@ -0,0 +1,97 @@
+package frc.robot.logtools;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Index of a log by subsystem and event: how many records each (subsystem, event) has,
+ * the time range of the records, and the keys in the first record.
+ */
+public class LogIndex {
+
+	/**
+	 * Index entry for one subsystem and event
+	 */
+	public static class Entry {
+		public final String subsystem, event;
+		public final String keys;			// Keys in the first record, separated by ';'
+		public long count = 0;
+		public long firstMillis = Long.MAX_VALUE, lastMillis = Long.MIN_VALUE;
+
+		Entry(String subsystem, String event, String keys) {
+			this.subsystem = subsystem;
+			this.event = event;
+			this.keys = keys;
+		}
+	}
+
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>();
+
+	/**
+	 * @return entries in the order that they first appear in the log
+	 */
+	public List<Entry> getEntries() {
+		return new ArrayList<Entry>(entries.values());
+	}
+
+	/**
+	 * Adds the entries of another index (from a later part of the log) to this index
+	 */
+	public void merge(LogIndex other) {
+		for (Entry entry : other.entries.values()) {
+			Entry mine = entries.get(key(entry.subsystem, entry.event));
+			if (mine == null) {
+				entries.put(key(entry.subsystem, entry.event), entry);
+			} else {
+				mine.count += entry.count;
+				mine.firstMillis = Math.min(mine.firstMillis, entry.firstMillis);
+				mine.lastMillis = Math.max(mine.lastMillis, entry.lastMillis);
+			}
+		}
+	}
+
+	private static String key(String subsystem, String event) {
+		return subsystem + "," + event;
+	}
+
+	/**
+	 * Builds the index of one chunk of a log
+	 */
+	public static class Builder implements LogScanner.LineHandler<LogIndex> {
+		private final LogIndex index = new LogIndex();
+
+		@Override
+		public void line(LogLine line) {
+			if (line.isComment() || line.getColumnCount() <= LogLine.EVENT_COLUMN) return;
+
+			String key = line.getColumns(LogLine.SUBSYSTEM_COLUMN, LogLine.EVENT_COLUMN);
+			Entry entry = index.entries.get(key);
+			if (entry == null) {
+				entry = new Entry(line.getColumn(LogLine.SUBSYSTEM_COLUMN), line.getColumn(LogLine.EVENT_COLUMN), keys(line));
+				index.entries.put(key, entry);
+			}
+
+			entry.count++;
+			long time = line.getTimeMillis();
+			if (time != Long.MIN_VALUE) {
+				if (time < entry.firstMillis) entry.firstMillis = time;
+				if (time > entry.lastMillis) entry.lastMillis = time;
+			}
+		}
+
+		@Override
+		public LogIndex result() {
+			return index;
+		}
+
+		private static String keys(LogLine line) {
+			StringBuilder keys = new StringBuilder();
+			for (int column = LogLine.FIRST_MESSAGE_COLUMN; column < line.getColumnCount(); column += 2) {
+				if (keys.length() > 0) keys.append(';');
+				keys.append(line.getColumn(column));
+			}
+			return keys.toString();
+		}
+	}
+}
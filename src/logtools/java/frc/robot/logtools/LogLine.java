@@ -0,0 +1,153 @@
+package frc.robot.logtools;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * One line of a FileLog CSV file, split into columns without copying:
+ * <pre>
+ * date time,Subsystem,Event,key1,value1,key2,value2,...
+ * </pre>
+ * A LogLine is reused for every line in a chunk, so Strings are only created when asked for.
+ */
+public class LogLine {
+
+	public final static int TIME_COLUMN = 0;
+	public final static int SUBSYSTEM_COLUMN = 1;
+	public final static int EVENT_COLUMN = 2;
+	public final static int FIRST_MESSAGE_COLUMN = 3;
+
+	private final static int MAX_COLUMNS = 512;		// Extra columns are merged into the last column
+	private final static int TIME_LENGTH = 23;		// "yyyy-MM-dd HH:mm:ss.SSS"
+
+	private ByteBuffer buffer;
+	private final int[] columnStart = new int[MAX_COLUMNS + 1];	// columnStart[columns] is one past the end of the line + 1
+	private int columns = 0;
+
+	// Cache of the last date that was parsed, since every line in a file normally has the same date
+	private int lastDateKey = -1;
+	private long lastDateMillis;
+
+	/**
+	 * Points this LogLine at a new line
+	 * @param buffer buffer holding the line
+	 * @param start index of the first byte of the line
+	 * @param end index one past the last byte of the line (not including '\n')
+	 */
+	void set(ByteBuffer buffer, int start, int end) {
+		this.buffer = buffer;
+		if (end > start && buffer.get(end - 1) == '\r') end--;
+
+		columns = 0;
+		columnStart[columns++] = start;
+		for (int i = start; i < end && columns < MAX_COLUMNS; i++) {
+			if (buffer.get(i) == ',') columnStart[columns++] = i + 1;
+		}
+		columnStart[columns] = end + 1;
+	}
+
+	public int getColumnCount() {
+		return columns;
+	}
+
+	/**
+	 * @return true if this is a header or comment line (ex. the "#FileLog segment" header)
+	 */
+	public boolean isComment() {
+		return columnLength(0) > 0 && buffer.get(columnStart[0]) == '#';
+	}
+
+	/**
+	 * @param column column number, starting at 0
+	 * @return text of the column, or "" if the line does not have that column
+	 */
+	public String getColumn(int column) {
+		return getColumns(column, column);
+	}
+
+	/**
+	 * @param first first column, starting at 0
+	 * @param last last column
+	 * @return text of the columns, including the commas between them
+	 */
+	public String getColumns(int first, int last) {
+		if (first >= columns) return "";
+		if (last >= columns) last = columns - 1;
+		int start = columnStart[first];
+		int length = columnStart[last + 1] - 1 - start;
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) bytes[i] = buffer.get(start + i);
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * @param column column number, starting at 0
+	 * @param text text to compare, as ISO-8859-1 bytes
+	 * @return true if the column is exactly the text
+	 */
+	public boolean columnEquals(int column, byte[] text) {
+		if (column >= columns || columnLength(column) != text.length) return false;
+		int start = columnStart[column];
+		for (int i = 0; i < text.length; i++) {
+			if (buffer.get(start + i) != text[i]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Finds the value of a key in the message part of the line ("key,value" pairs)
+	 * @param key key to find, as ISO-8859-1 bytes
+	 * @return column number of the value, or -1 if the key is not on this line
+	 */
+	public int findValueColumn(byte[] key) {
+		for (int column = FIRST_MESSAGE_COLUMN; column < columns - 1; column++) {
+			if (columnEquals(column, key)) return column + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * Reads the time stamp in the first column.  The time is read as if it were UTC, so it is only
+	 * useful for comparing times in the same log (or formatting it again as UTC).
+	 * @return time in ms, or Long.MIN_VALUE if the first column is not a time stamp
+	 */
+	public long getTimeMillis() {
+		if (columnLength(TIME_COLUMN) != TIME_LENGTH) return Long.MIN_VALUE;
+		int p = columnStart[TIME_COLUMN];
+
+		int year = digits(p, 4), month = digits(p + 5, 2), day = digits(p + 8, 2);
+		int hour = digits(p + 11, 2), minute = digits(p + 14, 2), second = digits(p + 17, 2), millis = digits(p + 20, 3);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || minute < 0 || second < 0 || millis < 0) {
+			return Long.MIN_VALUE;
+		}
+
+		int dateKey = (year * 100 + month) * 100 + day;
+		if (dateKey != lastDateKey) {
+			try {
+				lastDateMillis = LocalDate.of(year, month, day).toEpochDay() * 86400000L;
+			} catch (RuntimeException exception) {
+				return Long.MIN_VALUE;
+			}
+			lastDateKey = dateKey;
+		}
+		return lastDateMillis + ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+	}
+
+	private int columnLength(int column) {
+		return columnStart[column + 1] - 1 - columnStart[column];
+	}
+
+	/**
+	 * @return value of n decimal digits starting at index p, or -1 if they are not all digits
+	 */
+	private int digits(int p, int n) {
+		int value = 0;
+		for (int i = p; i < p + n; i++) {
+			int digit = buffer.get(i) - '0';
+			if (digit < 0 || digit > 9) return -1;
+			value = value * 10 + digit;
+		}
+		return value;
+	}
+}
@@ -0,0 +1,320 @@
+package frc.robot.logtools;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import frc.robot.utilities.BinaryLogDecoder;
+
+/**
+ * Reads FileLog CSV files in parallel.  A file is split into chunks at line boundaries, each chunk is
+ * memory-mapped and read by a worker thread with its own LineHandler, and the results are returned
+ * in file order.  Compressed (.gz) files are read as one chunk, since they can't be split.
+ * <p>
+ * Binary logs (.bin and .bin.gz) are decoded with BinaryLogDecoder as they are read, and their
+ * lines are handled as one chunk, the same as the lines of a CSV file.
+ */
+public class LogScanner implements AutoCloseable {
+
+	/**
+	 * Receives the lines of one chunk, in order
+	 */
+	public interface LineHandler<T> {
+		void line(LogLine line);
+
+		/**
+		 * @return result for the chunk, after all of its lines were handled
+		 */
+		T result();
+
+		/**
+		 * @return true = the handler doesn't need any more lines (only checked for binary logs)
+		 */
+		default boolean isDone() {
+			return false;
+		}
+	}
+
+	private final static long MIN_CHUNK_SIZE = 4 * 1024 * 1024;
+	private final static long MAX_CHUNK_SIZE = 256 * 1024 * 1024;
+	private final static int MAX_LINE_LENGTH = 1024 * 1024;	// Longer lines are cut off
+
+	private final int threads;
+	private final ExecutorService pool;
+
+	/**
+	 * @param threads number of worker threads
+	 */
+	public LogScanner(int threads) {
+		this.threads = Math.max(1, threads);
+		pool = Executors.newFixedThreadPool(this.threads, runnable -> {
+			Thread thread = new Thread(runnable, "LogScanner");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Reads every line of a file
+	 * @param file FileLog CSV file (or .csv.gz file), or binary log file (.bin or .bin.gz)
+	 * @param handlers creates a new handler for each chunk
+	 * @return the result of each chunk, in file order
+	 */
+	public <T> List<T> scan(File file, Supplier<LineHandler<T>> handlers) throws IOException {
+		List<T> results = new ArrayList<T>();
+		if (isBinary(file)) {
+			results.add(scanBinary(file, handlers.get()));
+			return results;
+		}
+		if (file.getName().endsWith(".gz")) {
+			try (InputStream in = new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)), 65536)) {
+				results.add(scanStream(in, handlers.get()));
+			}
+			return results;
+		}
+
+		long length = file.length();
+		long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, length / (threads * 4) + 1));
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		for (long start = 0; start < length; start += chunkSize) {
+			long chunkStart = start;
+			long chunkEnd = Math.min(length, start + chunkSize);
+			futures.add(pool.submit(() -> scanChunk(file, chunkStart, chunkEnd, handlers.get())));
+		}
+
+		try {
+			for (Future<T> future : futures) results.add(future.get());
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while reading " + file);
+		} catch (ExecutionException exception) {
+			Throwable cause = exception.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			throw new IOException("Could not read " + file + ": " + cause, cause);
+		}
+		return results;
+	}
+
+	/**
+	 * Reads the lines that start in [start, end).  The last line may run past end.
+	 */
+	private static <T> T scanChunk(File file, long start, long end, LineHandler<T> handler) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			long mapStart = Math.max(0, start - 1);
+			long mapEnd = Math.min(raf.length(), end + MAX_LINE_LENGTH);
+			ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+			int limit = buffer.limit();
+			int chunkEnd = (int) (end - mapStart);
+
+			// Skip the partial line at the start (it belongs to the previous chunk)
+			int position = 0;
+			if (start > 0) {
+				while (position < limit && buffer.get(position) != '\n') position++;
+			} else {
+				position = -1;
+			}
+			position++;
+
+			LogLine line = new LogLine();
+			while (position < chunkEnd) {
+				int lineEnd = position;
+				while (lineEnd < limit && buffer.get(lineEnd) != '\n') lineEnd++;
+				if (lineEnd > position) {
+					line.set(buffer, position, lineEnd);
+					handler.line(line);
+				}
+				position = lineEnd + 1;
+			}
+		}
+		return handler.result();
+	}
+
+	private static <T> T scanStream(InputStream in, LineHandler<T> handler) throws IOException {
+		byte[] bytes = new byte[65536];
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		LogLine line = new LogLine();
+		int length = 0;
+		int n;
+
+		while ((n = in.read(bytes, length, bytes.length - length)) > 0) {
+			length += n;
+
+			// Handle the complete lines, then move the partial line to the start of the buffer
+			int position = 0;
+			for (int i = 0; i < length; i++) {
+				if (bytes[i] == '\n') {
+					if (i > position) {
+						line.set(buffer, position, i);
+						handler.line(line);
+					}
+					position = i + 1;
+				}
+			}
+			if (position == 0 && length == bytes.length) {
+				// Line longer than the buffer
+				if (bytes.length < MAX_LINE_LENGTH) {
+					byte[] newBytes = new byte[bytes.length * 2];
+					System.arraycopy(bytes, 0, newBytes, 0, length);
+					bytes = newBytes;
+					buffer = ByteBuffer.wrap(bytes);
+				} else {
+					line.set(buffer, 0, length);
+					handler.line(line);
+					length = 0;
+				}
+				continue;
+			}
+			System.arraycopy(bytes, position, bytes, 0, length - position);
+			length -= position;
+		}
+		if (length > 0) {
+			line.set(buffer, 0, length);
+			handler.line(line);
+		}
+		return handler.result();
+	}
+
+	/**
+	 * @return true = the file is a binary log written by FileLog.writeChannels() or FlightRecorder
+	 */
+	public static boolean isBinary(File file) {
+		String name = file.getName();
+		return name.endsWith(".bin") || name.endsWith(".bin.gz");
+	}
+
+	private static <T> T scanBinary(File file, LineHandler<T> handler) throws IOException {
+		try (DataInputStream in = BinaryLogDecoder.open(file.getPath());
+				LineWriter out = new LineWriter(handler)) {
+			new BinaryLogDecoder().decode(in, out);
+		}
+		return handler.result();
+	}
+
+	/**
+	 * Finds the time of the first record in a file
+	 * @return time in ms (see LogLine.getTimeMillis()), or Long.MIN_VALUE if the file has no records
+	 */
+	public static long findFirstTime(File file) throws IOException {
+		if (isBinary(file)) {
+			return scanBinary(file, new FirstTimeHandler());
+		}
+
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		if (file.getName().endsWith(".gz")) in = new GZIPInputStream(in);
+
+		try (InputStream stream = in) {
+			byte[] bytes = new byte[4096];
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			LogLine line = new LogLine();
+			int length = 0;
+			int c;
+			while ((c = stream.read()) >= 0) {
+				if (c != '\n' && length < bytes.length) {
+					bytes[length++] = (byte) c;
+					continue;
+				}
+				if (c == '\n') {
+					line.set(buffer, 0, length);
+					long time = line.isComment() ? Long.MIN_VALUE : line.getTimeMillis();
+					if (time != Long.MIN_VALUE) return time;
+					length = 0;
+				}
+			}
+		}
+		return Long.MIN_VALUE;
+	}
+
+	@Override
+	public void close() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * Finds the time of the first record, for findFirstTime()
+	 */
+	private static class FirstTimeHandler implements LineHandler<Long> {
+		private long time = Long.MIN_VALUE;
+
+		@Override
+		public void line(LogLine line) {
+			if (time == Long.MIN_VALUE && !line.isComment()) time = line.getTimeMillis();
+		}
+
+		@Override
+		public Long result() {
+			return time;
+		}
+
+		@Override
+		public boolean isDone() {
+			return time != Long.MIN_VALUE;
+		}
+	}
+
+	/**
+	 * Passes the CSV lines written by BinaryLogDecoder to a LineHandler, without creating Strings
+	 */
+	private static class LineWriter extends Writer {
+		private final LineHandler<?> handler;
+		private final LogLine line = new LogLine();
+		private byte[] bytes = new byte[4096];
+		private ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		private int length = 0;
+
+		LineWriter(LineHandler<?> handler) {
+			this.handler = handler;
+		}
+
+		@Override
+		public void write(char[] chars, int offset, int count) throws IOException {
+			for (int i = offset; i < offset + count; i++) {
+				char c = chars[i];
+				if (c == '\n') {
+					endLine();
+					// Stop decoding (BinaryLogDecoder treats EOFException as the end of the file)
+					if (handler.isDone()) throw new EOFException();
+				} else if (length < MAX_LINE_LENGTH) {
+					if (length == bytes.length) {
+						bytes = Arrays.copyOf(bytes, bytes.length * 2);
+						buffer = ByteBuffer.wrap(bytes);
+					}
+					bytes[length++] = (byte) c;		// The log is ISO-8859-1, like the CSV files
+				}
+			}
+		}
+
+		private void endLine() {
+			if (length > 0) {
+				line.set(buffer, 0, length);
+				handler.line(line);
+				length = 0;
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+			endLine();
+		}
+	}
+}
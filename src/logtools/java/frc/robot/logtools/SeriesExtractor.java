@@ -0,0 +1,75 @@
+package frc.robot.logtools;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls the values of some keys out of the records of one subsystem (and optionally one event)
+ * in a time window.
+ */
+public class SeriesExtractor implements LogScanner.LineHandler<List<SeriesExtractor.Row>> {
+
+	/**
+	 * Values of the keys in one record.  A value is null if the record does not have that key.
+	 */
+	public static class Row {
+		public final long timeMillis;
+		public final String event;
+		public final String[] values;
+
+		Row(long timeMillis, String event, String[] values) {
+			this.timeMillis = timeMillis;
+			this.event = event;
+			this.values = values;
+		}
+	}
+
+	private final byte[] subsystem, event;
+	private final byte[][] keys;
+	private final long fromMillis, toMillis;
+	private final List<Row> rows = new ArrayList<Row>();
+
+	/**
+	 * @param subsystem subsystem to extract
+	 * @param event event to extract, or null for every event of the subsystem
+	 * @param keys keys to extract
+	 * @param fromMillis first time to extract, in ms (see LogLine.getTimeMillis())
+	 * @param toMillis last time to extract, in ms
+	 */
+	public SeriesExtractor(String subsystem, String event, String[] keys, long fromMillis, long toMillis) {
+		this.subsystem = subsystem.getBytes(StandardCharsets.ISO_8859_1);
+		this.event = (event == null) ? null : event.getBytes(StandardCharsets.ISO_8859_1);
+		this.keys = new byte[keys.length][];
+		for (int i = 0; i < keys.length; i++) {
+			this.keys[i] = keys[i].getBytes(StandardCharsets.ISO_8859_1);
+		}
+		this.fromMillis = fromMillis;
+		this.toMillis = toMillis;
+	}
+
+	@Override
+	public void line(LogLine line) {
+		if (!line.columnEquals(LogLine.SUBSYSTEM_COLUMN, subsystem)) return;
+		if (event != null && !line.columnEquals(LogLine.EVENT_COLUMN, event)) return;
+
+		long time = line.getTimeMillis();
+		if (time == Long.MIN_VALUE || time < fromMillis || time > toMillis) return;
+
+		String[] values = null;
+		for (int i = 0; i < keys.length; i++) {
+			int column = line.findValueColumn(keys[i]);
+			if (column < 0) continue;
+			if (values == null) values = new String[keys.length];
+			values[i] = line.getColumn(column);
+		}
+		if (values == null) return;		// None of the keys are in this record
+
+		rows.add(new Row(time, (event == null) ? line.getColumn(LogLine.EVENT_COLUMN) : null, values));
+	}
+
+	@Override
+	public List<Row> result() {
+		return rows;
+	}
+}
@@ -150,6 +150,9 @@ public class OI {
     SmartDashboard.putData("Shift High", new Shift(true));
     SmartDashboard.putData("Shift Low", new Shift(false));
 
+    // Button for saving the flight recorder history to a file
+    SmartDashboard.putData("Flight Recorder Dump", new FlightRecorderDump());
+
     // Buttons for controlling the elevator
     SmartDashboard.putData("Elevator Up", new ElevatorSetPercentOutput(0.4)); // For testing limit switch and encoder
     SmartDashboard.putData("Elevator Down", new ElevatorSetPercentOutput(-0.2)); // For testing limit switch and encoder
@@ -35,11 +35,17 @@ public class Robot extends TimedRobot {
   public static Climb climb;
   public static OI oi;
   public static FileLog log;
+  public static FlightRecorder flightRecorder;
   public static RobotPreferences robotPrefs;
   public static PowerDistributionPanel pdp;
+  public static PdpMonitor pdpMonitor;
   public static LedHandler leds;
   public static CANDeviceFinder canDeviceFinder;
   public static AutoSelection autoSelection;
+  public static TrajectoryCache trajectoryCache;
+  public static PoseEstimator poseEstimator;
+  public static SensorFrame sensors;
+  public static Interlocks interlocks;
 
   public static boolean beforeFirstEnable = true; // true before the first time the robot is enabled after loading code
   public static boolean startedAuto = false;
@@ -54,21 +60,38 @@ public class Robot extends TimedRobot {
     canDeviceFinder = new CANDeviceFinder();
     canDeviceFinder.enumerateCANBusToStdOut();
 
+    // Use the FPGA clock for all timing (profiles, path followers, log time stamps)
+    RobotClock.set(RobotClock.FPGA);
+
     // Create file log first, so any other class constructors can log data
     log = new FileLog("H1");
+    flightRecorder = new FlightRecorder();
 
     // Read robot preference next, so any other class constructors can use preferences 
     robotPrefs = new RobotPreferences();
     robotPrefs.doExist();   // Sets up Robot Preferences if they do not exist : ie you just replaced RoboRio
+    log.setRetentionQuota(robotPrefs.logQuotaMB);
+
+    // Start loading the Pathfinder paths in the background, before any DrivePathfinder commands are created
+    trajectoryCache = new TrajectoryCache();
+    trajectoryCache.preloadAll();
     
     beforeFirstEnable = true; // set variable that robot has not been enabled
 
+    // Create the sensor frame and interlocks before the subsystems, since subsystem constructors use them
+    sensors = new SensorFrame();
+    interlocks = new Interlocks();
+
     // Create all subsystems and utilities
     if (robotPrefs.neoDrivetrain) {
       driveTrain = new NeoDriveTrain();
     } else {
       driveTrain = new CimDriveTrain();
     }
+
+    // Track the robot's field position in the background, for all drive commands and the dashboard
+    poseEstimator = new PoseEstimator(driveTrain);
+    poseEstimator.start();
     
     shifter = new Shifter();
     elevator = new Elevator();
@@ -84,6 +107,10 @@ public class Robot extends TimedRobot {
     leds = new LedHandler();
     pdp = new PowerDistributionPanel();
 
+    // Read the PDP currents in the background, so motor checks and logging don't wait for CAN reads
+    pdpMonitor = new PdpMonitor(pdp, robotPrefs.pdpPollPeriod);
+    pdpMonitor.start();
+
     // pdp.clearStickyFaults();
     // m_chooser.setDefaultOption("Default Auto", new ExampleCommand());
     // chooser.addOption("My Auto", new MyAutoCommand());
@@ -95,6 +122,22 @@ public class Robot extends TimedRobot {
     
     // Create OI last, so all subsystem and utility objects are created before OI
     oi = new OI();
+
+    // Read all sensors for the first cycle
+    sensors.capture();
+    interlocks.update();
+  }
+
+  /**
+   * Reads all of the sensors once at the start of each cycle, before the mode functions, the
+   * scheduler (commands and subsystem periodic()), and robotPeriodic() run.  So, everything in
+   * one cycle uses the same sensor readings (and the same interlock snapshot).
+   */
+  @Override
+  protected void loopFunc() {
+    sensors.capture();
+    interlocks.update();
+    super.loopFunc();
   }
 
   /**
@@ -137,6 +180,7 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void disabledInit() {
+    log.startNewSegment("Disabled");
     log.writeLogEcho("Robot", "Disabled", "");
     climb.enableCompressor(true);
     vision.setLedMode(1);
@@ -177,6 +221,7 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void autonomousInit() {
+    log.startNewSegment("Autonomous");
     log.writeLogEcho("Robot", "Autonomous mode init", "");
     // beforeFirstEnable = false; // set variable that robot has been enabled
     // elevator.setElevatorMotorPercentOutput(-0.2); // drive elevator down in case it isn't calibrated
@@ -208,6 +253,7 @@ public class Robot extends TimedRobot {
     // this line or comment it out.
     climb.enableCompressor(true);
     // vision.setLedMode(1);       // TODO Turn on (set to 3) if we are using vision
+    log.startNewSegment("Teleop");
     log.writeLogEcho("Robot", "Teleop mode init", "");
     beforeFirstEnable = false; // set variable that robot has been enabled
     
@@ -8,24 +8,19 @@
 package frc.robot.commands;
 
 import edu.wpi.first.wpilibj.command.CommandGroup;
-import edu.wpi.first.wpilibj.command.ConditionalCommand;
+import frc.robot.utilities.PathStitcher;
+import frc.robot.utilities.RobotPreferences.TurnDirection;
 
 public class Auto1RocketB extends CommandGroup {
   /**
    * Pathfinder path to go to back side of rocket starting from level 1.
+   * Backs up along the path, turns in place, then drives the path forward, as one stitched path.
    * @param fieldSide "Left" or "Right"
    */
   public Auto1RocketB(String fieldSide) {
-    addSequential(new DrivePathfinder(fieldSide + "1RocketB", true, false));
-    addSequential(new ConditionalCommand(new TurnWithGyro(-90, false), new TurnWithGyro(90, false)){
-    
-      @Override
-      protected boolean condition() {
-        if (fieldSide.equals("Left")) return true;
-        else return false;
-      }
-    });
-
-    addSequential(new DrivePathfinder(fieldSide + "1RocketB", false, true));
+    addSequential(new DrivePathfinder(new PathStitcher("Auto1RocketB" + fieldSide)
+      .path(fieldSide + "1RocketB", false)
+      .turnTo(fieldSide.equals("Left") ? -90 : 90, TurnDirection.shortest)
+      .path(fieldSide + "1RocketB", true), true));
   }
 }
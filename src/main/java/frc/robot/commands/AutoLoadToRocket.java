@@ -8,14 +8,15 @@
 package frc.robot.commands;
 
 import edu.wpi.first.wpilibj.command.CommandGroup;
+import frc.robot.utilities.PathStitcher;
 import frc.robot.utilities.RobotPreferences.TurnDirection;
 
 public class AutoLoadToRocket extends CommandGroup {
   /**
-   * Add your docs here.
+   * Backs up from the loading station to the rocket, then turns to face the rocket (one stitched path)
    */
   public AutoLoadToRocket() {
-    addSequential(new DrivePathfinder("RightRocketLoadF2", true, false));
-    addSequential(new TurnWithGyro(0, false, TurnDirection.right));
+    addSequential(new DrivePathfinder(new PathStitcher("AutoLoadToRocket")
+      .path("RightRocketLoadF2", false).turnTo(0, TurnDirection.right), true));
   }
 }
@@ -7,23 +7,35 @@
 
 package frc.robot.commands;
 
+import java.util.concurrent.CompletableFuture;
+
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
 import frc.robot.pathfinder.Pathfinder;
 import frc.robot.pathfinder.Trajectory;
 import frc.robot.pathfinder.followers.DistanceFollower;
+import frc.robot.utilities.LogRecord;
+import frc.robot.utilities.PathStitcher;
+import frc.robot.utilities.Pose;
+import frc.robot.utilities.RobotClock;
 import frc.robot.utilities.RobotPreferences;
+import frc.robot.utilities.TrajectoryCache.TankPath;
 
 public class DrivePathfinder extends Command {
   private DistanceFollower dfLeft, dfRight, dfCenter;
   private Trajectory trajCenter;
   private Trajectory trajRight;
   private Trajectory trajLeft;
+  private CompletableFuture<TankPath> path;
+  private boolean following;        // true = the path is loaded and the followers were started
+  private boolean faultReported;    // true = the missing path was already reported
   private boolean resetGyro;
-  private String pathName;
-  private static boolean enablePathfinder = true; // true = all paths loaded and allow pathfinder to work,
+  private boolean stitched;         // true = path from PathStitcher (may have in-place turns)
+  private volatile String pathName;
+  private static volatile boolean enablePathfinder = true; // true = all paths loaded and allow pathfinder to work,
                                                   // false = a path did not load, stop pathfinder
+  private static final double LOAD_TIMEOUT = 2.0;   // seconds to wait for the path to load before giving up
 
   double distL = 0, distR = 0, distC = 0;      // Distance traveled
   double distLPrior = 0, distRPrior = 0, distCPrior = 0;      // Distance traveled in prior iteration of loop
@@ -33,51 +45,90 @@ public class DrivePathfinder extends Command {
   double skidGain = 0.28;      // Magnify delta between wheels by this factor to account for skid
   double skidEncoderAdjust = 0.12;   // Decrease distance travelled compared to encoder measurements when turning, to account for skid (try 0.1)
   double skidAdjust = 0.0;    // Temp variable for skid adjustments
+  private final LogRecord logRecord = new LogRecord("Pathfinder", "execute", 1024);
 
   /**
    * Drive following a path
-   * @param pathName        File name excluding .pf1.csv
+   * @param pathName        File name excluding .pf1.csv (the compiled .pf1.bin file is used if it was deployed)
    * @param gyroReset       True = reset gyro to first heading on trajectory, False = don't reset gyro
    * @param driveDirection  True = drive forward, False = drive backward
    */
   public DrivePathfinder(String pathName, boolean gyroReset, boolean driveDirection) {
+    this(pathName, gyroReset, Robot.trajectoryCache.get(pathName, driveDirection), false);
+  }
+
+  /**
+   * Drive following a path, re-timed for new velocity and acceleration limits (ex. slower when the battery is low)
+   * @param pathName        File name excluding .pf1.csv (the compiled .pf1.bin file is used if it was deployed)
+   * @param gyroReset       True = reset gyro to first heading on trajectory, False = don't reset gyro
+   * @param driveDirection  True = drive forward, False = drive backward
+   * @param maxVelocity     Max velocity, in inches per second
+   * @param maxAcceleration Max acceleration, in inches per second per second
+   */
+  public DrivePathfinder(String pathName, boolean gyroReset, boolean driveDirection, double maxVelocity, double maxAcceleration) {
+    this(pathName, gyroReset, Robot.trajectoryCache.get(pathName, driveDirection, maxVelocity, maxAcceleration), false);
+  }
+
+  /**
+   * Drive following several paths and in-place turns stitched into one path, without stopping between them
+   * (see PathStitcher)
+   * @param stitcher        Paths and turns to drive
+   * @param gyroReset       True = reset gyro to first heading on trajectory, False = don't reset gyro
+   */
+  public DrivePathfinder(PathStitcher stitcher, boolean gyroReset) {
+    this(stitcher.getName(), gyroReset, stitcher.build(), true);
+  }
+
+  private DrivePathfinder(String pathName, boolean gyroReset, CompletableFuture<TankPath> path, boolean stitched) {
     // Use requires() here to declare subsystem dependencies
     // eg. requires(chassis);
     requires(Robot.driveTrain);
     resetGyro = gyroReset;
     this.pathName = pathName;
+    this.path = path;
+    this.stitched = stitched;
 
-    // Load Pathfinder paths
-    if (driveDirection) {
-      trajCenter = Pathfinder.readFromCSV(pathName + ".pf1.csv", driveDirection);
-      trajRight = Pathfinder.readFromCSV(pathName + ".left.pf1.csv", driveDirection);
-      trajLeft = Pathfinder.readFromCSV(pathName + ".right.pf1.csv", driveDirection);
-    } else {
-      trajCenter = Pathfinder.readFromCSV(pathName + ".pf1.csv", driveDirection);
-      trajRight = Pathfinder.readFromCSV(pathName + ".right.pf1.csv", driveDirection);
-      trajLeft = Pathfinder.readFromCSV(pathName + ".left.pf1.csv", driveDirection);
-    }
-  
-    // If a path file was missing, then disable Pathfinder for all paths.
+    // The paths come from the trajectory cache (loaded on a background thread).
+    // If a path file is missing, then disable Pathfinder for all paths.
     // Note that enablePathfinder is static, so one copy is shared by all DrivePathfinder objects.
     // We disable all paths, because if one path is missing in a sequence, then the we don't
     // want any subsequent paths to run assuming that we followed the missing path.
-    if (trajCenter == null || trajRight == null || trajLeft == null) {
-      enablePathfinder = false;
-      this.pathName = "FILE NOT FOUND: " + this.pathName;
-      Robot.robotPrefs.recordStickyFaults("Pathfinder");
-      Robot.log.writeLogEcho("Pathfinder", "", this.pathName);
-    }
+    // Only set the flags on the loading thread.  The fault is reported on the robot thread in initialize().
+    path.thenAccept(loadedPath -> {
+      if (loadedPath == null) {
+        enablePathfinder = false;
+        this.pathName = "FILE NOT FOUND: " + pathName;
+      }
+    });
 
     SmartDashboard.putBoolean("Pathfinder enabled", enablePathfinder);
+  }
 
-    // Don't do anything if this path or any other path is missing
-    if (!enablePathfinder) {
-      return;
+  /**
+   * Creates the DistanceFollowers the first time the command runs (after the path has been loaded).
+   * Does not wait for the path to load.
+   * @return true if the followers are ready, false if the path is still loading or is missing
+   */
+  private boolean setupFollowers() {
+    if (dfCenter != null) return true;
+    if (!path.isDone()) return false;
+
+    TankPath loadedPath = path.join();    // Already loaded, so this doesn't block
+    if (loadedPath == null) {
+      if (!faultReported) {
+        faultReported = true;
+        Robot.robotPrefs.recordStickyFaults("Pathfinder");
+        Robot.log.writeLogEcho("Pathfinder", "", pathName);
+        SmartDashboard.putBoolean("Pathfinder enabled", enablePathfinder);
+      }
+      return false;
     }
 
+    trajCenter = loadedPath.center;
+    trajLeft = loadedPath.left;
+    trajRight = loadedPath.right;
+
     // Create DistanceFollowers for the Trajectories and configure them
-    
     dfLeft = new DistanceFollower(trajLeft);
     dfRight = new DistanceFollower(trajRight);
     dfCenter = new DistanceFollower(trajCenter);
@@ -89,9 +140,7 @@ public class DrivePathfinder extends Command {
     segCenter = dfCenter.getSegment();
     segLeft = dfLeft.getSegment();
     segRight = dfRight.getSegment();
-
-    // Prime string building in data logger to prevent delays when executing the command
-    logData();
+    return true;
   }
 
   /**
@@ -105,12 +154,25 @@ public class DrivePathfinder extends Command {
   // Called just before this Command runs the first time
   @Override
   protected void initialize() {
+    following = false;
+    if (!path.isDone()) {
+      // Only happens if the command starts within a second or so of boot.  Start the path in execute() once it loads.
+      Robot.log.writeLogEcho("Pathfinder", "initialize", "Waiting for path to load," + pathName);
+    }
+    startFollowing();
+  }
+
+  /**
+   * Starts following the path, if the path is loaded and Pathfinder is enabled
+   */
+  private void startFollowing() {
     // Don't do anything if this path or any other path is missing
-    if (!enablePathfinder) {
+    if (!setupFollowers() || !enablePathfinder) {
       return;
     }
-    
-    Robot.log.writeLog("Pathfinder", "initialize", "current time," + System.currentTimeMillis() + ",start time," + dfLeft.getStartTimeMillis());
+    following = true;
+
+    Robot.log.writeLog("Pathfinder", "initialize", "current time," + RobotClock.get().millis() + ",start time," + dfLeft.getStartTimeMillis());
     Robot.driveTrain.setDriveModeCoast(true);
     Robot.driveTrain.zeroLeftEncoder();
     Robot.driveTrain.zeroRightEncoder();
@@ -124,7 +186,7 @@ public class DrivePathfinder extends Command {
     distC = 0;  distCPrior = 0;
 
     if (resetGyro) {
-      gyroHeadingPrior = Pathfinder.r2d(trajCenter.segments[0].heading);
+      gyroHeadingPrior = Pathfinder.r2d(trajCenter.getHeading(0));
       Robot.driveTrain.setGyroRotation(gyroHeadingPrior);
     } else {
       gyroHeadingPrior = Robot.driveTrain.getGyroRotation();
@@ -134,8 +196,13 @@ public class DrivePathfinder extends Command {
   // Called repeatedly when this Command is scheduled to run
   @Override
   protected void execute() {
+    // Start the path if it was still loading in initialize()
+    if (!following) {
+      startFollowing();
+    }
+
     // Don't do anything if this path or any other path is missing
-    if (!enablePathfinder) {
+    if (!enablePathfinder || !following) {
       return;
     }
     
@@ -165,7 +232,14 @@ public class DrivePathfinder extends Command {
     // distC = (distL + distR) / 2;
     double deltaL = distL - distLPrior;
     double deltaR = distR - distRPrior;
-    distC = distCPrior + (deltaL + deltaR)/2.0 - Math.abs(deltaL - deltaR) * skidEncoderAdjust;
+    double deltaC = (deltaL + deltaR)/2.0;
+    if (stitched) {
+      // The skid adjustment only shrinks the distance moved, so it does not move the center during in-place turns
+      // or when driving backward
+      distC = distCPrior + Math.signum(deltaC) * Math.max(0, Math.abs(deltaC) - Math.abs(deltaL - deltaR) * skidEncoderAdjust);
+    } else {
+      distC = distCPrior + deltaC - Math.abs(deltaL - deltaR) * skidEncoderAdjust;
+    }
     distErrTerm = 0.08 * (segCenter.position - distC);
 
     // Set the motor percentage based on feed forward and feedback to follow the profile
@@ -182,17 +256,20 @@ public class DrivePathfinder extends Command {
   }
 
   private void logData() {
-    Robot.log.writeLog(false, "Pathfinder", "execute", "time," + ((double)(System.currentTimeMillis() - dfLeft.getStartTimeMillis())) / 1000.0 +
-    ",left power," + l + ",right power," + r + ",turn power," + turn + ",skid power," + skidAdjust + ",dist FB power," + distErrTerm +
-    ",left distance," + distL + ",right distance," + distR + ",center distance," + distC +
-    ",left vel," + Robot.driveTrain.getLeftEncoderVelocity() + ",right vel," + Robot.driveTrain.getRightEncoderVelocity() +
-    ",heading," + gyroHeading + ",center segPos," + segCenter.position +
-    ",left isFinished," + dfLeft.isFinished() +
-    ",left segPos," + segLeft.position + ",left segVel," + segLeft.velocity + ",left segAccel," + segLeft.acceleration + 
-    ",left segJerk," + segLeft.jerk + ",left segHeading," + Pathfinder.boundHalfDegrees(Pathfinder.r2d(segLeft.heading)) + ",left segdt," + segLeft.dt + 
-    ",right isFinished," + dfRight.isFinished() + 
-    ",right segPos," + segRight.position + ",right segVel," + segRight.velocity + ",right segAccel," + segRight.acceleration + 
-    ",right segJerk," + segRight.jerk + ",right segHeading," + Pathfinder.boundHalfDegrees(Pathfinder.r2d(segRight.heading)) + ",right segdt," + segRight.dt);
+    Pose pose = Robot.poseEstimator.getPose();
+    logRecord.start().add("time", dfLeft.getTimeSinceStart())
+      .add("left power", l).add("right power", r).add("turn power", turn).add("skid power", skidAdjust).add("dist FB power", distErrTerm)
+      .add("left distance", distL).add("right distance", distR).add("center distance", distC)
+      .add("left vel", Robot.driveTrain.getLeftEncoderVelocity()).add("right vel", Robot.driveTrain.getRightEncoderVelocity())
+      .add("heading", gyroHeading).add("center segPos", segCenter.position)
+      .add("pose X", pose.x).add("pose Y", pose.y).add("center segX", segCenter.x).add("center segY", segCenter.y)
+      .add("left isFinished", dfLeft.isFinished())
+      .add("left segPos", segLeft.position).add("left segVel", segLeft.velocity).add("left segAccel", segLeft.acceleration)
+      .add("left segJerk", segLeft.jerk).add("left segHeading", Pathfinder.boundHalfDegrees(Pathfinder.r2d(segLeft.heading))).add("left segdt", segLeft.dt)
+      .add("right isFinished", dfRight.isFinished())
+      .add("right segPos", segRight.position).add("right segVel", segRight.velocity).add("right segAccel", segRight.acceleration)
+      .add("right segJerk", segRight.jerk).add("right segHeading", Pathfinder.boundHalfDegrees(Pathfinder.r2d(segRight.heading))).add("right segdt", segRight.dt);
+    Robot.log.writeLog(false, logRecord);
   }
 
   // Make this return true when this Command no longer needs to run execute()
@@ -201,6 +278,12 @@ public class DrivePathfinder extends Command {
     // Don't do anything if this path or any other path is missing
     if (!enablePathfinder) {
       return true;
+    } else if (!following) {
+      if (timeSinceInitialized() > LOAD_TIMEOUT) {
+        Robot.log.writeLogEcho("Pathfinder", "isFinished", "Path did not load," + pathName);
+        return true;
+      }
+      return false;     // Still loading
     }
     
     if (dfLeft.isFinished()) {
@@ -183,13 +183,6 @@ public class DriveStraightDistanceProfile extends Command {
 			velCheck.addValue(currentDistanceInches - prevDistanceInches);
 			prevDistErr = distErr;
 
-			double diffInches = currentDistanceInches - prevDistanceInches;
-
-			Robot.driveTrain
-					.addFieldPositionX(diffInches * Math.cos(Math.toRadians(Robot.driveTrain.getGyroRotation())));
-			Robot.driveTrain
-					.addFieldPositionY(diffInches * Math.sin(Math.toRadians(Robot.driveTrain.getGyroRotation())));
-
 			prevDistanceInches = currentDistanceInches;
 		}
 
@@ -10,6 +10,7 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj.command.Command;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
+import frc.robot.utilities.LogRecord;
 
 public class DriveWithVision extends Command {
 
@@ -31,6 +32,8 @@ public class DriveWithVision extends Command {
   private double yVal = 0;
   private double skew = 0;
 
+  private final LogRecord logRecord = new LogRecord("DriveWithVision", "update");
+
   /**
    * Vision assisted driving without gyro, keep going and never end on the line
    */
@@ -52,7 +55,7 @@ public class DriveWithVision extends Command {
     // Robot.vision.setPipe(0); // On vision pipeline
     Robot.vision.setLedMode(3); // TODO Change back to 3 to turn on LEDs.  Make sure the LEDs are on before driving
 
-    updateLog();  // Prime StringBuilder to speed up code during execution
+    updateLog();  // Prime the log record buffer to speed up code during execution
   }
 
   // Called just before this Command runs the first time
@@ -148,10 +151,11 @@ public class DriveWithVision extends Command {
   }
 
   private void updateLog() {
-    Robot.log.writeLog(false, "DriveWithVision", "update", "Crosshair Horiz Offset," + xVal + ",Vert Offset," + yVal
-     + ",Target Area," + area + ",Target Skew," + skew + ",gyro," + Robot.driveTrain.getGyroRotation() + ",Inches from Target," + distance
-     + ",DistUseArea," + Robot.vision.distanceUsingArea + ",DistUseCorner," + Robot.vision.distanceUsingCorners
-     + ",Base power," + visionSpeed + ",Left Percent," + lPercentOutput + ",Right Percent," + rPercentOutput);
+    logRecord.start().add("Crosshair Horiz Offset", xVal).add("Vert Offset", yVal)
+      .add("Target Area", area).add("Target Skew", skew).add("gyro", Robot.driveTrain.getGyroRotation()).add("Inches from Target", distance)
+      .add("DistUseArea", Robot.vision.distanceUsingArea).add("DistUseCorner", Robot.vision.distanceUsingCorners)
+      .add("Base power", visionSpeed).add("Left Percent", lPercentOutput).add("Right Percent", rPercentOutput);
+    Robot.log.writeLog(false, logRecord);
   }
 
   // Make this return true when this Command no longer needs to run execute()
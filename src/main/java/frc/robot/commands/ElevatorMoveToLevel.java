@@ -41,61 +41,72 @@ public class ElevatorMoveToLevel extends Command {
     targetInches = false;
   }
 
+  /**
+   * Returns the height for an elevator position.  If the robot has a ball, then the position is raised as needed for the rocket.
+   * @param pos position per RobotPreferences.ElevatorPosition
+   * @return height in inches from the floor
+   */
+  public static double getLevel(RobotPreferences.ElevatorPosition pos) {
+    double level = Robot.robotPrefs.elevatorBottomToFloor;
+    if(Robot.cargo.hasBall()) { 
+      switch (pos) {
+        case bottom:  case vision:  case wristStow:
+          level = Robot.robotPrefs.elevatorBottomToFloor;
+          break;
+        case hatchLow:
+          level = Robot.robotPrefs.hatchLow + Robot.robotPrefs.rocketBallOffset - 1.0;
+          break;
+        case hatchMid:
+          level = Robot.robotPrefs.hatchMid -1.5;
+          break;
+        case hatchHigh:
+          level = Robot.robotPrefs.hatchHigh;
+          break;
+        case cargoShipCargo:
+          level = Robot.robotPrefs.cargoShipCargo;
+          break;
+        case loadCargo:
+          level = Robot.robotPrefs.loadCargo;
+          break;
+        case groundCargo:
+          level = Robot.robotPrefs.groundCargo;
+          break;
+      }
+    } else {
+      switch (pos) {
+        case bottom:  case vision:   case wristStow:
+          level = Robot.robotPrefs.elevatorBottomToFloor;
+          break;
+        case hatchLow:
+          level = Robot.robotPrefs.hatchLow;
+          break;
+        case hatchMid:
+          level = Robot.robotPrefs.hatchMid;
+          break;
+        case hatchHigh:
+          level = Robot.robotPrefs.hatchHigh;
+          break;
+        case cargoShipCargo:
+          level = Robot.robotPrefs.cargoShipCargo;
+          break;
+        case loadCargo:
+          level = Robot.robotPrefs.loadCargo;
+          break;
+        case groundCargo:
+          level = Robot.robotPrefs.groundCargo;
+          break;
+      }
+    }
+    return level;
+  }
+
   // Called just before this Command runs the first time
   @Override
   protected void initialize() {
     startTime = false;        // We haven't hit the loose tolerance yet
 
     if(!targetInches) {
-      if(Robot.cargo.hasBall()) { 
-        switch (pos) {
-          case bottom:  case vision:  case wristStow:
-            target = Robot.robotPrefs.elevatorBottomToFloor;
-            break;
-          case hatchLow:
-            target = Robot.robotPrefs.hatchLow + Robot.robotPrefs.rocketBallOffset - 1.0;
-            break;
-          case hatchMid:
-            target = Robot.robotPrefs.hatchMid -1.5;
-            break;
-          case hatchHigh:
-            target = Robot.robotPrefs.hatchHigh;
-            break;
-          case cargoShipCargo:
-            target = Robot.robotPrefs.cargoShipCargo;
-            break;
-          case loadCargo:
-            target = Robot.robotPrefs.loadCargo;
-            break;
-          case groundCargo:
-            target = Robot.robotPrefs.groundCargo;
-            break;
-        }
-      } else {
-        switch (pos) {
-          case bottom:  case vision:   case wristStow:
-            target = Robot.robotPrefs.elevatorBottomToFloor;
-            break;
-          case hatchLow:
-            target = Robot.robotPrefs.hatchLow;
-            break;
-          case hatchMid:
-            target = Robot.robotPrefs.hatchMid;
-            break;
-          case hatchHigh:
-            target = Robot.robotPrefs.hatchHigh;
-            break;
-          case cargoShipCargo:
-            target = Robot.robotPrefs.cargoShipCargo;
-            break;
-          case loadCargo:
-            target = Robot.robotPrefs.loadCargo;
-            break;
-          case groundCargo:
-            target = Robot.robotPrefs.groundCargo;
-            break;
-        }
-      }
+      target = getLevel(pos);
     }
     Robot.elevator.setProfileTarget(target);
   }
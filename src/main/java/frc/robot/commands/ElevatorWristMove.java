@@ -0,0 +1,179 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) 2018 FIRST. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package frc.robot.commands;
+
+import edu.wpi.first.wpilibj.command.Command;
+import frc.robot.Robot;
+import frc.robot.utilities.ElevatorWristPlanner;
+import frc.robot.utilities.Interlocks;
+import frc.robot.utilities.RobotPreferences.ElevatorPosition;
+import frc.robot.utilities.RobotPreferences.WristAngle;
+
+public class ElevatorWristMove extends Command {
+
+  private static final double TIMEOUT_MARGIN = 3.0;   // seconds past the planned time before giving up (covers the 2 sec loose tolerance)
+  private static final double REFUSED_TIME = 2.0;     // seconds a final target can be refused by the interlocks before giving up
+
+  private ElevatorPosition elevatorPosition;
+  private WristAngle wristAngle;
+  private double elevatorTarget, wristTarget;   // final targets, in inches from the floor and degrees
+  private double elevatorSet, wristSet;         // targets sent to the subsystems so far (NaN = none yet)
+  private ElevatorWristPlanner.Plan plan;
+  private double refusedSince;                  // time when a final target was first refused (NaN = not refused)
+  private Interlocks.Result refused;            // last refusal of a final target
+
+  private double timeAtLooseTolerance = 0; // the amount of time we are within the loose tolerance
+  private boolean startTime = false; // have we started to count the time for loose tolerance?
+
+  /**
+   * Moves the elevator and wrist at the same time, using ElevatorWristPlanner to time the start of each
+   * axis so they stay out of each other's way.  Until the other axis is clear, each target is held at
+   * the edge of the safe region (ex. the elevator waits at elevatorWristSafeStow until the wrist leaves keepout).
+   * <p>NOTE:  This does not move the climber.  If the climber is in the way, the wrist waits for it.
+   * @param elevatorPosition target height based on RobotPreferences.ElevatorPosition (see ElevatorMoveToLevel)
+   * @param wristAngle target angle based on RobotPreferences.WristAngle
+   */
+  public ElevatorWristMove(ElevatorPosition elevatorPosition, WristAngle wristAngle) {
+    requires(Robot.elevator);
+    requires(Robot.wrist);
+    this.elevatorPosition = elevatorPosition;
+    this.wristAngle = wristAngle;
+  }
+
+  // Called just before this Command runs the first time
+  @Override
+  protected void initialize() {
+    startTime = false;        // We haven't hit the loose tolerance yet
+    elevatorSet = Double.NaN;
+    wristSet = Double.NaN;
+    refusedSince = Double.NaN;
+    refused = null;
+
+    elevatorTarget = ElevatorMoveToLevel.getLevel(elevatorPosition);
+    wristTarget = WristMoveToAngle.getAngle(wristAngle);
+    plan = ElevatorWristPlanner.plan(Robot.elevator.getElevatorPos(), Robot.elevator.createProfile(elevatorTarget),
+      Robot.wrist.getWristAngle(), Robot.wrist.createProfile(wristTarget));
+    setTimeout(plan.getTotalTime() + TIMEOUT_MARGIN);   // Don't wait forever if an axis can't reach its target
+    Robot.log.writeLog("ElevatorWristMove", "Init", "Elevator target," + elevatorTarget + ",Wrist target," + wristTarget +
+      "," + plan + "," + Robot.interlocks);
+
+    moveAxes();
+  }
+
+  /**
+   * Sends each axis its target (held at the edge of the safe region) once its planned start time has passed
+   */
+  private void moveAxes() {
+    double time = timeSinceInitialized();
+    Interlocks.Result refusedNow = null;
+
+    // Elevator first, so a wrist target at the edge of keepout doesn't lock out the elevator
+    if (time >= plan.elevatorDelay) {
+      double wristHigh = Math.max(Robot.wrist.getWristAngle(), Robot.wrist.getCurrentWristTarget());
+      double wristLow = Math.min(Robot.wrist.getWristAngle(), Robot.wrist.getCurrentWristTarget());
+      double pos = Math.min(elevatorTarget, ElevatorWristPlanner.getElevatorMax(wristHigh));
+      pos = Math.max(pos, ElevatorWristPlanner.getElevatorMin(wristLow + ElevatorWristPlanner.TOLERANCE_DEGREES));
+      if (pos != elevatorSet) {
+        Interlocks.Result result = Robot.interlocks.check(Interlocks.Move.ELEVATOR_PROFILE, pos);
+        if (result.allowed) {
+          Robot.elevator.setProfileTarget(pos);
+          elevatorSet = pos;
+        } else if (pos == elevatorTarget) {
+          refusedNow = result;
+        }
+      }
+    }
+
+    if (time >= plan.wristDelay) {
+      double elevatorHigh = Math.max(Robot.elevator.getElevatorPos(), Robot.elevator.getCurrentElevatorTarget());
+      double elevatorLow = Math.min(Robot.elevator.getElevatorPos(), Robot.elevator.getCurrentElevatorTarget());
+      double angle = wristTarget;
+      if (Robot.wrist.getWristAngle() <= Robot.robotPrefs.wristKeepOut) {
+        // Don't move into keepout until the climber and elevator are out of the way.  Stop 1 degree short
+        // of keepout, so the elevator interlock doesn't see the wrist as stowing.
+        if (Robot.climb.getClimbAngle() > Robot.robotPrefs.climbWristMovingSafe) {
+          angle = Math.min(angle, Robot.robotPrefs.wristKeepOut - 1.0);
+        }
+        angle = Math.min(angle, ElevatorWristPlanner.getWristMax(elevatorHigh) - 1.0);
+      }
+      angle = Math.max(angle, ElevatorWristPlanner.getWristMin(elevatorLow + ElevatorWristPlanner.TOLERANCE_INCHES));
+      if (angle != wristSet) {
+        Interlocks.Result result = Robot.interlocks.check(Interlocks.Move.WRIST, angle);
+        if (result.allowed) {
+          Robot.wrist.setWristAngle(angle);
+          wristSet = angle;
+        } else if (angle == wristTarget) {
+          refusedNow = result;
+        }
+      }
+    }
+
+    // Keep track of how long a final target has been refused
+    if (refusedNow == null) {
+      refusedSince = Double.NaN;
+    } else {
+      refused = refusedNow;
+      if (Double.isNaN(refusedSince)) {
+        refusedSince = time;
+      }
+    }
+  }
+
+  // Called repeatedly when this Command is scheduled to run
+  @Override
+  protected void execute() {
+    moveAxes();
+    Robot.elevator.updateElevatorLog(false);
+    Robot.wrist.updateWristLog(false);
+
+    // Start timer for loose tolerance
+    if(!startTime && elevatorSet == elevatorTarget && Math.abs(Robot.elevator.getElevatorPos() - elevatorTarget) <= 2.5) {
+      timeAtLooseTolerance = timeSinceInitialized();
+      startTime = true;
+    }
+  }
+
+  // Make this return true when this Command no longer needs to run execute()
+  @Override
+  protected boolean isFinished() {
+    if (!Robot.elevator.encoderCalibrated() || !Robot.wrist.isEncoderCalibrated()) {
+      return true;      // End immediately if an encoder can't read
+    } else if (isTimedOut()) {
+      Robot.log.writeLogEcho("ElevatorWristMove", "Timed out", "Elevator set," + elevatorSet + ",Wrist set," + wristSet +
+        ",Last refusal," + refused + "," + Robot.interlocks);
+      return true;
+    } else if (!Double.isNaN(refusedSince) && timeSinceInitialized() - refusedSince > REFUSED_TIME) {
+      Robot.log.writeLogEcho("ElevatorWristMove", "Target refused", "Elevator set," + elevatorSet + ",Wrist set," + wristSet +
+        "," + refused + "," + Robot.interlocks);
+      return true;      // The interlocks won't allow the final target, so give up
+    } else if (elevatorSet != elevatorTarget || wristSet != wristTarget) {
+      return false;     // Still waiting to send the final targets
+    }
+
+    boolean elevatorDone = (elevatorTarget == Robot.robotPrefs.elevatorBottomToFloor &&
+        Robot.elevator.getElevatorPos() < Robot.robotPrefs.elevatorWristSafeStow) ||
+      Math.abs(Robot.elevator.getElevatorPos() - elevatorTarget) <= 0.5 ||
+      (startTime && timeSinceInitialized() - timeAtLooseTolerance > 2.0);
+    boolean wristDone = Math.abs(Robot.wrist.getWristAngle() - Robot.wrist.getCurrentWristTarget()) < 5.0; // tolerance of 5 degrees
+    return elevatorDone && wristDone;
+  }
+
+  // Called once after isFinished returns true
+  @Override
+  protected void end() {
+    Robot.log.writeLog("ElevatorWristMove", "End", "Time," + timeSinceInitialized() + ",Planned time," + plan.getTotalTime() +
+      "," + Robot.interlocks);
+  }
+
+  // Called when another command which requires one or more of the same
+  // subsystems is scheduled to run
+  @Override
+  protected void interrupted() {
+    // Don't take the elevator or wrist out of automated mode if we interrupt a sequence!
+  }
+}
@@ -17,10 +17,11 @@ import frc.robot.utilities.RobotPreferences.WristAngle;
 public class ElevatorWristMoveAndPrepare extends CommandGroup {
   /**
    * Moves elevator and wrist as needed to go to specified position.
+   * The elevator and wrist move at the same time (see ElevatorWristMove).
    */
   public ElevatorWristMoveAndPrepare(RobotPreferences.ElevatorPosition position) {
-    // Move climber if we need to deploy the wrist and the climber is in the way
-    addSequential(new ConditionalCommand(new ClimbArmSetAngle(Robot.robotPrefs.climbWristMovingSafe - 5.0)){
+    // Move climber if we need to deploy the wrist and the climber is in the way (the wrist waits for the climber)
+    addParallel(new ConditionalCommand(new ClimbArmSetAngle(Robot.robotPrefs.climbWristMovingSafe - 5.0)){
       @Override
       protected boolean condition() {
         if (Robot.log.getLogLevel() <= 3) {
@@ -32,53 +33,24 @@ public class ElevatorWristMoveAndPrepare extends CommandGroup {
       }
     });
 
-    // Move wrist if it is stowed
-    addSequential(new ConditionalCommand(new WristMoveToAngle(Robot.robotPrefs.wristKeepOut - 5.0)){
-      @Override
-      protected boolean condition() {
-        if (Robot.log.getLogLevel() <= 3) {
-          Robot.log.writeLog("ElevatorWristMove", "Check 2", "Wrist angle," + Robot.wrist.getWristAngle() );
-        }
-        return Robot.wrist.getWristAngle() > Robot.robotPrefs.wristKeepOut;
-      }
-    });
-
-    // Raise wrist if below loadCargo
-    addSequential(new ConditionalCommand(new WristMoveToAngle(WristAngle.down)){
-      @Override
-      protected boolean condition() {
-        if (Robot.log.getLogLevel() <= 3) {
-          Robot.log.writeLog("ElevatorWristMove", "Check 3", "Wrist angle," + Robot.wrist.getWristAngle() );
-        }
-        return Robot.wrist.getWristAngle() < Robot.robotPrefs.wristDown - 5.0;
-      }
-    });
-
-    // If going to hatch high, determine if we have a ball to adjust wrist angle
+    WristAngle angle;
     if (position == ElevatorPosition.hatchHigh) {
-      addParallel(new ConditionalCommand(new WristMoveToAngle(WristAngle.up), new WristMoveToAngle(WristAngle.up)){
-        @Override
-        protected boolean condition() {
-          if (Robot.log.getLogLevel() <= 3) {
-            Robot.log.writeLog("ElevatorWristMove", "Check 4", "Has ball," + Robot.cargo.hasBall() );
-          }
-          return Robot.cargo.hasBall();
-        }
-      });
+      // Same angle for hatch high with or without a ball
+      angle = WristAngle.up;
     } else if (position == ElevatorPosition.cargoShipCargo) {
       // If going to cargo ship shot, then use cargo ship angle
-      addParallel(new WristMoveToAngle(WristAngle.cargoShot));
+      angle = WristAngle.cargoShot;
     } else if (position == ElevatorPosition.groundCargo){
-      addParallel(new WristMoveToAngle(WristAngle.down));
+      angle = WristAngle.down;
       addParallel(new CargoIntake());
     } else if (position == ElevatorPosition.vision) {
-      addParallel(new WristMoveToAngle(WristAngle.vision));
+      angle = WristAngle.vision;
     } else {
       // Otherwise, move wrist straight
-      addParallel(new WristMoveToAngle(WristAngle.straight));
+      angle = WristAngle.straight;
     }
 
-    addSequential(new ElevatorMoveToLevel(position));
+    addSequential(new ElevatorWristMove(position, angle));
     
     // If going to cargo ground intake, move wrist down last
     // if(position == ElevatorPosition.groundCargo){
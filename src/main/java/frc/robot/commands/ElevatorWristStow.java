@@ -10,21 +10,27 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj.command.CommandGroup;
 import edu.wpi.first.wpilibj.command.ConditionalCommand;
 import frc.robot.Robot;
+import frc.robot.utilities.RobotPreferences.ElevatorPosition;
+import frc.robot.utilities.RobotPreferences.WristAngle;
 
 public class ElevatorWristStow extends CommandGroup {
   /**
    * Sequence to stow the wrist, regardless of starting angle.
+   * The elevator and wrist move at the same time (see ElevatorWristMove).
    */
   public ElevatorWristStow() {
-    addSequential(new ConditionalCommand(new ElevatorWristStowA(), new ElevatorWristStowB()){
+    // Move climber if it is in the way of the wrist (the wrist waits for the climber)
+    addParallel(new ConditionalCommand(new ClimbArmSetAngle(Robot.robotPrefs.climbWristMovingSafe - 5.0)){
       @Override
       protected boolean condition() {
         if (Robot.log.getLogLevel() <= 3) {
           Robot.log.writeLog("ElevatorWristStow", "Check 1", "Wrist angle," + Robot.wrist.getWristAngle()
             + ",Climb angle," + Robot.climb.getClimbAngle());
         }
-        return Robot.wrist.getWristAngle() <= Robot.robotPrefs.wristKeepOut;
+        return Robot.climb.getClimbAngle() > Robot.robotPrefs.climbWristMovingSafe;
       }
     });
+
+    addSequential(new ElevatorWristMove(ElevatorPosition.wristStow, WristAngle.stowed));
   }
 }
@@ -39,32 +39,43 @@ public class WristMoveToAngle extends Command {
     targetAngle = false;
   }
 
+  /**
+   * Returns the angle for a wrist position
+   * @param pos position per RobotPreferences.WristAngle
+   * @return angle in degrees
+   */
+  public static double getAngle(WristAngle pos) {
+    double angle = Robot.robotPrefs.wristStraight;
+    switch (pos) {
+      case stowed:
+        angle = Robot.robotPrefs.wristStowed;
+        break;
+      case up:
+        angle = Robot.robotPrefs.wristUp;
+        break;
+      case straight:
+        angle = Robot.robotPrefs.wristStraight;
+        break;
+      case cargoShot:
+        angle = Robot.robotPrefs.wristCargoShot;
+        break;
+      case vision:
+        angle = Robot.robotPrefs.wristVision;
+        break;
+      case down:
+        angle = Robot.robotPrefs.wristDown;
+        break;
+    }
+    return angle;
+  }
+
   // Called just before this Command runs the first time
   @Override
   protected void initialize() {
     if (targetAngle) {
       Robot.wrist.setWristAngle(target);
     } else {
-      switch (pos) {
-        case stowed:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristStowed);
-          break;
-        case up:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristUp);
-          break;
-        case straight:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristStraight);
-          break;
-        case cargoShot:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristCargoShot);
-          break;
-        case vision:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristVision);
-          break;
-        case down:
-          Robot.wrist.setWristAngle(Robot.robotPrefs.wristDown);
-          break;
-      }
+      Robot.wrist.setWristAngle(getAngle(pos));
     }
   }
 
@@ -2,10 +2,11 @@ package frc.robot.pathfinder;
 
 import java.io.File;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
-
-import frc.robot.pathfinder.Trajectory.Segment;
+import java.io.PrintWriter;
 
 /**
  * The main class of the Pathfinder Library. The Pathfinder Library is used for Motion Profile and Trajectory Generation.
@@ -16,6 +17,8 @@ import frc.robot.pathfinder.Trajectory.Segment;
  */
 public class Pathfinder {
 
+    public static final String PATH_DIRECTORY = "/home/lvuser/deploy/paths/";
+
     /**
      * Convert degrees to radians. This is included here for static imports. In this library, all angle values are
      * given in radians
@@ -47,27 +50,72 @@ public class Pathfinder {
     }
 
     /**
-     * Write the Trajectory to a CSV File
+     * Generate a Trajectory (in Java, see TrajectoryGenerator)
+     * @param waypoints     An array of waypoints (setpoints) for the trajectory path to intersect
+     * @param config        The configuration of the trajectory, including the fit method and max velocity, acceleration and jerk
+     * @return              The generated trajectory (the center of the robot)
+     */
+    public static Trajectory generate(Waypoint[] waypoints, Trajectory.Config config) {
+        return TrajectoryGenerator.generate(waypoints, config);
+    }
+
+    /**
+     * Write the Trajectory to a CSV File, in the same format as PathWeaver
      * @param file          The file to write to
      * @param trajectory    The trajectory to write
      */
     public static void writeToCSV(File file, Trajectory trajectory) {
-        // PathfinderJNI.trajectorySerializeCSV(trajectory.segments, file.getAbsolutePath());
+        try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            out.print("dt,x,y,position,velocity,acceleration,jerk,heading\n");
+            for (int i = 0; i < trajectory.length(); i++) {
+                out.printf("%f,%f,%f,%f,%f,%f,%f,%f\n", trajectory.getDt(i), trajectory.getX(i), trajectory.getY(i),
+                    trajectory.getPosition(i), trajectory.getVelocity(i), trajectory.getAcceleration(i),
+                    trajectory.getJerk(i), trajectory.getHeading(i));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Read a deployed path.  Uses the compiled .bin version of the file if it was deployed (see TrajectoryFile),
+     * otherwise reads the CSV file.
+     * @param fileName      The CSV file name in the deploy/paths directory (ex. "Straight150.pf1.csv")
+     * @param driveForward  True = drive forward, false = drive backward
+     * @return              The trajectory that was read from file, or null if the file could not be read
+     */
+    public static Trajectory readPath(String fileName, boolean driveForward) {
+        File binFile = new File(PATH_DIRECTORY, fileName.replaceFirst("\\.csv$", ".bin"));
+        if (binFile.isFile()) {
+            try {
+                return TrajectoryFile.read(binFile, driveForward);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return readFromCSV(fileName, driveForward);
     }
 
     /**
      * Read a Trajectory from a CSV File
-     * @param fileName      The file to read from
+     * @param fileName      The file to read from, in the deploy/paths directory
      * @param driveForward  True = drive forward, false = drive backward
      * @return              The trajectory that was read from file
      */
     public static Trajectory readFromCSV(String fileName, boolean driveForward) {
-        String csvFile = "/home/lvuser/deploy/paths/" + fileName;
+        return readFromCSV(new File(PATH_DIRECTORY, fileName), driveForward);
+    }
+
+    /**
+     * Read a Trajectory from a CSV File
+     * @param csvFile       The file to read from
+     * @param driveForward  True = drive forward, false = drive backward
+     * @return              The trajectory that was read from file
+     */
+    public static Trajectory readFromCSV(File csvFile, boolean driveForward) {
         String line = "";
         String csvSplitBy = ",";
         int trajLength = 0;
-        double dt, x, y, position, velocity, acceleration, jerk, heading;
-        Segment seg;
 
         try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) { 
             
@@ -81,38 +129,28 @@ public class Pathfinder {
             return null;
         }
 
-        Segment[] segArray = new Segment[trajLength];
+        double[] dt = new double[trajLength], x = new double[trajLength], y = new double[trajLength];
+        double[] position = new double[trajLength], velocity = new double[trajLength], acceleration = new double[trajLength];
+        double[] jerk = new double[trajLength], heading = new double[trajLength];
         int i = 0;
 
         try (BufferedReader br = new BufferedReader(new FileReader(csvFile))) { 
             line = br.readLine();           // Read line with column headings and discard that line           
-            while ((line = br.readLine()) != null) {
+            while ((line = br.readLine()) != null && i < trajLength) {
                 String[] trajPoint = line.split(csvSplitBy);
-                dt = Double.parseDouble(trajPoint[0]);
-                x = Double.parseDouble(trajPoint[1]);
-                y = Double.parseDouble(trajPoint[2]);
-
-                if (driveForward) {
-                    position = Double.parseDouble(trajPoint[3]);
-                    velocity = Double.parseDouble(trajPoint[4]);
-                    acceleration = Double.parseDouble(trajPoint[5]);
-                    jerk = Double.parseDouble(trajPoint[6]);
-                    heading = Double.parseDouble(trajPoint[7]);
-                } else {
-                    position = -Double.parseDouble(trajPoint[3]);
-                    velocity = -Double.parseDouble(trajPoint[4]);
-                    acceleration = -Double.parseDouble(trajPoint[5]);
-                    jerk = -Double.parseDouble(trajPoint[6]);
-                    heading = Double.parseDouble(trajPoint[7]);
-                    heading = (heading > 0) ? heading - Math.PI : heading + Math.PI;
-                }
-                seg = new Segment(dt, x, y, position, velocity, acceleration, jerk, heading);
-                segArray[i] = seg;
+                dt[i] = Double.parseDouble(trajPoint[0]);
+                x[i] = Double.parseDouble(trajPoint[1]);
+                y[i] = Double.parseDouble(trajPoint[2]);
+                position[i] = Double.parseDouble(trajPoint[3]);
+                velocity[i] = Double.parseDouble(trajPoint[4]);
+                acceleration[i] = Double.parseDouble(trajPoint[5]);
+                jerk[i] = Double.parseDouble(trajPoint[6]);
+                heading[i] = Double.parseDouble(trajPoint[7]);
                 i++;
             }
             br.close();
-            Trajectory traj = new Trajectory(segArray);
-            return traj;
+            Trajectory traj = new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading);
+            return driveForward ? traj : traj.reversed();
         } catch (IOException e) {
             e.printStackTrace();
             return null;
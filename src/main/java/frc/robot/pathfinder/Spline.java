@@ -0,0 +1,153 @@
+package frc.robot.pathfinder;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A Hermite spline between two waypoints, in a coordinate frame rotated so that the spline runs along its
+ * own x axis from (0, 0) to (knotDistance, 0):  y = a x^5 + b x^4 + c x^3 + d x^2 + e x
+ * <p>
+ * After integrate(), the spline also holds a table of arc length vs. percentage along the spline, so
+ * positions along the spline can be looked up with a binary search.
+ */
+class Spline {
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+    private static final int PARALLEL_SAMPLES = 20000;     // Use parallel streams above this many samples
+
+    final double xOffset, yOffset, angleOffset, knotDistance;
+    final double a, b, c, d, e;
+
+    private double[] arcLengthTable;     // Arc length from the start to sample i (i / samples of the way along)
+    private int samples;
+
+    /**
+     * Fit a spline between two waypoints
+     */
+    Spline(Waypoint start, Waypoint end, Trajectory.FitMethod fit) {
+        xOffset = start.x;
+        yOffset = start.y;
+        knotDistance = Math.hypot(end.x - start.x, end.y - start.y);
+        angleOffset = Math.atan2(end.y - start.y, end.x - start.x);
+
+        double a0Delta = Math.tan(boundRadians(start.angle - angleOffset));
+        double a1Delta = Math.tan(boundRadians(end.angle - angleOffset));
+        double k = knotDistance;
+
+        if (fit == Trajectory.FitMethod.HERMITE_QUINTIC) {
+            a = -(3 * (a0Delta + a1Delta)) / (k * k * k * k);
+            b = (8 * a0Delta + 7 * a1Delta) / (k * k * k);
+            c = -(6 * a0Delta + 4 * a1Delta) / (k * k);
+            d = 0;
+        } else {
+            a = 0;
+            b = 0;
+            c = (a0Delta + a1Delta) / (k * k);
+            d = -(2 * a0Delta + a1Delta) / k;
+        }
+        e = a0Delta;
+    }
+
+    /**
+     * @param percentage how far along the spline, 0 to 1
+     * @return slope (dy/dx) of the spline in its own coordinate frame
+     */
+    double derivative(double percentage) {
+        double x = percentage * knotDistance;
+        return (5 * a * x + 4 * b) * x * x * x + (3 * c * x + 2 * d) * x + e;
+    }
+
+    /**
+     * @param percentage how far along the spline, 0 to 1
+     * @return heading of the spline in field coordinates, in radians from 0 to 2 pi
+     */
+    double angle(double percentage) {
+        return boundRadians(Math.atan(derivative(percentage)) + angleOffset);
+    }
+
+    /**
+     * @param percentage how far along the spline, 0 to 1
+     * @return field x coordinate of the point on the spline
+     */
+    double x(double percentage) {
+        double x = percentage * knotDistance;
+        double y = localY(x);
+        return x * Math.cos(angleOffset) - y * Math.sin(angleOffset) + xOffset;
+    }
+
+    /**
+     * @param percentage how far along the spline, 0 to 1
+     * @return field y coordinate of the point on the spline
+     */
+    double y(double percentage) {
+        double x = percentage * knotDistance;
+        double y = localY(x);
+        return x * Math.sin(angleOffset) + y * Math.cos(angleOffset) + yOffset;
+    }
+
+    private double localY(double x) {
+        return (a * x + b) * x * x * x * x + (c * x + d) * x * x + e * x;
+    }
+
+    /**
+     * Integrate the arc length of the spline (trapezoid rule) and build the arc length table.
+     * Large sample counts are integrated in parallel.
+     * @param samples number of steps along the spline
+     * @return arc length of the spline
+     */
+    double integrate(int samples) {
+        this.samples = samples;
+        double[] table = new double[samples + 1];
+
+        // table[i] = length of step i-1 to i, then a prefix sum turns it into the length from 0 to i
+        IntStream steps = IntStream.rangeClosed(1, samples);
+        if (samples >= PARALLEL_SAMPLES) steps = steps.parallel();
+        steps.forEach(i -> {
+            double d0 = derivative((double) (i - 1) / samples);
+            double d1 = derivative((double) i / samples);
+            table[i] = (Math.sqrt(1 + d0 * d0) + Math.sqrt(1 + d1 * d1)) / 2.0 * knotDistance / samples;
+        });
+        if (samples >= PARALLEL_SAMPLES) {
+            Arrays.parallelPrefix(table, Double::sum);
+        } else {
+            for (int i = 1; i <= samples; i++) table[i] += table[i - 1];
+        }
+
+        arcLengthTable = table;
+        return table[samples];
+    }
+
+    /**
+     * @return arc length of the spline (after integrate())
+     */
+    double arcLength() {
+        return arcLengthTable[samples];
+    }
+
+    /**
+     * @param distance distance along the spline (from 0 to arcLength())
+     * @return percentage along the spline (0 to 1) for that distance, interpolated from the arc length table
+     */
+    double progressForDistance(double distance) {
+        double[] table = arcLengthTable;
+        if (distance <= 0) return 0;
+        if (distance >= table[samples]) return 1;
+
+        // Find the first sample at or past the distance
+        int index = Arrays.binarySearch(table, distance);
+        if (index >= 0) return (double) index / samples;
+        index = -index - 1;
+
+        double fraction = (distance - table[index - 1]) / (table[index] - table[index - 1]);
+        return (index - 1 + fraction) / samples;
+    }
+
+    /**
+     * Bound an angle (in radians) to 0 to 2 pi
+     */
+    static double boundRadians(double angle) {
+        double newAngle = angle % TWO_PI;
+        if (newAngle < 0) newAngle = TWO_PI + newAngle;
+        return newAngle;
+    }
+}
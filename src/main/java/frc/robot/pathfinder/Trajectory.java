@@ -1,8 +1,14 @@
 package frc.robot.pathfinder;
 
+import java.nio.DoubleBuffer;
+
 /**
- * The Trajectory object contains an array of Segments that represent the location, velocity, acceleration, jerk and heading
- * of a particular point in the trajectory.
+ * The Trajectory object holds the location, velocity, acceleration, jerk and heading of each point in the
+ * trajectory.  The values are stored as one column of doubles per value (not one object per point).  A column is
+ * either a wrapped array or a slice of a memory-mapped compiled path file (see TrajectoryFile).
+ * <p>
+ * reversed() and mirrored() return views of the same columns that change the values as they are read,
+ * so driving a path backwards or on the other side of the field does not load or copy the path again.
  *
  * Trajectories can be generated with the Pathfinder class
  *
@@ -10,39 +16,41 @@ package frc.robot.pathfinder;
  */
 public class Trajectory {
 
-    // /**
-    //  * The Trajectory Configuration outlines the rules to follow while generating the trajectory. This includes
-    //  * the method used for 'fitting' the spline, the amount of samples to use, the time difference and maximum values
-    //  * for the velocity, acceleration and jerk of the trajectory.
-    //  */
-    // public static class Config {
-
-    //     public static final int SAMPLES_FAST = 1000;
-    //     public static final int SAMPLES_LOW = SAMPLES_FAST * 10;
-    //     public static final int SAMPLES_HIGH = SAMPLES_LOW * 10;
-
-    //     public FitMethod fit;
-    //     public int sample_count;
-    //     public double dt, max_velocity, max_acceleration, max_jerk;
-
-    //     /**
-    //      * Create a Trajectory Configuration
-    //      * @param fit                   The fit method to use
-    //      * @param samples               How many samples to use to refine the path (higher = smoother, lower = faster)
-    //      * @param dt                    The time delta between points (in seconds)
-    //      * @param max_velocity          The maximum velocity the body is capable of travelling at (in meters per second)
-    //      * @param max_acceleration      The maximum acceleration to use (in meters per second per second)
-    //      * @param max_jerk              The maximum jerk (acceleration per second) to use
-    //      */
-    //     public Config(FitMethod fit, int samples, double dt, double max_velocity, double max_acceleration, double max_jerk) {
-    //         this.fit = fit;
-    //         this.sample_count = samples;
-    //         this.dt = dt;
-    //         this.max_velocity = max_velocity;
-    //         this.max_acceleration = max_acceleration;
-    //         this.max_jerk = max_jerk;
-    //     }
-    // }
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    /**
+     * The Trajectory Configuration outlines the rules to follow while generating the trajectory. This includes
+     * the method used for 'fitting' the spline, the amount of samples to use, the time difference and maximum values
+     * for the velocity, acceleration and jerk of the trajectory.
+     */
+    public static class Config {
+
+        public static final int SAMPLES_FAST = 1000;
+        public static final int SAMPLES_LOW = SAMPLES_FAST * 10;
+        public static final int SAMPLES_HIGH = SAMPLES_LOW * 10;
+
+        public FitMethod fit;
+        public int sample_count;
+        public double dt, max_velocity, max_acceleration, max_jerk;
+
+        /**
+         * Create a Trajectory Configuration
+         * @param fit                   The fit method to use
+         * @param samples               How many samples to use to refine the path (higher = smoother, lower = faster)
+         * @param dt                    The time delta between points (in seconds)
+         * @param max_velocity          The maximum velocity the body is capable of travelling at (ex. inches per second)
+         * @param max_acceleration      The maximum acceleration to use (ex. inches per second per second)
+         * @param max_jerk              The maximum jerk (acceleration per second) to use
+         */
+        public Config(FitMethod fit, int samples, double dt, double max_velocity, double max_acceleration, double max_jerk) {
+            this.fit = fit;
+            this.sample_count = samples;
+            this.dt = dt;
+            this.max_velocity = max_velocity;
+            this.max_acceleration = max_acceleration;
+            this.max_jerk = max_jerk;
+        }
+    }
 
     /**
      * A Trajectory Segment is a particular point in a trajectory. The segment contains the xy position and the velocity,
@@ -102,30 +110,241 @@ public class Trajectory {
         HERMITE_CUBIC, HERMITE_QUINTIC;
     }
 
-    public Segment[] segments;
+    // Columns, shared with any views of this trajectory.  Only read with absolute get(index), so they can be shared between threads.
+    private final DoubleBuffer dt, x, y, position, velocity, acceleration, jerk, heading;
 
+    private final boolean reversed;     // True = drive backwards (negate distances and turn the heading around)
+    private final boolean mirrored;     // True = mirror across the field (y = mirrorWidth - y, heading = 2 pi - heading)
+    private final double mirrorWidth;
+
+    /**
+     * Create a Trajectory that uses the given arrays (not copied).  All arrays must be the same length.
+     */
+    public Trajectory(double[] dt, double[] x, double[] y, double[] position, double[] velocity,
+            double[] acceleration, double[] jerk, double[] heading) {
+        this(DoubleBuffer.wrap(dt), DoubleBuffer.wrap(x), DoubleBuffer.wrap(y), DoubleBuffer.wrap(position), DoubleBuffer.wrap(velocity),
+            DoubleBuffer.wrap(acceleration), DoubleBuffer.wrap(jerk), DoubleBuffer.wrap(heading), false, false, 0.0);
+    }
+
+    /**
+     * Create a Trajectory that reads the given buffers (not copied, ex. slices of a mapped file).  All buffers must have
+     * the same limit, and the values are read from index 0 to the limit.
+     */
+    Trajectory(DoubleBuffer dt, DoubleBuffer x, DoubleBuffer y, DoubleBuffer position, DoubleBuffer velocity,
+            DoubleBuffer acceleration, DoubleBuffer jerk, DoubleBuffer heading) {
+        this(dt, x, y, position, velocity, acceleration, jerk, heading, false, false, 0.0);
+    }
+
+    /**
+     * Create a Trajectory from an array of segments (the values are copied)
+     */
     public Trajectory(Segment[] segments) {
-        this.segments = segments;
+        this(new double[segments.length], new double[segments.length], new double[segments.length], new double[segments.length],
+            new double[segments.length], new double[segments.length], new double[segments.length], new double[segments.length]);
+        for (int i = 0; i < segments.length; i++) {
+            put(i, segments[i]);
+        }
     }
 
-    public Trajectory(int length) {
-        this.segments = new Segment[length];
+    private Trajectory(DoubleBuffer dt, DoubleBuffer x, DoubleBuffer y, DoubleBuffer position, DoubleBuffer velocity,
+            DoubleBuffer acceleration, DoubleBuffer jerk, DoubleBuffer heading, boolean reversed, boolean mirrored, double mirrorWidth) {
+        this.dt = dt;
+        this.x = x;
+        this.y = y;
+        this.position = position;
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.jerk = jerk;
+        this.heading = heading;
+        this.reversed = reversed;
+        this.mirrored = mirrored;
+        this.mirrorWidth = mirrorWidth;
     }
 
-    public Segment get(int index) {
-        return segments[index];
+    /**
+     * @return a view of this trajectory driven backwards:  position, velocity, acceleration and jerk are negated,
+     * and the heading is turned around 180 degrees.  For a tank drive, the left and right wheel trajectories also swap.
+     */
+    public Trajectory reversed() {
+        return new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading, !reversed, mirrored, mirrorWidth);
+    }
+
+    /**
+     * @param fieldWidth width of the field (in the same units as the path).  y is mirrored about fieldWidth/2.
+     * @return a view of this trajectory mirrored to the other side of the field (ex. Left2CargoF to Right2CargoF).
+     * For a tank drive, the left and right wheel trajectories also swap.
+     */
+    public Trajectory mirrored(double fieldWidth) {
+        if (mirrored) {
+            // Mirroring twice across the same line gives back the original.  Across a different line, copy first.
+            if (fieldWidth == mirrorWidth) {
+                return new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading, reversed, false, 0.0);
+            }
+            return copy().mirrored(fieldWidth);
+        }
+        return new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading, reversed, true, fieldWidth);
     }
 
     public int length() {
-        return segments.length;
+        return dt.limit();
     }
 
+    public double getDt(int index) {
+        return dt.get(index);
+    }
+
+    public double getX(int index) {
+        return x.get(index);
+    }
+
+    public double getY(int index) {
+        return mirrored ? mirrorWidth - y.get(index) : y.get(index);
+    }
+
+    public double getPosition(int index) {
+        return reversed ? -position.get(index) : position.get(index);
+    }
+
+    public double getVelocity(int index) {
+        return reversed ? -velocity.get(index) : velocity.get(index);
+    }
+
+    public double getAcceleration(int index) {
+        return reversed ? -acceleration.get(index) : acceleration.get(index);
+    }
+
+    public double getJerk(int index) {
+        return reversed ? -jerk.get(index) : jerk.get(index);
+    }
+
+    /**
+     * @return heading in radians
+     */
+    public double getHeading(int index) {
+        double h = heading.get(index);
+        if (mirrored) h = TWO_PI - h;
+        if (reversed) h = (h > 0) ? h - Math.PI : h + Math.PI;
+        return h;
+    }
+
+    /**
+     * Copy one point of the trajectory into an existing segment (does not create an object)
+     * @param index index of the point
+     * @param seg segment to copy into
+     */
+    public void get(int index, Segment seg) {
+        seg.dt = getDt(index);
+        seg.x = getX(index);
+        seg.y = getY(index);
+        seg.position = getPosition(index);
+        seg.velocity = getVelocity(index);
+        seg.acceleration = getAcceleration(index);
+        seg.jerk = getJerk(index);
+        seg.heading = getHeading(index);
+    }
+
+    /**
+     * @return a new segment holding one point of the trajectory
+     */
+    public Segment get(int index) {
+        return new Segment(getDt(index), getX(index), getY(index), getPosition(index), getVelocity(index),
+            getAcceleration(index), getJerk(index), getHeading(index));
+    }
+
+    /**
+     * Re-times this trajectory for new velocity and acceleration limits, without changing the path.
+     * The new trajectory drives along the same points, as fast as the limits allow, starting and ending
+     * at rest, with the same dt between segments (so DistanceFollower can follow it directly).
+     * Runs in O(n):  one forward and one backward pass over the path to find the fastest velocity at each
+     * point, then one pass to sample the new time steps.  For a tank drive, make the wheel trajectories
+     * from the new center trajectory (ex. with TankModifier).
+     * @param maxVelocity       Max velocity (units, ex. inches per second)
+     * @param maxAcceleration   Max acceleration (units, ex. inches per second per second)
+     * @return                  The re-timed trajectory (a new trajectory, not a view)
+     * @throws IllegalArgumentException if maxVelocity or maxAcceleration is not greater than 0
+     */
+    public Trajectory retime(double maxVelocity, double maxAcceleration) {
+        if (!(maxVelocity > 0) || !(maxAcceleration > 0)) {
+            throw new IllegalArgumentException("retime needs maxVelocity and maxAcceleration > 0, got " + maxVelocity + " and " + maxAcceleration);
+        }
+        int n = length();
+        if (n < 2) return copy();
+        double stepTime = getDt(0);
+        double start = getPosition(0);
+        double sign = (getPosition(n - 1) < start) ? -1.0 : 1.0;
+
+        // Distance along the path at each point, and the fastest velocity at each point
+        double[] s = new double[n], v = new double[n];
+        for (int i = 1; i < n; i++) {
+            s[i] = Math.max(s[i - 1], sign * (getPosition(i) - start));
+            v[i] = Math.min(maxVelocity, Math.sqrt(v[i - 1] * v[i - 1] + 2 * maxAcceleration * (s[i] - s[i - 1])));
+        }
+        v[n - 1] = 0;
+        for (int i = n - 2; i >= 0; i--) {
+            v[i] = Math.min(v[i], Math.sqrt(v[i + 1] * v[i + 1] + 2 * maxAcceleration * (s[i + 1] - s[i])));
+        }
+
+        // Time at each point (constant acceleration between points)
+        double[] t = new double[n];
+        for (int i = 1; i < n; i++) {
+            double vSum = v[i - 1] + v[i];
+            t[i] = t[i - 1] + ((vSum > 0) ? 2 * (s[i] - s[i - 1]) / vSum : 0);
+        }
+
+        // Sample the path every stepTime
+        int count = (int) Math.ceil(t[n - 1] / stepTime) + 1;
+        double[] newDt = new double[count], newX = new double[count], newY = new double[count], newPosition = new double[count];
+        double[] newVelocity = new double[count], newAcceleration = new double[count], newJerk = new double[count], newHeading = new double[count];
+        int j = 0;
+        for (int k = 0; k < count; k++) {
+            double time = Math.min(k * stepTime, t[n - 1]);
+            while (j < n - 2 && t[j + 1] <= time) j++;
+
+            double interval = t[j + 1] - t[j];
+            double tau = time - t[j];
+            double a = (interval > 0) ? (v[j + 1] - v[j]) / interval : 0;
+            double distance = Math.min(s[j + 1], s[j] + v[j] * tau + 0.5 * a * tau * tau);
+            double fraction = (s[j + 1] > s[j]) ? (distance - s[j]) / (s[j + 1] - s[j]) : 0;
+
+            newDt[k] = stepTime;
+            newX[k] = getX(j) + (getX(j + 1) - getX(j)) * fraction;
+            newY[k] = getY(j) + (getY(j + 1) - getY(j)) * fraction;
+            newHeading[k] = getHeading(j) + Math.IEEEremainder(getHeading(j + 1) - getHeading(j), TWO_PI) * fraction;
+            newPosition[k] = start + sign * distance;
+            newVelocity[k] = sign * (v[j] + a * tau);
+            if (k > 0) {
+                newAcceleration[k] = (newVelocity[k] - newVelocity[k - 1]) / stepTime;
+                newJerk[k] = (newAcceleration[k] - newAcceleration[k - 1]) / stepTime;
+            }
+        }
+        return new Trajectory(newDt, newX, newY, newPosition, newVelocity, newAcceleration, newJerk, newHeading);
+    }
+
+    /**
+     * @return a copy of this trajectory (with the reversed and mirrored values written into new columns)
+     */
     public Trajectory copy() {
-        Trajectory toCopy = new Trajectory(length());
-        for (int i = 0; i < length(); i++) {
-            toCopy.segments[i] = get(i).copy();
+        int n = length();
+        Trajectory toCopy = new Trajectory(new double[n], new double[n], new double[n], new double[n],
+            new double[n], new double[n], new double[n], new double[n]);
+        for (int i = 0; i < n; i++) {
+            toCopy.put(i, get(i));
         }
         return toCopy;
     }
 
+    /**
+     * Write one point into the columns of a new trajectory (not a view, and not read-only)
+     */
+    private void put(int index, Segment seg) {
+        dt.put(index, seg.dt);
+        x.put(index, seg.x);
+        y.put(index, seg.y);
+        position.put(index, seg.position);
+        velocity.put(index, seg.velocity);
+        acceleration.put(index, seg.acceleration);
+        jerk.put(index, seg.jerk);
+        heading.put(index, seg.heading);
+    }
+
 }
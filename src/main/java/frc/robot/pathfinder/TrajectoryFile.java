@@ -0,0 +1,131 @@
+package frc.robot.pathfinder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Compiled (binary) trajectory file, made from a Pathfinder .pf1.csv file at build time so the robot
+ * does not have to parse text.  The file is big-endian:
+ * <pre>
+ * int    magic ("PF1B")
+ * int    version
+ * int    count        number of segments
+ * int    columns      number of columns (8: dt, x, y, position, velocity, acceleration, jerk, heading)
+ * double dt           time between segments, in seconds
+ * long   reserved
+ * double[columns][count]   column-major segment data
+ * </pre>
+ * The build compiles src/main/deploy/paths/*.pf1.csv to build/paths/*.pf1.bin (see the compilePaths
+ * task in build.gradle), and the .bin files are deployed next to the .csv files.
+ * <p>
+ * read() maps the file and the Trajectory reads its columns straight from the mapped file, so loading
+ * a path does not parse or copy the values.
+ */
+public class TrajectoryFile {
+
+    public static final int MAGIC = 0x50463142;     // "PF1B"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+    public static final int COLUMNS = 8;
+
+    /**
+     * Read a compiled trajectory file.  The file is memory-mapped, and the trajectory reads the mapped columns (nothing is parsed or copied).
+     * @param file          The .pf1.bin file to read
+     * @param driveForward  True = drive forward, false = drive backward
+     * @return              The trajectory that was read from file (a reversed view if driveForward is false)
+     */
+    public static Trajectory read(File file, boolean driveForward) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a compiled trajectory file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " has trajectory file version " + buffer.getInt(4) + ", expected " + VERSION);
+        }
+        int count = buffer.getInt(8);
+        int columns = buffer.getInt(12);
+        if (columns != COLUMNS || count < 0 || buffer.limit() < HEADER_SIZE + (long) count * columns * Double.BYTES) {
+            throw new IOException(file + " is truncated or has the wrong number of columns");
+        }
+
+        buffer.position(HEADER_SIZE);
+        DoubleBuffer data = buffer.slice().asDoubleBuffer();
+
+        DoubleBuffer[] column = new DoubleBuffer[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            data.limit((c + 1) * count).position(c * count);
+            column[c] = data.slice();
+        }
+        Trajectory traj = new Trajectory(column[0], column[1], column[2], column[3], column[4], column[5], column[6], column[7]);
+        return driveForward ? traj : traj.reversed();
+    }
+
+    /**
+     * Write a trajectory to a compiled trajectory file
+     * @param file          The file to write to
+     * @param trajectory    The trajectory to write
+     */
+    public static void write(File file, Trajectory trajectory) throws IOException {
+        int count = trajectory.length();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(COLUMNS);
+            out.writeDouble(count > 0 ? trajectory.getDt(0) : 0.0);
+            out.writeLong(0);
+
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getDt(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getX(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getY(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getPosition(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getVelocity(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getAcceleration(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getJerk(i));
+            for (int i = 0; i < count; i++) out.writeDouble(trajectory.getHeading(i));
+        }
+    }
+
+    /**
+     * Compiles every .pf1.csv and .pf2.csv file in a directory.  Used by the compilePaths build task:
+     * <pre>
+     * java frc.robot.pathfinder.TrajectoryFile src/main/deploy/paths build/paths
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: TrajectoryFile csvDirectory outputDirectory");
+            System.exit(1);
+        }
+
+        File[] csvFiles = new File(args[0]).listFiles((dir, name) -> name.matches(".*\\.pf[12]\\.csv"));
+        if (csvFiles == null) {
+            System.err.println("Path directory not found: " + args[0]);
+            System.exit(1);
+        }
+        File outDir = new File(args[1]);
+        outDir.mkdirs();
+
+        for (File csvFile : csvFiles) {
+            Trajectory trajectory = Pathfinder.readFromCSV(csvFile, true);
+            if (trajectory == null) {
+                System.err.println("Could not read " + csvFile);
+                System.exit(1);
+            }
+            String name = csvFile.getName();
+            write(new File(outDir, name.substring(0, name.length() - ".csv".length()) + ".bin"), trajectory);
+        }
+        System.out.println("Compiled " + csvFiles.length + " paths to " + outDir);
+    }
+}
@@ -0,0 +1,128 @@
+package frc.robot.pathfinder;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a trajectory through a list of waypoints (a Java version of the Pathfinder C generator,
+ * so paths can be made on the robot instead of in PathWeaver).
+ * <p>
+ * Steps:
+ * <ol><li>Fit a Hermite spline between each pair of waypoints, and integrate its arc length (in parallel)</li>
+ * <li>Make a jerk-limited velocity profile for the total length of the path, using two moving-average
+ * filters (same as Pathfinder)</li>
+ * <li>Find the point on the splines for the position of each segment (in parallel)</li></ol>
+ * Use TankModifier to get the left and right wheel trajectories.
+ */
+public class TrajectoryGenerator {
+
+    private static final int PARALLEL_SEGMENTS = 1000;     // Use parallel streams above this many segments
+
+    /**
+     * Generate a trajectory
+     * @param waypoints The waypoints to pass through (at least 2).  Units are the same as the config (ex. inches).
+     * @param config    The configuration of the trajectory
+     * @return          The center trajectory, or null if there are less than 2 waypoints
+     */
+    public static Trajectory generate(Waypoint[] waypoints, Trajectory.Config config) {
+        if (waypoints.length < 2) return null;
+
+        // Fit and integrate the splines
+        int splineCount = waypoints.length - 1;
+        Spline[] splines = new Spline[splineCount];
+        IntStream.range(0, splineCount).parallel().forEach(i -> {
+            splines[i] = new Spline(waypoints[i], waypoints[i + 1], config.fit);
+            splines[i].integrate(config.sample_count);
+        });
+
+        double[] splineStart = new double[splineCount + 1];     // Distance along the path to the start of each spline
+        for (int i = 0; i < splineCount; i++) {
+            splineStart[i + 1] = splineStart[i] + splines[i].arcLength();
+        }
+
+        ProfileInfo info = prepareProfile(splineStart[splineCount], config);
+        int length = info.length;
+        double[] dt = new double[length], x = new double[length], y = new double[length], position = new double[length];
+        double[] velocity = new double[length], acceleration = new double[length], jerk = new double[length], heading = new double[length];
+        createProfile(info, config, dt, position, velocity, acceleration, jerk);
+
+        // Place each segment on the splines
+        IntStream segments = IntStream.range(0, length);
+        if (length >= PARALLEL_SEGMENTS) segments = segments.parallel();
+        segments.forEach(i -> {
+            int splineIndex = Arrays.binarySearch(splineStart, 0, splineCount, position[i]);
+            if (splineIndex < 0) splineIndex = -splineIndex - 2;
+            splineIndex = Math.max(0, Math.min(splineCount - 1, splineIndex));
+
+            Spline spline = splines[splineIndex];
+            double percentage = spline.progressForDistance(position[i] - splineStart[splineIndex]);
+            x[i] = spline.x(percentage);
+            y[i] = spline.y(percentage);
+            heading[i] = spline.angle(percentage);
+        });
+
+        return new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading);
+    }
+
+    /**
+     * Filter lengths for the profile (see createProfile())
+     */
+    private static class ProfileInfo {
+        int filter1, filter2, length;
+        double velocity, impulse;
+    }
+
+    private static ProfileInfo prepareProfile(double distance, Trajectory.Config config) {
+        double maxA2 = config.max_acceleration * config.max_acceleration;
+        double maxJ2 = config.max_jerk * config.max_jerk;
+
+        // Lower the max velocity if the path is too short to reach it
+        ProfileInfo info = new ProfileInfo();
+        info.velocity = Math.min(config.max_velocity,
+            (-maxA2 + Math.sqrt(maxA2 * maxA2 + 4 * (maxJ2 * config.max_acceleration * distance))) / (2 * config.max_jerk));
+        info.filter1 = (int) Math.ceil((info.velocity / config.max_acceleration) / config.dt);
+        info.filter2 = (int) Math.ceil((config.max_acceleration / config.max_jerk) / config.dt);
+        info.impulse = (distance / info.velocity) / config.dt;
+        info.length = (int) Math.ceil(info.filter1 + info.filter2 + info.impulse);
+        return info;
+    }
+
+    /**
+     * Creates a jerk-limited profile by passing a velocity impulse through two moving-average filters.
+     * The first filter limits acceleration and the second limits jerk.
+     */
+    private static void createProfile(ProfileInfo info, Trajectory.Config config,
+            double[] dt, double[] position, double[] velocity, double[] acceleration, double[] jerk) {
+        int length = info.length;
+        double impulse = info.impulse;
+
+        double[] f1 = new double[length];
+        double lastPosition = 0, lastVelocity = 0, lastAcceleration = 0;
+        double f2Sum = 0;           // Running sum of the last filter2 values of f1
+
+        for (int i = 0; i < length; i++) {
+            double input = Math.min(impulse, 1);
+            if (input < 1) {
+                input -= 1;
+                impulse = 0;
+            } else {
+                impulse -= input;
+            }
+
+            double f1Last = (i > 0) ? f1[i - 1] : 0;
+            f1[i] = Math.max(0.0, Math.min(info.filter1, f1Last + input));
+            f2Sum += f1[i];
+            if (i >= info.filter2) f2Sum -= f1[i - info.filter2];
+
+            dt[i] = config.dt;
+            velocity[i] = f2Sum / info.filter1 / info.filter2 * info.velocity;
+            position[i] = (lastVelocity + velocity[i]) / 2.0 * config.dt + lastPosition;
+            acceleration[i] = (velocity[i] - lastVelocity) / config.dt;
+            jerk[i] = (acceleration[i] - lastAcceleration) / config.dt;
+
+            lastPosition = position[i];
+            lastVelocity = velocity[i];
+            lastAcceleration = acceleration[i];
+        }
+    }
+}
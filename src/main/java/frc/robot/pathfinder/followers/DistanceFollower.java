@@ -1,6 +1,7 @@
 package frc.robot.pathfinder.followers;
 
 import frc.robot.pathfinder.Trajectory;
+import frc.robot.utilities.RobotClock;
 
 /**
  * The DistanceFollower is an object designed to follow a trajectory based on distance covered input. This class can be used
@@ -20,7 +21,8 @@ public class DistanceFollower {
     double segOffset;                   // fractional offset of current time between segIndex and segIndex+1  (value should be between 0 and 1)
     Trajectory.Segment seg;             // current segment (values may be interpolated from within trajectory array)
 
-    long startTimeMillis, calcTimeMillis;  // Start time for trajectory following, current time in trajectory
+    final RobotClock clock;             // Clock for following the trajectory in real time
+    long startTimeNanos, calcTimeNanos; // Start time for trajectory following, current time in trajectory
 
 
     /**
@@ -28,10 +30,22 @@ public class DistanceFollower {
      * @param traj Trajectory to follow
      */
     public DistanceFollower(Trajectory traj) {
+        this(traj, RobotClock.get());
+    }
+
+    /**
+     * Create a new distance follower that follows a trajectory
+     * @param traj Trajectory to follow
+     * @param clock Clock to follow the trajectory with (ex. a VirtualClock to run faster than real time)
+     */
+    public DistanceFollower(Trajectory traj, RobotClock clock) {
+        this.clock = clock;
         setTrajectory(traj);
     }
 
-    public DistanceFollower() { }
+    public DistanceFollower() {
+        clock = RobotClock.get();
+    }
 
     /**
      * Set a new trajectory to follow, and reset the cumulative errors and segment counts
@@ -39,7 +53,7 @@ public class DistanceFollower {
      */
     public void setTrajectory(Trajectory traj) {
         trajectory = traj;
-        dt = trajectory.segments[0].dt;
+        dt = trajectory.getDt(0);
         reset();
     }
 
@@ -50,9 +64,9 @@ public class DistanceFollower {
         last_error = 0.0; 
         segIndex = 0;
         segOffset = 0.0;
-        startTimeMillis = System.currentTimeMillis();
-        calcTimeMillis = startTimeMillis;
-        seg = trajectory.segments[0].copy();
+        startTimeNanos = clock.nanos();
+        calcTimeNanos = startTimeNanos;
+        seg = trajectory.get(0);
     }
 
     /**
@@ -79,28 +93,26 @@ public class DistanceFollower {
      * @return                  The desired output for your motor controller
      */
     public double calculate(double distance_covered) {
-        Trajectory.Segment seg_next;        // next segment after current segment (for interpolation)
         double error, calculated_value;
 
         // Calcluate current position in trajectory based on real time
-        calcTimeMillis = System.currentTimeMillis();
-        segOffset = ((double)(calcTimeMillis - startTimeMillis))/1000.0/dt;
+        calcTimeNanos = clock.nanos();
+        segOffset = (calcTimeNanos - startTimeNanos)/1e9/dt;
         segIndex = (int) Math.floor(segOffset);     // closest segment index that we just went past
         segOffset = segOffset - segIndex;      // fractional offset to next segment
 
         // Check if we are past the end of the trajectory
         if (segIndex >= trajectory.length()-1) {
             // Copy the last segment in the array to seg, in case someone calls getSegment()
-            trajectory.segments[trajectory.length()-1].copyTo(seg);
+            trajectory.get(trajectory.length()-1, seg);
             return 0;
         }
 
-        trajectory.get(segIndex).copyTo(seg);     // Get the segment we just passed
-        seg_next = trajectory.get(segIndex+1);    // Get the next segment
+        trajectory.get(segIndex, seg);     // Get the segment we just passed
 
-        // interpolate the position and velocity that we should be at right now
-        seg.position += (seg_next.position - seg.position)*segOffset;
-        seg.velocity += (seg_next.velocity - seg.velocity)*segOffset;
+        // interpolate the position and velocity that we should be at right now, using the next segment
+        seg.position += (trajectory.getPosition(segIndex+1) - seg.position)*segOffset;
+        seg.velocity += (trajectory.getVelocity(segIndex+1) - seg.velocity)*segOffset;
 
         error = seg.position - distance_covered;
         calculated_value =
@@ -148,10 +160,10 @@ public class DistanceFollower {
 
     /**
      * @return the current time when getSegment() was last calculated (in the same
-     * format as System.currentTimeMillis())
+     * format as RobotClock.millis())
      */
     public long getCalcTimeMillis() {
-        return calcTimeMillis;
+        return calcTimeNanos / 1000000;
     }
 
     /**
@@ -159,14 +171,21 @@ public class DistanceFollower {
      * since this DistanceFollower was last reset.
      */
     public long getCalcDeltaTimeMillis() {
-        return calcTimeMillis-startTimeMillis;
+        return (calcTimeNanos-startTimeNanos) / 1000000;
     }
 
     /**
-     * @return the system time that the distance follower was last reset.
+     * @return the clock time (RobotClock.millis()) that the distance follower was last reset.
      */
     public long getStartTimeMillis() {
-        return startTimeMillis;
+        return startTimeNanos / 1000000;
+    }
+
+    /**
+     * @return the time in seconds since the distance follower was last reset (now, not when getSegment() was calculated)
+     */
+    public double getTimeSinceStart() {
+        return (clock.nanos() - startTimeNanos) / 1e9;
     }
 
     /**
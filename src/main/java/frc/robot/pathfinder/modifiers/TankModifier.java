@@ -0,0 +1,98 @@
+package frc.robot.pathfinder.modifiers;
+
+import frc.robot.pathfinder.Trajectory;
+
+/**
+ * The Tank Modifier will take in a Source Trajectory and a Wheelbase Width and spit out a Trajectory for each
+ * side of the wheelbase. This is commonly used in robotics for robots which have a drive system similar
+ * to a 'tank', where individual parallel sides are driven independently
+ *
+ * The Source Trajectory is measured from the centre of the drive base. The modification will not modify the central
+ * trajectory
+ *
+ * @author Jaci
+ */
+public class TankModifier {
+
+    Trajectory source, left, right;
+
+    /**
+     * Create an instance of the modifier
+     * @param source The source (center) trajectory
+     */
+    public TankModifier(Trajectory source) {
+        this.source = source;
+    }
+
+    /**
+     * Generate the Trajectory Modification
+     * @param wheelbase_width   The width (in units, ex. inches) between the individual sides of the drivebase
+     * @return                  self
+     */
+    public TankModifier modify(double wheelbase_width) {
+        int n = source.length();
+        double w = wheelbase_width / 2;
+        double[] lx = new double[n], ly = new double[n], lPosition = new double[n], lVelocity = new double[n], lAcceleration = new double[n], lJerk = new double[n];
+        double[] rx = new double[n], ry = new double[n], rPosition = new double[n], rVelocity = new double[n], rAcceleration = new double[n], rJerk = new double[n];
+        double[] dt = new double[n], heading = new double[n];
+
+        // One pass for both sides.  Each wheel point is the center point moved sideways by w, and the wheel's
+        // position, velocity, acceleration, and jerk come from the distance between wheel points.
+        for (int i = 0; i < n; i++) {
+            double h = source.getHeading(i);
+            double x = source.getX(i), y = source.getY(i);
+            double sin = Math.sin(h), cos = Math.cos(h);
+            dt[i] = source.getDt(i);
+            heading[i] = h;
+            lx[i] = x - w * sin;
+            ly[i] = y + w * cos;
+            rx[i] = x + w * sin;
+            ry[i] = y - w * cos;
+
+            if (i == 0) {
+                lPosition[0] = rPosition[0] = source.getPosition(0);
+                lVelocity[0] = rVelocity[0] = source.getVelocity(0);
+                lAcceleration[0] = rAcceleration[0] = source.getAcceleration(0);
+                lJerk[0] = rJerk[0] = source.getJerk(0);
+                continue;
+            }
+
+            double lDistance = Math.sqrt((lx[i] - lx[i-1]) * (lx[i] - lx[i-1]) + (ly[i] - ly[i-1]) * (ly[i] - ly[i-1]));
+            double rDistance = Math.sqrt((rx[i] - rx[i-1]) * (rx[i] - rx[i-1]) + (ry[i] - ry[i-1]) * (ry[i] - ry[i-1]));
+            lPosition[i] = lPosition[i-1] + lDistance;
+            rPosition[i] = rPosition[i-1] + rDistance;
+            lVelocity[i] = lDistance / dt[i];
+            rVelocity[i] = rDistance / dt[i];
+            lAcceleration[i] = (lVelocity[i] - lVelocity[i-1]) / dt[i];
+            rAcceleration[i] = (rVelocity[i] - rVelocity[i-1]) / dt[i];
+            lJerk[i] = (lAcceleration[i] - lAcceleration[i-1]) / dt[i];
+            rJerk[i] = (rAcceleration[i] - rAcceleration[i-1]) / dt[i];
+        }
+
+        // The sides share the dt and heading columns (trajectories are never modified in place)
+        left = new Trajectory(dt, lx, ly, lPosition, lVelocity, lAcceleration, lJerk, heading);
+        right = new Trajectory(dt, rx, ry, rPosition, rVelocity, rAcceleration, rJerk, heading);
+        return this;
+    }
+
+    /**
+     * Get the initial source trajectory
+     */
+    public Trajectory getSourceTrajectory() {
+        return source;
+    }
+
+    /**
+     * Get the trajectory for the left side of the drive base (offset toward +y when the heading is 0)
+     */
+    public Trajectory getLeftTrajectory() {
+        return left;
+    }
+
+    /**
+     * Get the trajectory for the right side of the drive base
+     */
+    public Trajectory getRightTrajectory() {
+        return right;
+    }
+}
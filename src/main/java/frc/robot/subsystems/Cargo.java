@@ -17,12 +17,18 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
 import frc.robot.RobotMap;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.LogChannels;
+import frc.robot.utilities.SensorFrame;
 
 public class Cargo extends Subsystem {
   private final BaseMotorController cargoMotor1 = new WPI_VictorSPX(RobotMap.cargoMotor1); // top motor
   // private final BaseMotorController cargoMotor2 = new WPI_VictorSPX(RobotMap.cargoMotor2); // bottom motor
   private final DigitalInput photoSwitch = new DigitalInput(RobotMap.photoSwitchCargo); // Cargo Sensor
 
+  // Binary log channels for periodic()
+  private final LogChannels logChannels = Robot.log.registerChannels("Cargo", "Update Variables")
+    .addBoolean("Photo Switch").addDouble("Volt").addDouble("Amp");
+
   public Cargo() {
     cargoMotor1.set(ControlMode.PercentOutput, 0);
     cargoMotor1.setNeutralMode(NeutralMode.Brake);
@@ -58,10 +64,11 @@ public class Cargo extends Subsystem {
   }
 
   public boolean getPhotoSwitch(){
-    if(Robot.log.getLogLevel() <= 2){
-      Robot.log.writeLog("Cargo", "Photo Sensor", "Photo Sensor," + photoSwitch.get());
+    boolean photoSensor = Robot.sensors.cargoPhotoSwitch;
+    if (Robot.log.getLogLevel("Cargo") <= 2) {
+      Robot.log.writeLog(2, "Cargo", "Photo Sensor", () -> "Photo Sensor," + photoSensor);
     }
-    return !photoSwitch.get();
+    return !photoSensor;
   }
 
   /**
@@ -69,10 +76,30 @@ public class Cargo extends Subsystem {
    * @return true = has ball, false = does not have ball
    */
   public boolean hasBall(){
-    if(Robot.log.getLogLevel() <= 2){
-      Robot.log.writeLog("Cargo", "Photo Sensor", "Photo Sensor," + photoSwitch.get());
+    boolean photoSensor = Robot.sensors.cargoPhotoSwitch;
+    if (Robot.log.getLogLevel("Cargo") <= 2) {
+      Robot.log.writeLog(2, "Cargo", "Photo Sensor", () -> "Photo Sensor," + photoSensor);
     }
-    return !photoSwitch.get();
+    return !photoSensor;
+  }
+
+  /**
+   * Reads the photo switch into the sensor frame
+   * @param frame frame to fill in
+   */
+  public void readSensors(SensorFrame frame) {
+    frame.cargoPhotoSwitch = photoSwitch.get();
+  }
+
+  /**
+   * Fills in the current record of logChannels (used by the file log and the flight recorder).
+   * Only uses values that were already read this cycle, unless readMotor is true.
+   * @param readMotor true = also read the motor voltage from the Victor, false = record NaN for it
+   */
+  private void fillLogChannels(boolean readMotor) {
+    logChannels.startRecord()
+      .put(!Robot.sensors.cargoPhotoSwitch).put(readMotor ? cargoMotor1.getMotorOutputVoltage() : Double.NaN)
+      .put(Robot.pdpMonitor.getCurrent(RobotMap.cargoMotor1PDP));
   }
 
   @Override
@@ -84,11 +111,15 @@ public class Cargo extends Subsystem {
   @Override
   public void periodic() {
 
+    // Keep every cycle in the flight recorder (without any extra reads from the Victor)
+    fillLogChannels(false);
+    Robot.flightRecorder.record(logChannels);
+
 		if (Robot.log.getLogRotation() == FileLog.CARGO_CYCLE) {
       SmartDashboard.putBoolean("Cargo Has Ball", hasBall());
 
-      Robot.log.writeLog(false, "Cargo", "Update Variables", "Photo Switch," + hasBall() + 
-        ",Volt," + cargoMotor1.getMotorOutputVoltage() + ",Amp," + Robot.pdp.getCurrent(RobotMap.cargoMotor1PDP));
+      fillLogChannels(true);
+      Robot.log.writeChannels(false, logChannels);
     }
 
   }
@@ -30,6 +30,9 @@ import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import frc.robot.Robot;
 import frc.robot.RobotMap;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.Interlocks;
+import frc.robot.utilities.LogChannels;
+import frc.robot.utilities.SensorFrame;
 import frc.robot.utilities.Wait;
 
 /**
@@ -56,6 +59,13 @@ public class Climb extends Subsystem {
   private double kMaxOutput = 1.0;
   private double kMinOutput = -1.0;
 
+  // Binary log channels for updateClimbLog()
+  private final LogChannels logChannels = Robot.log.registerChannels("Climb", "Update Variables")
+    .addDouble("Volts1").addDouble("Volts2").addDouble("VacVolts")
+    .addDouble("Amps1").addDouble("Amps2").addDouble("VacAmps")
+    .addDouble("EncCalZero").addDouble("Enc Raw").addDouble("Enc Ang").addDouble("Enc target")
+    .addBoolean("Climb limit").addBoolean("Vacuum Achieved");
+
   public Climb() {
     enableCompressor(true);    
 
@@ -96,12 +106,14 @@ public class Climb extends Subsystem {
     // we don't wait (random weird behavior).
     // DO NOT GET RID OF THIS WITHOUT TALKING TO DON OR ROB.
     Wait.waitTime(250);
-    adjustClimbCalZero();
 
     // Oversampling for analog sensor
     analogVacuumSensor.setOversampleBits(4);
     analogVacuumSensor.setAverageBits(2);
 
+    readSensors(Robot.sensors);     // Robot has not captured a sensor frame yet
+    adjustClimbCalZero();
+
     // Analog Trigger testing settings
     vacuumTrigger.setLimitsVoltage(0.1, 4.9); // Random boundaries, no idea what real values are
     //vacuumTrigger.setAveraged(true); // Use the averaged value instead of raw
@@ -143,26 +155,14 @@ public class Climb extends Subsystem {
    * @param angle target angle, in degrees (0 = horizontal behind robot, + = up, - = down)
    */
   public void setClimbPos(double angle) {
-    double safeAngle = angle;
-
-    // Apply interlocks
-    if (Robot.wrist.getWristUpperLimit() && Robot.wrist.getCurrentWristTarget() >= Robot.robotPrefs.wristStowed - 3) {
-      // Wrist is stowed and is not being moved to another position.
-      // Climber can move as far as climbWristStowedSafe
-      safeAngle = (safeAngle > Robot.robotPrefs.climbWristStowedSafe) ? Robot.robotPrefs.climbWristStowedSafe : safeAngle;
-    } else if (Robot.wrist.getWristAngle() > Robot.robotPrefs.wristKeepOut || Robot.wrist.getCurrentWristTarget() > Robot.robotPrefs.wristKeepOut) {
-      // Wrist is in the keepout region or is moving to the keepout region.
-      // Climber can move as far as climbWristMovingSafe
-      safeAngle = (safeAngle > Robot.robotPrefs.climbWristMovingSafe) ? Robot.robotPrefs.climbWristMovingSafe : safeAngle;
-    }
-    // If rear hatch piston is extended and climb is told to go below climb prep, climber will only go to climb prep (to prevent crash).
-    // if (/* Robot.rearHatch.isRearHatchPistonExtended() && */ safeAngle < Robot.robotPrefs.climbPrep - 5) {
-    //   safeAngle = Robot.robotPrefs.climbPrep;
-    // }
+    // Interlocks:  if the wrist is stowed (and staying there), the climber can move as far as climbWristStowedSafe.
+    // If the wrist is in the keepout region (or moving there), the climber can move as far as climbWristMovingSafe.
+    Interlocks.Result interlock = Robot.interlocks.check(Interlocks.Move.CLIMB, angle);
+    double safeAngle = interlock.target;
 
     climbMotor2.set(ControlMode.Position, climbAngleToEncTicks(safeAngle) + Robot.robotPrefs.climbCalZero);
-    Robot.log.writeLog("Climb", "Set angle", "Desired angle," + angle + ",Set angle," + safeAngle + ",Wrist Upper Limit," + Robot.wrist.getWristUpperLimit()
-    + ",Wrist Angle," + Robot.wrist.getWristAngle() + ",Wrist Target," + Robot.wrist.getCurrentWristTarget());
+    Robot.interlocks.update();    // Later moves in this cycle see the new target
+    Robot.log.writeLog("Climb", "Set angle", "Desired angle," + angle + ",Set angle," + safeAngle + "," + interlock + "," + Robot.interlocks);
   }
 
   /**
@@ -187,7 +187,7 @@ public class Climb extends Subsystem {
    * @return pressure from 0 (atm) to 25.5 (upper limit of the sensor's sensitivity) inclusive
    */
   public double getVacuumPressure(boolean raw) {
-    double out = (raw) ? analogVacuumSensor.getVoltage() * -5.7 + 27 : analogVacuumSensor.getAverageVoltage() * -5.7 + 27;
+    double out = (raw) ? analogVacuumSensor.getVoltage() * -5.7 + 27 : Robot.sensors.vacuumPressure;
    
     return out;
   }
@@ -236,7 +236,18 @@ public class Climb extends Subsystem {
    * @return raw climb encoder value, in ticks
    */
   public double getClimbEncTicksRaw() {
-    return climbMotor2.getSelectedSensorPosition(0);
+    return Robot.sensors.climbEncTicksRaw;
+  }
+
+  /**
+   * Reads the climb encoder, limit switch, Talon target, and vacuum pressure into the sensor frame
+   * @param frame frame to fill in
+   */
+  public void readSensors(SensorFrame frame) {
+    frame.climbEncTicksRaw = climbMotor2.getSelectedSensorPosition(0);
+    frame.climbClosedLoopTarget = climbMotor2.getClosedLoopTarget(0);
+    frame.climbAtLimitSwitch = climbLimit.isFwdLimitSwitchClosed();
+    frame.vacuumPressure = analogVacuumSensor.getAverageVoltage() * -5.7 + 27;
   }
 
   /**
@@ -271,13 +282,20 @@ public class Climb extends Subsystem {
 	 * @return current degree of climber angle
 	 */
   public double getClimbAngle() {
-    if (Robot.robotPrefs.climbCalibrated) {
-      double angle = climbEncTicksToAngle(getClimbEncTicks());
+    final double angle = calcClimbAngle();
+    if (Robot.robotPrefs.climbCalibrated && Robot.log.getLogLevel("Climb") <= 1) {
+      Robot.log.writeLog(1, "Climb", "Get climb Angle", () -> "angle," + angle);
+    }
+    return angle;
+  }
 
-      if (Robot.log.getLogLevel() == 1){
-        Robot.log.writeLog("Climb", "Get climb Angle", "angle," + angle);
-      }
-      return angle;
+  /**
+   * Same as getClimbAngle(), but without writing to the file log (for the log records themselves)
+   * @return current degree of climb angle
+   */
+  private double calcClimbAngle() {
+    if (Robot.robotPrefs.climbCalibrated) {
+      return climbEncTicksToAngle(getClimbEncTicks());
     } else {
       // Climber is not calibrated.  Assume we are at max angle in keepout region to engage all interlocks,
       // since we really don't know where the climber is at.
@@ -285,7 +303,6 @@ public class Climb extends Subsystem {
     }
   }
 
-
   /**
 	 * Returns the angle that climber is trying to move to in degrees.
 	 * If the climber is not calibrated, then returns climbLimitAngle in keepout region to engage all interlocks,
@@ -294,21 +311,26 @@ public class Climb extends Subsystem {
 	 * @return desired degree of climber angle
 	 */
   public double getCurrentClimbTarget() {
-    double currentTarget;
+    final double target = calcClimbTarget();
+    if (Robot.robotPrefs.climbCalibrated && Robot.log.getLogLevel("Climb") <= 1) {
+      Robot.log.writeLog(1, "Climb", "Climb Target", () -> "Climb Target," + target);
+    }
+    return target;
+  }
 
+  /**
+   * Same as getCurrentClimbTarget(), but without writing to the file log (for the log records themselves)
+   * @return desired degree of climber angle
+   */
+  private double calcClimbTarget() {
     if (Robot.robotPrefs.climbCalibrated) {
       if (climbMotor2.getControlMode() == ControlMode.Position) {
-        currentTarget = climbEncTicksToAngle(climbMotor2.getClosedLoopTarget(0) - Robot.robotPrefs.climbCalZero);
+        return climbEncTicksToAngle(Robot.sensors.climbClosedLoopTarget - Robot.robotPrefs.climbCalZero);
       } else {
         // If we are not in position control mode, then we aren't moving towards a target (and the target
         // angle may be undefined).  So, get the actual climb angle instead.
-        currentTarget = getClimbAngle();
+        return calcClimbAngle();
       }
-
-      if(Robot.log.getLogLevel() == 1){
-        Robot.log.writeLog("Climb", "Climb Target", "Climb Target," + currentTarget);
-      }
-      return currentTarget;
     } else {
       // Climber is not calibrated.  Assume we are at max angle in keepout region to engage all interlocks,
       // since we really don't know where the climber is at.
@@ -320,7 +342,7 @@ public class Climb extends Subsystem {
    * @return true = climb is at its calibration angle
    */
   public boolean isClimbAtLimitSwitch() {
-    return climbLimit.isFwdLimitSwitchClosed();
+    return Robot.sensors.climbAtLimitSwitch;
   }
 
    /**
@@ -328,15 +350,25 @@ public class Climb extends Subsystem {
    * @param logWhenDisabled true will log when disabled, false will discard the string
    */
   public void updateClimbLog(boolean logWhenDisabled) {
-    Robot.log.writeLog(logWhenDisabled, "Climb", "Update Variables", 
-    "Volts1," + climbMotor2.getMotorOutputVoltage() + ",Volts2," + climbMotor1.getMotorOutputVoltage() + 
-    ",VacVolts," + climbVacuum.getBusVoltage() + //",VacVolts2," + climbVacuum2.getMotorOutputVoltage() +
-    ",Amps1," + Robot.pdp.getCurrent(RobotMap.climbMotor2PDP) + ",Amps2," + Robot.pdp.getCurrent(RobotMap.climbMotor1PDP) + 
-    ",VacAmps," + Robot.pdp.getCurrent(RobotMap.climbVacuum1PDP) + //",VacAmps2," + Robot.pdp.getCurrent(RobotMap.climbVacuum2PDP) +
-    ",EncCalZero," + Robot.robotPrefs.climbCalZero + ",Enc Raw," + getClimbEncTicksRaw() + 
-    ",Enc Ang," + getClimbAngle() + ",Enc target," + getCurrentClimbTarget() +
-    ",Climb limit," + isClimbAtLimitSwitch() + ",Vacuum Achieved," + isVacuumPresent()
-    );
+    fillLogChannels(true);
+    Robot.log.writeChannels(logWhenDisabled, logChannels);
+  }
+
+  /**
+   * Fills in the current record of logChannels (used by the file log and the flight recorder).
+   * Only uses values that were already read this cycle, unless readMotors is true.
+   * @param readMotors true = also read the motor voltages from the motor controllers, false = record NaN for them
+   */
+  private void fillLogChannels(boolean readMotors) {
+    logChannels.startRecord()
+      .put(readMotors ? climbMotor2.getMotorOutputVoltage() : Double.NaN)
+      .put(readMotors ? climbMotor1.getMotorOutputVoltage() : Double.NaN)
+      .put(readMotors ? climbVacuum.getBusVoltage() : Double.NaN)
+      .put(Robot.pdpMonitor.getCurrent(RobotMap.climbMotor2PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.climbMotor1PDP))
+      .put(Robot.pdpMonitor.getCurrent(RobotMap.climbVacuum1PDP))
+      .put(Robot.robotPrefs.climbCalZero).put(getClimbEncTicksRaw())
+      .put(calcClimbAngle()).put(calcClimbTarget())
+      .put(isClimbAtLimitSwitch()).put(isVacuumPresent());
   }
   
   @Override
@@ -348,6 +380,10 @@ public class Climb extends Subsystem {
   
   @Override
   public void periodic() {
+    // Keep every cycle in the flight recorder (without any extra reads from the motor controllers)
+    fillLogChannels(false);
+    Robot.flightRecorder.record(logChannels);
+
     if (Robot.log.getLogRotation() == FileLog.CLIMB_CYCLE) {
       SmartDashboard.putBoolean("Climb calibrated", Robot.robotPrefs.climbCalibrated);
       SmartDashboard.putBoolean("Climb limit switch", isClimbAtLimitSwitch());
@@ -360,7 +396,7 @@ public class Climb extends Subsystem {
       // SmartDashboard.putNumber("Climb Analog Average (Oversampled) Voltage", analogVacuumSensor.getAverageVoltage());
       SmartDashboard.putNumber("Analog Vacuum Pressure", getVacuumPressure(false));
 
-      updateClimbLog(false); 
+      updateClimbLog(false);
     }
 
     // if (isVacuumPresent()) Robot.leds.setColor(LedHandler.Color.BLUE, false); // solid when vacuum drawn
@@ -7,9 +7,6 @@
 
 package frc.robot.subsystems;
 
-import java.util.LinkedList;
-import java.util.Iterator;
-
 import com.kauailabs.navx.frc.AHRS;
 import edu.wpi.first.wpilibj.I2C;
 
@@ -20,7 +17,11 @@ import frc.robot.Robot;
 import frc.robot.RobotMap;
 import frc.robot.commands.DriveWithJoysticks;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.LogChannels;
+import frc.robot.utilities.Pose;
 import frc.robot.utilities.RobotPreferences.TurnDirection;
+import frc.robot.utilities.SensorFrame;
+import frc.robot.utilities.WindowedStats;
 
 /**
  * This is the parent class for a drive train. All the logic for line following, vision, etc. is here.
@@ -35,8 +36,6 @@ public abstract class DriveTrain extends Subsystem {
   private double leftMotorFaultCount; // increments every cycle the left side detects an issue
   private double rightMotorFaultCount; // increments every cycle the right side detects an issue
   boolean driveDirection = true; // true = forward, false = reverse
-  private double fieldX;
-  private double fieldY;
   
   private double priorTurnPercentOutput = 0.0;
   
@@ -44,10 +43,20 @@ public abstract class DriveTrain extends Subsystem {
   private double leftEncoderZero = 0, rightEncoderZero = 0;
 
   // Encoders
-  private LinkedList<Double> lEncoderStack = new LinkedList<Double>();
-  private LinkedList<Double> rEncoderStack = new LinkedList<Double>();
+  private final WindowedStats lEncoderStats = new WindowedStats(50);   // Last 50 encoder readings (1 second at 20ms per cycle)
+  private final WindowedStats rEncoderStats = new WindowedStats(50);
   private boolean lEncStopped = false, rEncStopped = false;
 
+  // Binary log channels for updateDriveLog().  Both drive trains log the same channels.
+  protected final LogChannels driveLogChannels = Robot.log.registerChannels("DriveTrain", "Update Variables")
+    .addDouble("Drive L1 Volts").addDouble("Drive L2 Volts").addDouble("Drive L3 Volts")
+    .addDouble("Drive L1 Amps").addDouble("Drive L2 Amps").addDouble("Drive L3 Amps")
+    .addDouble("Drive R1 Volts").addDouble("Drive R2 Volts").addDouble("Drive R3 Volts")
+    .addDouble("Drive R1 Amps").addDouble("Drive R2 Amps").addDouble("Drive R3 Amps")
+    .addDouble("L Enc Ticks").addDouble("L Drive Inches").addDouble("L Vel")
+    .addDouble("R Enc Ticks").addDouble("R Drive Inches").addDouble("R Vel")
+    .addBoolean("High Gear");
+
   public DriveTrain() {
     // Configure navX
 		try {
@@ -115,6 +124,8 @@ public abstract class DriveTrain extends Subsystem {
 	 */
   abstract public void setVoltageCompensation(boolean turnOn);
 
+  // The raw encoder and gyro methods read the hardware.  Use the other getters (which use Robot.sensors)
+  // from the main robot thread.
   abstract public double getLeftEncoderRaw();
 
   abstract public double getRightEncoderRaw();
@@ -123,18 +134,30 @@ public abstract class DriveTrain extends Subsystem {
 
   abstract public double getRightEncoderVelocityRaw();
 
+  /**
+   * Reads the drive train encoders and gyro into the sensor frame
+   * @param frame frame to fill in
+   */
+  public void readSensors(SensorFrame frame) {
+    frame.leftEncoderRaw = getLeftEncoderRaw();
+    frame.rightEncoderRaw = getRightEncoderRaw();
+    frame.leftEncoderVelocityRaw = getLeftEncoderVelocityRaw();
+    frame.rightEncoderVelocityRaw = getRightEncoderVelocityRaw();
+    frame.gyroRaw = getGyroRaw();
+  }
+
   /**
 	 * Zeros the left encoder position in software
 	 */
   public void zeroLeftEncoder() {
-    leftEncoderZero = getLeftEncoderRaw();
+    leftEncoderZero = Robot.sensors.leftEncoderRaw;
   }
 
   /**
 	 * Zeros the right encoder position in software
 	 */
   public void zeroRightEncoder() {
-    rightEncoderZero = getRightEncoderRaw();
+    rightEncoderZero = Robot.sensors.rightEncoderRaw;
   }
 
   /**
@@ -143,7 +166,7 @@ public abstract class DriveTrain extends Subsystem {
 	 * @return encoder position, in ticks
 	 */
   public double getLeftEncoderTicks() {
-    return getLeftEncoderRaw() - leftEncoderZero;
+    return Robot.sensors.leftEncoderRaw - leftEncoderZero;
   }
 
   /**
@@ -152,7 +175,7 @@ public abstract class DriveTrain extends Subsystem {
 	 * @return encoder position, in ticks
 	 */
   public double getRightEncoderTicks() {
-    return -(getRightEncoderRaw() - rightEncoderZero);
+    return -(Robot.sensors.rightEncoderRaw - rightEncoderZero);
   }
 
   public double encoderTicksToInches(double ticks) {
@@ -171,14 +194,14 @@ public abstract class DriveTrain extends Subsystem {
    * @return left encoder velocity in inches / sec
    */
   public double getLeftEncoderVelocity() {
-    return encoderTicksToInches(getLeftEncoderVelocityRaw()) * 10;
+    return encoderTicksToInches(Robot.sensors.leftEncoderVelocityRaw) * 10;
   }
 
     /**
    * @return right encoder velocity in inches / sec
    */
   public double getRightEncoderVelocity() {
-    return encoderTicksToInches(getRightEncoderVelocityRaw()) * 10;
+    return encoderTicksToInches(Robot.sensors.rightEncoderVelocityRaw) * 10;
   }
 
   public double inchesToEncoderTicks(double inches) {
@@ -192,19 +215,26 @@ public abstract class DriveTrain extends Subsystem {
   abstract public void setDriveModeCoast(boolean setCoast);
 
   /**
-   * Gets the raw value of the gyro
-   * @return
+   * Reads the raw value of the gyro from the navX (use getGyroRotation() from the main robot thread)
+   * @return gyro angle, in degrees (not zeroed)
    */
   public double getGyroRaw() {
     return ahrs.getAngle();
   }
 
+  /**
+   * @return true = navX is connected and sending data
+   */
+  public boolean isGyroConnected() {
+    return ahrs.isConnected();
+  }
+
   /**
 	 * Zeros the gyro position in software
 	 */
 	public void zeroGyroRotation() {
 		// set yawZero to gryo angle
-		yawZero = getGyroRaw();
+		yawZero = Robot.sensors.gyroRaw;
 		// System.err.println("PLZ Never Zero the Gyro Rotation it is not good");
 	}
 
@@ -215,7 +245,7 @@ public abstract class DriveTrain extends Subsystem {
 	 */
 	public void setGyroRotation(double currentHeading) {
 		// set yawZero to gryo angle, offset to currentHeading
-		yawZero = getGyroRaw() - currentHeading;
+		yawZero = Robot.sensors.gyroRaw - currentHeading;
 		// System.err.println("PLZ Never Zero the Gyro Rotation it is not good");
   }
 
@@ -225,7 +255,7 @@ public abstract class DriveTrain extends Subsystem {
 	 * @return Current angle from -180 to 180 degrees
 	 */
 	public double getGyroRotation() {
-		double angle = getGyroRaw() - yawZero;
+		double angle = Robot.sensors.gyroRaw - yawZero;
 		// Angle will be in terms of raw gyro units (-inf,inf), so you need to convert
 		// to (-180, 180]
 		angle = normalizeAngle(angle);
@@ -256,23 +286,19 @@ public abstract class DriveTrain extends Subsystem {
    */
   public void clearEncoderList() {
     Robot.log.writeLogEcho("DriveTrain", "Encoders Cleared", "");
-    lEncoderStack.clear();
-    rEncoderStack.clear();
+    lEncoderStats.clear();
+    rEncoderStats.clear();
     zeroLeftEncoder();  // Theoretically these don't need to be zeroed; the stack just adds their values
     zeroRightEncoder();
   }
 
   /**
-   * Averages the ticks of the left and right encoder and adds them to the encoder stacks.
-   * Also removes the earliest element if above 50 elements.
+   * Adds the ticks of the left and right encoder to the encoder lists.
+   * The lists keep the last 50 readings.
    */
   public void updateEncoderList() {
-    lEncoderStack.add(getLeftEncoderTicks());
-    rEncoderStack.add(getRightEncoderTicks());
-    if (lEncoderStack.size() > 50) {
-      lEncoderStack.remove();
-      rEncoderStack.remove();
-    }
+    lEncoderStats.add(getLeftEncoderTicks());
+    rEncoderStats.add(getRightEncoderTicks());
   }
 
   public double getAverageDistance() {
@@ -285,16 +311,14 @@ public abstract class DriveTrain extends Subsystem {
    * @return true if the difference between the average and the last element is less than the precision specified (this means both encoders are stopped)
    */
   public boolean areEncodersStopped(double precision) {
-    //TODO Should the next line have comparison operators "==" instead of assignment operators "="?
-    if (lEncoderStack.size()<50) return (lEncStopped = false) || (rEncStopped = false); // Sets both to false while returning.
-    double lSum = 0.0, rSum = 0.0;
-    Iterator<Double> lIterator = lEncoderStack.descendingIterator();
-    Iterator<Double> rIterator = rEncoderStack.descendingIterator();
-    while(lIterator.hasNext()) {
-      lSum += lIterator.next();
-      rSum += rIterator.next();
+    if (!lEncoderStats.isFull()) {
+      lEncStopped = false;
+      rEncStopped = false;
+      return false;
     }
-    return ((lEncStopped = Math.abs(lSum/lEncoderStack.size()-lEncoderStack.peekLast()) <= precision) & (rEncStopped = Math.abs(rSum/rEncoderStack.size()-rEncoderStack.peekLast()) <= precision));
+    lEncStopped = Math.abs(lEncoderStats.getMean() - lEncoderStats.getLast()) <= precision;
+    rEncStopped = Math.abs(rEncoderStats.getMean() - rEncoderStats.getLast()) <= precision;
+    return lEncStopped && rEncStopped;
   }
   
   /**
@@ -305,9 +329,9 @@ public abstract class DriveTrain extends Subsystem {
    * @param side true is left, false is right
    */
 	public void verifyMotors(int motor1PDP, int motor2PDP, int motor3PDP, boolean side) {
-      double amps1 = Robot.pdp.getCurrent(motor1PDP);
-      double amps2 = Robot.pdp.getCurrent(motor2PDP);
-      double amps3 = Robot.pdp.getCurrent(motor3PDP);
+      double amps1 = Robot.pdpMonitor.getCurrent(motor1PDP);
+      double amps2 = Robot.pdpMonitor.getCurrent(motor2PDP);
+      double amps3 = Robot.pdpMonitor.getCurrent(motor3PDP);
       double averageAmps = (amps1 + amps2 + amps3) / 3;
 
 		if(leftMotorFaultCount >= 5) {
@@ -333,7 +357,17 @@ public abstract class DriveTrain extends Subsystem {
     * Writes information about the subsystem to the filelog
     * @param logWhenDisabled true will log when disabled, false will discard the string
     */
-  abstract void updateDriveLog(boolean logWhenDisabled);
+  public void updateDriveLog(boolean logWhenDisabled) {
+    fillDriveLogChannels(true);
+    Robot.log.writeChannels(logWhenDisabled, driveLogChannels);
+  }
+
+  /**
+   * Fills in the current record of driveLogChannels (used by the file log and the flight recorder).
+   * Only uses values that were already read this cycle, unless readMotors is true.
+   * @param readMotors true = also read the motor voltages from the motor controllers, false = record NaN for them
+   */
+  abstract void fillDriveLogChannels(boolean readMotors);
 
   /**
    * Gets the predicted scoring quadrant of the robot based on what the gyro currently reads
@@ -577,31 +611,37 @@ public abstract class DriveTrain extends Subsystem {
     return driveDirection;
   }
 
+  /**
+   * Sets the field X position of the robot (see PoseEstimator.resetPose())
+   * @param x inches
+   */
   public void setFieldPositionX(double x) {
-		this.fieldX = x;
-		SmartDashboard.putNumber("FieldX", fieldX);
-	}
-
-	public void setFieldPositionY(double y) {
-		this.fieldY = y;
-		SmartDashboard.putNumber("FieldY", fieldY);
-	}
-
-	public void addFieldPositionX(double x) {
-		setFieldPositionX(fieldX + x);
-	}
+    Pose pose = Robot.poseEstimator.getPose();
+    Robot.poseEstimator.resetPose(x, pose.y, pose.heading);
+  }
 
-	public void addFieldPositionY(double y) {
-		setFieldPositionY(fieldY + y);
-	}
+  /**
+   * Sets the field Y position of the robot (see PoseEstimator.resetPose())
+   * @param y inches
+   */
+  public void setFieldPositionY(double y) {
+    Pose pose = Robot.poseEstimator.getPose();
+    Robot.poseEstimator.resetPose(pose.x, y, pose.heading);
+  }
 
-	public double getFieldPositionX() {
-		return this.fieldX;
-	}
+  /**
+   * @return field X position of the robot from the pose estimator, in inches
+   */
+  public double getFieldPositionX() {
+    return Robot.poseEstimator.getPose().x;
+  }
 
-	public double getFieldPositionY() {
-		return this.fieldY;
-  } 
+  /**
+   * @return field Y position of the robot from the pose estimator, in inches
+   */
+  public double getFieldPositionY() {
+    return Robot.poseEstimator.getPose().y;
+  }
   
   /**
 	 * Get the average position of the two encoders, in inches
@@ -620,7 +660,9 @@ public abstract class DriveTrain extends Subsystem {
   @Override
   public void periodic() {
 
-    // updateDriveLog(false);
+    // Keep every cycle in the flight recorder (without any extra reads from the motor controllers)
+    fillDriveLogChannels(false);
+    Robot.flightRecorder.record(driveLogChannels);
 
     if (Robot.log.getLogRotation() == FileLog.DRIVE_CYCLE) {
       SmartDashboard.putNumber("Drive Left Inches", getLeftEncoderInches());
@@ -630,6 +672,10 @@ public abstract class DriveTrain extends Subsystem {
       SmartDashboard.putNumber("Drive Right Ticks", getRightEncoderTicks());
       SmartDashboard.putNumber("Drive Left Velocity", getLeftEncoderVelocity());
       SmartDashboard.putNumber("Drive Right Velocity", getRightEncoderVelocity());
+      Pose pose = Robot.poseEstimator.getPose();
+      SmartDashboard.putNumber("FieldX", pose.x);
+      SmartDashboard.putNumber("FieldY", pose.y);
+      SmartDashboard.putNumber("Field Heading", pose.heading);
       
       updateDriveLog(false);
 
@@ -15,6 +15,12 @@ import frc.robot.RobotMap;
 import frc.robot.commands.ElevatorWithXBox;
 import frc.robot.utilities.ElevatorProfileGenerator;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.Interlocks;
+import frc.robot.utilities.LogChannels;
+import frc.robot.utilities.MotionMagicController;
+import frc.robot.utilities.MotionProfile;
+import frc.robot.utilities.RobotPreferences;
+import frc.robot.utilities.SensorFrame;
 import frc.robot.utilities.Wait;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
@@ -38,6 +44,8 @@ public class Elevator extends Subsystem {
 	private SensorCollection elevatorLimits;
 
 	private ElevatorProfileGenerator elevatorProfile;
+	private MotionMagicController motionMagic;
+	private double motionMagicTarget;		// Motion Magic target, in inches from the floor
 
 	// private int posMoveCount = 0; // increments every cycle the elevator moves up
 	// private int negMoveCount = 0; // increments every cycle the elevator moves down
@@ -57,6 +65,15 @@ public class Elevator extends Subsystem {
 	private double kMaxOutput = 1.0; // up max output, was 0.8
 	private double kMinOutput = -1.0; // down max output, was -0.6
 
+	// Motion Magic (Talon profile) settings that were last sent to the Talon (the elevatorMM preferences)
+	private double mmCruiseVelocity = Double.NaN, mmAcceleration, mmKV, mmKP;
+
+	// Binary log channels for updateElevatorLog()
+	private final LogChannels logChannels = Robot.log.registerChannels("Elevator", "Update Variables")
+		.addDouble("Volts1").addDouble("Volts2").addDouble("Amps1").addDouble("Amps2")
+		.addDouble("Enc Ticks").addDouble("Enc Inches").addDouble("Elev Target").addDouble("Elev Vel")
+		.addBoolean("Upper Limit").addBoolean("Lower Limit").addBoolean("Enc OK").addBoolean("Elev Mode");
+
 	public Elevator() {
 		elevatorMotor1 = new WPI_TalonSRX(RobotMap.elevatorMotor1);
 		elevatorMotor2 = new WPI_TalonSRX(RobotMap.elevatorMotor2);
@@ -69,6 +86,7 @@ public class Elevator extends Subsystem {
 		elevatorMotor1.configReverseLimitSwitchSource(LimitSwitchSource.FeedbackConnector, LimitSwitchNormal.NormallyOpen);
 
 		elevatorLimits = elevatorMotor1.getSensorCollection();
+		readSensors(Robot.sensors);		// Robot has not captured a sensor frame yet
 		checkAndZeroElevatorEnc();
 
 		elevatorMotor1.config_kP(0, kP);
@@ -80,6 +98,9 @@ public class Elevator extends Subsystem {
 		elevatorMotor1.configPeakOutputForward(kMaxOutput);
 		elevatorMotor1.configPeakOutputReverse(kMinOutput);
 
+		motionMagic = new MotionMagicController.Talon(elevatorMotor1, inchesToEncoderTicks(1.0));
+		configureMotionMagic();
+
 		elevatorMotor1.clearStickyFaults();
 		elevatorMotor2.clearStickyFaults();
 		elevatorMotor1.setNeutralMode(NeutralMode.Brake);
@@ -95,6 +116,7 @@ public class Elevator extends Subsystem {
 		// we don't wait (random weird behavior).
 		// DO NOT GET RID OF THIS WITHOUT TALKING TO DON OR ROB.
 		Wait.waitTime(250);
+		readSensors(Robot.sensors);
 
 		// start the elevator in manual mode unless it is properly zeroed
 		elevCalibrated = (getElevatorLowerLimit() && getElevatorEncTicks() == 0);
@@ -116,27 +138,58 @@ public class Elevator extends Subsystem {
 	}
 
 	/**
-	 * Sets target position for elevator, using motion profile movement.
+	 * Sets target position for elevator, using motion profile movement.  The profile runs on the
+	 * Talon (Motion Magic) if the elevatorMotionMagic preference is set, or on the roboRIO if not.
 	 * This only works when encoder is working and elevator is calibrated and the wrist is not interlocked.
 	 * @param pos in inches from the floor.
 	*/
 	public void setProfileTarget(double pos) {
-		if (elevEncOK && elevCalibrated &&										// Elevator must be calibrated
-			  Robot.wrist.getWristAngle() < Robot.robotPrefs.wristKeepOut &&  	// Wrist must not be stowed
-			  Robot.wrist.getCurrentWristTarget() < Robot.robotPrefs.wristKeepOut && // Wrist must not be moving to stow
-			  ( Robot.wrist.getWristAngle() >= Robot.robotPrefs.wristLowerCrashWhenElevatorLow &&	// wrist must be at least wristLowerCrashWhenElevatorLow
-				Robot.wrist.getCurrentWristTarget() >= Robot.robotPrefs.wristLowerCrashWhenElevatorLow ||
-				pos >= Robot.robotPrefs.groundCargo &&						// Elevator is not going below groundCargo position
-				Robot.wrist.getWristAngle() >= Robot.robotPrefs.wristDown - 3.0 &&	     // wrist must be at least wristDown
-				Robot.wrist.getCurrentWristTarget() >= Robot.robotPrefs.wristDown - 3.0 )
-		 ) {
+		Interlocks.Result interlock = Robot.interlocks.check(Interlocks.Move.ELEVATOR_PROFILE, pos);
+		if (interlock.allowed) {
 			elevPosControl = true;
-			elevatorProfile.setProfileTarget(pos);
-			Robot.log.writeLog("Elevator", "setProfileTarget", "Target," + pos + ",Allowed,Yes,Wrist Angle," +
-			   Robot.wrist.getWristAngle() + ",Wrist Target," + Robot.wrist.getCurrentWristTarget());
+			if (Robot.robotPrefs.elevatorMotionMagic) {
+				elevatorProfile.disableProfileControl();
+				configureMotionMagic();
+				motionMagicTarget = pos;
+				motionMagic.setTarget(pos - Robot.robotPrefs.elevatorBottomToFloor, Robot.robotPrefs.elevatorMMKGravity);
+			} else {
+				elevatorProfile.setProfileTarget(pos);
+			}
+			Robot.interlocks.update();		// Later moves in this cycle see the new target
+		}
+		Robot.log.writeLog("Elevator", "setProfileTarget", "Target," + pos + "," + interlock + "," + Robot.interlocks);
+	}
+
+	/**
+	 * Sends the elevatorMM preferences to the Talon, if they changed since they were last sent
+	 */
+	private void configureMotionMagic() {
+		RobotPreferences prefs = Robot.robotPrefs;
+		if (prefs.elevatorMMCruiseVelocity != mmCruiseVelocity || prefs.elevatorMMAcceleration != mmAcceleration
+				|| prefs.elevatorMMKV != mmKV || prefs.elevatorMMKP != mmKP) {
+			mmCruiseVelocity = prefs.elevatorMMCruiseVelocity;
+			mmAcceleration = prefs.elevatorMMAcceleration;
+			mmKV = prefs.elevatorMMKV;
+			mmKP = prefs.elevatorMMKP;
+			motionMagic.configure(mmCruiseVelocity, mmAcceleration, mmKV, mmKP);
+		}
+	}
+
+	/**
+	 * Creates the profile that setProfileTarget() would follow from the current position and velocity,
+	 * without moving the elevator (ex. to plan a move).  In Motion Magic mode, this is the trapezoid
+	 * that the Talon runs.
+	 * @param pos target in inches from the floor
+	 * @return new profile (distance in inches, + = up)
+	 */
+	public MotionProfile createProfile(double pos) {
+		double distance = pos - getElevatorPos();
+		if (Robot.robotPrefs.elevatorMotionMagic) {
+			RobotPreferences prefs = Robot.robotPrefs;
+			return new MotionProfile(distance, getElevatorVelocity(), prefs.elevatorMMCruiseVelocity, prefs.elevatorMMAcceleration,
+				prefs.elevatorMMAcceleration, 0);
 		} else {
-			Robot.log.writeLog("Elevator", "setProfileTarget", "Target," + pos + ",Allowed,No,Wrist Angle,"  +
- 			  Robot.wrist.getWristAngle() + ",Wrist Target," + Robot.wrist.getCurrentWristTarget());
+			return elevatorProfile.createProfile(distance, getElevatorVelocity());
 		}
 	}
 
@@ -146,23 +199,14 @@ public class Elevator extends Subsystem {
 	 * @param inches target height in inches off the floor
 	 */
 	public void setElevatorPos(double inches) {
-		if (elevEncOK && elevCalibrated &&										// Elevator must be calibrated
-			  Robot.wrist.getWristAngle() < Robot.robotPrefs.wristKeepOut &&  	// Wrist must not be stowed
-			  Robot.wrist.getCurrentWristTarget() < Robot.robotPrefs.wristKeepOut && // Wrist must not be moving to stow
-			  ( Robot.wrist.getWristAngle() >= Robot.robotPrefs.wristStraight - 5.0 &&	// wrist must be at least horizontal
-				Robot.wrist.getCurrentWristTarget() >= Robot.robotPrefs.wristStraight - 5.0 ||
-				inches >= Robot.robotPrefs.groundCargo &&						// Elevator is not going below groundCargo position
-				Robot.wrist.getWristAngle() >= Robot.robotPrefs.wristDown - 3.0 &&	     // wrist must be at least wristDown
-				Robot.wrist.getCurrentWristTarget() >= Robot.robotPrefs.wristDown - 3.0 )
-		 ) {
+		Interlocks.Result interlock = Robot.interlocks.check(Interlocks.Move.ELEVATOR_POSITION, inches);
+		if (interlock.allowed) {
+			elevatorMotor1.selectProfileSlot(0, 0);		// Slot 1 is for Motion Magic
 			elevatorMotor1.set(ControlMode.Position, inchesToEncoderTicks(inches - Robot.robotPrefs.elevatorBottomToFloor));
 			elevPosControl = true;
-			Robot.log.writeLog("Elevator", "Position set", "Target," + inches + ",Allowed,Yes,Wrist Angle," +
-			   Robot.wrist.getWristAngle() + ",Wrist Target," + Robot.wrist.getCurrentWristTarget());
-		} else {
-			Robot.log.writeLog("Elevator", "Position set", "Target," + inches + ",Allowed,No,Wrist Angle,"  +
- 			  Robot.wrist.getWristAngle() + ",Wrist Target," + Robot.wrist.getCurrentWristTarget());
+			Robot.interlocks.update();		// Later moves in this cycle see the new target
 		}
+		Robot.log.writeLog("Elevator", "Position set", "Target," + inches + "," + interlock + "," + Robot.interlocks);
 	}
 
 	/**
@@ -177,7 +221,10 @@ public class Elevator extends Subsystem {
 			if (elevPosControl) {
 				if (elevatorMotor1.getControlMode() == ControlMode.Position) {
 					// Closed loop control using Talon PID
-					return encoderTicksToInches(elevatorMotor1.getClosedLoopTarget(0)) + Robot.robotPrefs.elevatorBottomToFloor;
+					return encoderTicksToInches(Robot.sensors.elevatorClosedLoopTarget) + Robot.robotPrefs.elevatorBottomToFloor;
+				} else if (elevatorMotor1.getControlMode() == ControlMode.MotionMagic) {
+					// Talon motion profile (the closed loop target is only the current step of the profile)
+					return motionMagicTarget;
 				} else {
 					// Motion profile control
 					return elevatorProfile.getFinalPosition();
@@ -208,7 +255,7 @@ public class Elevator extends Subsystem {
 	 * @return Current elevator velocity in in/s, + equals up, - equals down
 	 */
 	public double getElevatorVelocity() {
-		return encoderTicksToInches(elevatorMotor1.getSelectedSensorVelocity(0) * 10.0);
+		return encoderTicksToInches(Robot.sensors.elevatorVelocityRaw * 10.0);
 	}
 
 	/**
@@ -224,12 +271,21 @@ public class Elevator extends Subsystem {
 	public void checkAndZeroElevatorEnc() {
 		if (getElevatorLowerLimit()) {
 			stopElevator();			// Make sure Talon PID loop or motion profile won't move the robot to the last set position when we reset the enocder position
-			elevatorMotor1.setSelectedSensorPosition(0, 0, 0);
+			zeroElevatorEnc();
 			elevCalibrated = true;
 			Robot.log.writeLog("Elevator", "Calibrate and Zero Encoder", "checkAndZeroElevatorEnc");
 		}
 	}
 
+	/**
+	 * Zeros the elevator encoder.  Also zeros the encoder ticks in the sensor frame, so the getters
+	 * see the new position for the rest of this cycle (before the next capture).
+	 */
+	private void zeroElevatorEnc() {
+		elevatorMotor1.setSelectedSensorPosition(0, 0, 0);
+		Robot.sensors.elevatorEncTicks = 0;
+	}
+
 	/**
 	 * Returns if the encoder is calibrated and working
 	 * @return true = working, false = not working
@@ -242,7 +298,19 @@ public class Elevator extends Subsystem {
 	 * @return raw encoder ticks (based on encoder zero being at zero position)
 	 */
 	public double getElevatorEncTicks() {
-		return elevatorMotor1.getSelectedSensorPosition(0);
+		return Robot.sensors.elevatorEncTicks;
+	}
+
+	/**
+	 * Reads the elevator encoder, limit switches, and Talon target into the sensor frame
+	 * @param frame frame to fill in
+	 */
+	public void readSensors(SensorFrame frame) {
+		frame.elevatorEncTicks = elevatorMotor1.getSelectedSensorPosition(0);
+		frame.elevatorVelocityRaw = elevatorMotor1.getSelectedSensorVelocity(0);
+		frame.elevatorClosedLoopTarget = elevatorMotor1.getClosedLoopTarget(0);
+		frame.elevatorUpperLimit = elevatorLimits.isFwdLimitSwitchClosed();
+		frame.elevatorLowerLimit = elevatorLimits.isRevLimitSwitchClosed();
 	}
 
 	/**
@@ -265,22 +333,22 @@ public class Elevator extends Subsystem {
 	 * reads whether the elevator is at the upper limit
 	 */
 	public boolean getElevatorUpperLimit() {
-		return elevatorLimits.isFwdLimitSwitchClosed();
+		return Robot.sensors.elevatorUpperLimit;
 	}
 
 	/**
 	 * reads whether the elevator is at the lower limit
 	 */
 	public boolean getElevatorLowerLimit() {
-		return elevatorLimits.isRevLimitSwitchClosed();
+		return Robot.sensors.elevatorLowerLimit;
 	}
 
 	/**
 	 * Checks elevator motor currents, records sticky faults if a motor is faulty for more than 5 cycles
 	 */
 	public void verifyMotors() {
-		double amps1 = Robot.pdp.getCurrent(RobotMap.elevatorMotor1PDP);
-		double amps2 = Robot.pdp.getCurrent(RobotMap.elevatorMotor2PDP);
+		double amps1 = Robot.pdpMonitor.getCurrent(RobotMap.elevatorMotor1PDP);
+		double amps2 = Robot.pdpMonitor.getCurrent(RobotMap.elevatorMotor2PDP);
 
 		if(motorFaultCount >= 5) {
 			Robot.robotPrefs.recordStickyFaults("Elevator");
@@ -303,13 +371,24 @@ public class Elevator extends Subsystem {
     * @param logWhenDisabled true will log when disabled, false will discard the string
     */
 	public void updateElevatorLog(boolean logWhenDisabled) {
-		Robot.log.writeLog(logWhenDisabled, "Elevator", "Update Variables",
-				"Volts1," + elevatorMotor1.getMotorOutputVoltage() + ",Volts2," + elevatorMotor2.getMotorOutputVoltage() + 
-				",Amps1," + Robot.pdp.getCurrent(RobotMap.elevatorMotor1PDP) + ",Amps2," + Robot.pdp.getCurrent(RobotMap.elevatorMotor2PDP) + 
-				",Enc Ticks," + getElevatorEncTicks() + ",Enc Inches," + getElevatorPos() + 
-				",Elev Target," + getCurrentElevatorTarget() + ",Elev Vel," + getElevatorVelocity() +
-				",Upper Limit," + getElevatorUpperLimit() + ",Lower Limit," + getElevatorLowerLimit() + 
-				",Enc OK," + elevEncOK + ",Elev Mode," + elevCalibrated);
+		fillLogChannels(true);
+		Robot.log.writeChannels(logWhenDisabled, logChannels);
+	}
+
+	/**
+	 * Fills in the current record of logChannels (used by the file log and the flight recorder).
+	 * Only uses values that were already read this cycle, unless readMotors is true.
+	 * @param readMotors true = also read the motor voltages from the Talons, false = record NaN for them
+	 */
+	private void fillLogChannels(boolean readMotors) {
+		logChannels.startRecord()
+			.put(readMotors ? elevatorMotor1.getMotorOutputVoltage() : Double.NaN)
+			.put(readMotors ? elevatorMotor2.getMotorOutputVoltage() : Double.NaN)
+			.put(Robot.pdpMonitor.getCurrent(RobotMap.elevatorMotor1PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.elevatorMotor2PDP))
+			.put(getElevatorEncTicks()).put(getElevatorPos())
+			.put(getCurrentElevatorTarget()).put(getElevatorVelocity())
+			.put(getElevatorUpperLimit()).put(getElevatorLowerLimit())
+			.put(elevEncOK).put(elevCalibrated);
 	}
 
 	@Override
@@ -324,6 +403,10 @@ public class Elevator extends Subsystem {
 	@Override
 	public void periodic() {
 		
+		// Keep every cycle in the flight recorder (without any extra reads from the Talons)
+		fillLogChannels(false);
+		Robot.flightRecorder.record(logChannels);
+
 		// Can some of these be eliminated by competition?
 
 		if (Robot.log.getLogRotation() == FileLog.ELEVATOR_CYCLE) {
@@ -347,7 +430,9 @@ public class Elevator extends Subsystem {
 		// Only set percent power IF the motion profile is enabled.
 		// Note:  If we are using our motion profile control loop, then set the power directly using elevatorMotor1.set().
 		// Do not call setElevatorMotorPercentOutput(), since that will change the elevPosControl to false (manual control).
-		if (elevPosControl && elevatorMotor1.getControlMode() != ControlMode.Position) {
+		// Talon Position and Motion Magic modes don't need anything from the roboRIO each cycle.
+		if (elevPosControl && elevatorMotor1.getControlMode() != ControlMode.Position
+				&& elevatorMotor1.getControlMode() != ControlMode.MotionMagic) {
 			elevatorMotor1.set(ControlMode.PercentOutput, elevatorProfile.trackProfilePeriodic());  
 		}
 
@@ -408,10 +493,14 @@ public class Elevator extends Subsystem {
 
 		// Autocalibrate in the encoder is OK and the elevator is at the lower limit switch
 		if ((!elevCalibrated || Math.abs(getElevatorEncTicks()) > 600) && elevEncOK && getElevatorLowerLimit()) {
+			if (elevCalibrated) {
+				// Encoder drifted (or slipped) while calibrated, so save what led up to it
+				Robot.flightRecorder.dump("Elevator encoder drift");
+			}
 			setDefaultCommand(null);
 			elevCalibrated = true;
 			stopElevator();
-			elevatorMotor1.setSelectedSensorPosition(0, 0, 0);
+			zeroElevatorEnc();
 			Robot.log.writeLog("Elevator", "Calibrate and Zero Encoder", "periodic");
 
 			// posMoveCount = 0;
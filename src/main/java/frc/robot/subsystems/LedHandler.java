@@ -10,6 +10,7 @@ package frc.robot.subsystems;
 import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj.command.Subsystem;
 import frc.robot.RobotMap;
+import frc.robot.utilities.RobotClock;
 
 
 /**
@@ -19,8 +20,9 @@ public class LedHandler extends Subsystem {
   // Put methods for controlling this subsystem
   // here. Call these from Commands.
 
-  private long currentTime = System.currentTimeMillis();
-  private long initialTime = System.currentTimeMillis();
+  private final RobotClock clock = RobotClock.get();
+  private long currentTime = clock.millis();
+  private long initialTime = currentTime;
 
   private Color color = Color.OFF;
   private int blinkWait = 100; // Wait time in ms between blinks
@@ -99,7 +101,7 @@ public class LedHandler extends Subsystem {
   @Override
 	public void periodic() {
     if (isBlink) {
-      currentTime = System.currentTimeMillis();
+      currentTime = clock.millis();
 
       // If it's past the wait time, switch whether the LEDs are on or off
       if (currentTime > initialTime + blinkWait) {
@@ -149,15 +149,15 @@ public class NeoDriveTrain extends DriveTrain {
   }
 
   @Override
-  public void updateDriveLog (boolean logWhenDisabled) {
-    Robot.log.writeLog(logWhenDisabled, "DriveTrain", "Update Variables",
-      "Drive L1 Volts," + leftMotor1.getAppliedOutput() + ",Drive L2 Volts," + leftMotor2.get() + ",Drive L3 Volts," + leftMotor3.getAppliedOutput() +
-      ",Drive L1 Amps," + Robot.pdp.getCurrent(RobotMap.leftMotor1PDP) + ",Drive L2 Amps," + Robot.pdp.getCurrent(RobotMap.leftMotor2PDP) + ",Drive L3 Amps," + Robot.pdp.getCurrent(RobotMap.leftMotor3PDP) + 
-      ",Drive R1 Volts," + rightMotor1.getAppliedOutput() + ",Drive R2 Volts," + rightMotor2.get() + ",Drive R3 Volts," + rightMotor3.getAppliedOutput() + 
-      ",Drive R1 Amps," + Robot.pdp.getCurrent(RobotMap.rightMotor1PDP) + ",Drive R2 Amps," + Robot.pdp.getCurrent(RobotMap.rightMotor2PDP) + ",Drive R3 Amps," + Robot.pdp.getCurrent(RobotMap.rightMotor3PDP) + 
-      ",L Enc Ticks," + getLeftEncoderTicks() + ",L Drive Inches," + getLeftEncoderInches() + ",L Vel," + getLeftEncoderVelocity() +
-      ",R Enc Ticks," + getRightEncoderTicks() + ",R Drive Inches," + getRightEncoderInches() +  ",R Vel," + getRightEncoderVelocity() +
-      ",High Gear," + Robot.shifter.isShifterInHighGear());
+  void fillDriveLogChannels(boolean readMotors) {
+    driveLogChannels.startRecord()
+      .put(readMotors ? leftMotor1.getAppliedOutput() : Double.NaN).put(readMotors ? leftMotor2.get() : Double.NaN).put(readMotors ? leftMotor3.getAppliedOutput() : Double.NaN)
+      .put(Robot.pdpMonitor.getCurrent(RobotMap.leftMotor1PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.leftMotor2PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.leftMotor3PDP))
+      .put(readMotors ? rightMotor1.getAppliedOutput() : Double.NaN).put(readMotors ? rightMotor2.get() : Double.NaN).put(readMotors ? rightMotor3.getAppliedOutput() : Double.NaN)
+      .put(Robot.pdpMonitor.getCurrent(RobotMap.rightMotor1PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.rightMotor2PDP)).put(Robot.pdpMonitor.getCurrent(RobotMap.rightMotor3PDP))
+      .put(getLeftEncoderTicks()).put(getLeftEncoderInches()).put(getLeftEncoderVelocity())
+      .put(getRightEncoderTicks()).put(getRightEncoderInches()).put(getRightEncoderVelocity())
+      .put(Robot.shifter.getShift());
   }
 
 }
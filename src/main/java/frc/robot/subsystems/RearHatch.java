@@ -17,6 +17,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
 import frc.robot.RobotMap;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.Interlocks;
 
 /**
  * Rear hatch intake subsystem.
@@ -62,16 +63,22 @@ public class RearHatch extends Subsystem {
 	 * @param extend true = extended position, false = retracted position
 	 */
   public void setRearHatchPiston(boolean extend) {
-    if (extend && Robot.climb.getClimbAngle() > Robot.robotPrefs.climbPrep - 5) {
+    // Retracting is always allowed
+    Interlocks.Result interlock = extend ? Robot.interlocks.check(Interlocks.Move.REAR_HATCH_EXTEND, 0) : null;
+    if (extend && interlock.allowed) {
       rearHatchPiston.set(true);
       rearHatchPosition = true;
-      Robot.log.writeLog("Rear Hatch", "Piston Position", "Extended");
+      Robot.log.writeLog("Rear Hatch", "Piston Position", "Extended," + interlock + "," + Robot.interlocks);
       SmartDashboard.putString("Rear Hatch Position", "Extended");
       SmartDashboard.putBoolean("Rear Hatch Extended", rearHatchPosition);
 		} else {
       rearHatchPiston.set(false);
       rearHatchPosition = false;
-      Robot.log.writeLog("Rear Hatch", "Piston Position", "Retracted");
+      if (extend) {
+        Robot.log.writeLog("Rear Hatch", "Piston Position", "Retracted (extend refused)," + interlock + "," + Robot.interlocks);
+      } else {
+        Robot.log.writeLog("Rear Hatch", "Piston Position", "Retracted");
+      }
       SmartDashboard.putString("Rear Hatch Position", "Retracted");
       SmartDashboard.putBoolean("Rear Hatch Extended", rearHatchPosition);
     }
@@ -97,7 +104,7 @@ public class RearHatch extends Subsystem {
 		// if (Robot.log.getLogRotation() == FileLog.REARHATCH_CYCLE) {
     //   Robot.log.writeLog(false, "Rear Hatch", "Update Variables", 
     //     "Piston," + (isRearHatchPistonExtended() ? "Extended" : "Retracted") + 
-    //     ",Volt," + rearHatchMotor.getMotorOutputVoltage() + ",Amp," + Robot.pdp.getCurrent(RobotMap.rearHatchMotorPDP));
+    //     ",Volt," + rearHatchMotor.getMotorOutputVoltage() + ",Amp," + Robot.pdpMonitor.getCurrent(RobotMap.rearHatchMotorPDP));
     // }
 
   }
@@ -21,6 +21,7 @@ public class Shifter extends Subsystem {
 
   //private final Solenoid shifter = new Solenoid(RobotMap.pnuematicShifter);
   private final Solenoid shifter = new Solenoid(RobotMap.pnuematicShifterHigh);
+  private boolean highGear = false;   // last gear set by setShift()
 
   public Shifter() {
 		super();
@@ -34,6 +35,7 @@ public class Shifter extends Subsystem {
 	 */
 	public void setShift(boolean high) {
 		shifter.set(high); // shifter true is high gear, shifter false is low gear
+		highGear = high;
 		//shifter.set(high ? Value.kForward : Value.kReverse); // shifter Forward is high gear, shifter Reverse is low gear
 	}
 
@@ -47,6 +49,15 @@ public class Shifter extends Subsystem {
 		//return shifter.get() == Value.kForward; // get() Forward is high gear, get() Reverse is low gear
 	}
 
+	/**
+	 * Returns the gear that was last set by setShift(), without reading the solenoid
+	 * 
+	 * @return true for high gear, false for low
+	 */
+	public boolean getShift() {
+		return highGear;
+	}
+
   @Override
   public void initDefaultCommand() {
     // Set the default command for a subsystem here.
@@ -12,6 +12,11 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import frc.robot.Robot;
 import frc.robot.RobotMap;
 import frc.robot.utilities.FileLog;
+import frc.robot.utilities.Interlocks;
+import frc.robot.utilities.LogChannels;
+import frc.robot.utilities.MotionProfile;
+import frc.robot.utilities.RobotClock;
+import frc.robot.utilities.SensorFrame;
 import frc.robot.utilities.Wait;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
@@ -51,6 +56,31 @@ public class Wrist extends Subsystem {
   private double kMinOutput = -0.6; // down max output
   private double rampRate = 0.3;
 
+  // Profile mode (wristProfile preference).  The Talon follows the profile angle with the PID above, and the
+  // feed forward (updated every cycle in periodic()) holds the wrist up against gravity and pushes it along the profile.
+  // The profile limits are the wristProfileVelocity and wristProfileAcceleration preferences.  In Position mode, they are
+  // only an estimate of how the wrist moves, for planning moves with the elevator, so set them from the slope of
+  // "Wrist Angle" in the Wrist log during a full stow-to-down move (ElevatorWristPlannerCheck shows the effect on planning).
+  // The feed forward gains are the wristKGravity and wristKV preferences:
+  //   wristKGravity = percent output to hold the wrist up when horizontal (feed forward is wristKGravity * cos(angle)).
+  //     Defaults to kFFconst, the constant feed forward that Position mode already uses.  To measure it, hold the wrist
+  //     at 0 degrees in manual mode and use "Volts" / 12 from the Wrist log.
+  //   wristKV = percent output per degree per second of profile velocity.  Defaults to 0 (the PID does the tracking).
+  //     To measure it, move the wrist at a steady speed through horizontal in manual mode, and use
+  //     (percent output - wristKGravity) / speed, with the speed from the slope of "Wrist Angle" in the Wrist log.
+  // The peak output in profile mode is kMaxOutput plus room for the gravity feed forward.
+  private final RobotClock clock = RobotClock.get();
+  private boolean profileEnabled = false;
+  private MotionProfile profile;
+  private double profileStartAngle, profileTarget;    // degrees
+  private long profileStartTime;                      // nanoseconds (RobotClock)
+
+  // Binary log channels for updateWristLog()
+  private final LogChannels logChannels = Robot.log.registerChannels("Wrist", "Update Variables")
+    .addDouble("Volts").addDouble("Amps").addDouble("WristCalZero")
+    .addDouble("Enc Raw").addDouble("Wrist Angle").addDouble("Wrist Target")
+    .addBoolean("Upper Limit").addBoolean("Lower Limit");
+
   public Wrist() {
     wristMotor.set(ControlMode.PercentOutput, 0);
     wristMotor.setInverted(true);
@@ -71,8 +101,13 @@ public class Wrist extends Subsystem {
     wristMotor.config_IntegralZone(0, (int)degreesToEncoderTicks(kIz));
     wristMotor.configMaxIntegralAccumulator(0, kIAccumMax);
 		wristMotor.configClosedloopRamp(rampRate);
-		wristMotor.configPeakOutputForward(kMaxOutput);
-    wristMotor.configPeakOutputReverse(kMinOutput);
+    if (Robot.robotPrefs.wristProfile) {
+      wristMotor.configPeakOutputForward(kMaxOutput + Robot.robotPrefs.wristKGravity);
+      wristMotor.configPeakOutputReverse(kMinOutput - Robot.robotPrefs.wristKGravity);
+    } else {
+      wristMotor.configPeakOutputForward(kMaxOutput);
+      wristMotor.configPeakOutputReverse(kMinOutput);
+    }
     
     wristLimits = wristMotor.getSensorCollection();
 
@@ -82,6 +117,7 @@ public class Wrist extends Subsystem {
     // we don't wait (random weird behavior).
     // DO NOT GET RID OF THIS WITHOUT TALKING TO DON OR ROB.
     Wait.waitTime(250);
+    readSensors(Robot.sensors);     // Robot has not captured a sensor frame yet
     adjustWristCalZero();
   }
 
@@ -96,6 +132,7 @@ public class Wrist extends Subsystem {
     if (Robot.log.getLogLevel() == 1) {
       Robot.log.writeLog("Wrist" , "Percent Output", "Percent Output," + percentOutput);
     }
+    profileEnabled = false;
     wristMotor.set(ControlMode.PercentOutput, percentOutput);
   }
 
@@ -110,39 +147,66 @@ public class Wrist extends Subsystem {
    * Only works when encoder is working and calibrated
    * If setting to greater than wristKeepOut, elevator position must be at the bottom
    * and target must be at the bottom.
+   * If the wristProfile preference is set, the wrist moves along a trapezoidal profile to the angle.
    * @param angle target angle, in degrees (0 = horizontal in front of robot, + = up, - = down)
    */
   public void setWristAngle(double angle) {
-    if (Robot.robotPrefs.wristCalibrated) {
-      // Don't move wrist in or out of KeepOut if climber > climbWristMovingSafe or elevator > elevatorWristSafeStow.
-      if ( (Robot.climb.getClimbAngle() > Robot.robotPrefs.climbWristMovingSafe ||              // Climber is not safe
-            Robot.elevator.getElevatorPos() > Robot.robotPrefs.elevatorWristSafeStow ||         // Elevator is not safe
-            Robot.elevator.getCurrentElevatorTarget() > Robot.robotPrefs.elevatorWristSafeStow) // Elevator is moving to not safe
-            && (angle > Robot.robotPrefs.wristKeepOut || getWristAngle() > Robot.robotPrefs.wristKeepOut)) {  // We are moving in or out of KeepOut region
-        Robot.log.writeLog("Wrist", "Set angle", "Angle," + angle + ",Set angle,N/A,Interlock,Forbidden," +
-          ",Climb Angle," + Robot.climb.getClimbAngle() + ",Elevator Position," + Robot.elevator.getElevatorPos() + 
-          ",Elevator Target," + Robot.elevator.getCurrentElevatorTarget() + ",Wrist Angle," + getWristAngle());
-        return;
+    // Interlocks:  Don't move wrist in or out of KeepOut if climber > climbWristMovingSafe or elevator > elevatorWristSafeStow,
+    // and don't move the wrist below wristVision if the elevator is low (or below wristDown otherwise).
+    Interlocks.Result interlock = Robot.interlocks.check(Interlocks.Move.WRIST, angle);
+    if (interlock.allowed) {
+      double safeAngle = interlock.target;
+      if (Robot.robotPrefs.wristProfile) {
+        // Start the profile at the current profile velocity, in case the wrist is already moving
+        long now = clock.nanos();
+        double velocity = profileEnabled ? profile.getVelocity((now - profileStartTime) / 1e9) : 0;
+        profileStartAngle = profileEnabled ? getProfileAngle() : getWristAngle();
+        profileTarget = safeAngle;
+        profile = new MotionProfile(safeAngle - profileStartAngle, velocity, Robot.robotPrefs.wristProfileVelocity,
+          Robot.robotPrefs.wristProfileAcceleration, Robot.robotPrefs.wristProfileAcceleration, 0);
+        profileStartTime = now;
+        profileEnabled = true;
+        trackProfile();
+      } else {
+        wristMotor.set(ControlMode.Position, degreesToEncoderTicks(safeAngle) + Robot.robotPrefs.wristCalZero, 
+                       DemandType.ArbitraryFeedForward, kFFconst);
       }
+      Robot.interlocks.update();    // Later moves in this cycle see the new target
+      Robot.log.writeLog("Wrist", "Set angle", "Desired angle," + angle + ",Set angle," + safeAngle +
+        (profileEnabled ? ",Profile time," + profile.getTotalTime() : "") + "," + interlock + "," + Robot.interlocks);
+    } else {
+      Robot.log.writeLog("Wrist", "Set angle", "Desired angle," + angle + ",Set angle,N/A," + interlock + "," + Robot.interlocks);
+    }
+  }
 
-      double safeAngle = angle;
+  /**
+   * @return angle that the current profile is at now, in degrees
+   */
+  private double getProfileAngle() {
+    return profileStartAngle + profile.getPosition((clock.nanos() - profileStartTime) / 1e9);
+  }
 
-      // Apply interlocks if elevator is low
-      if (Robot.elevator.getElevatorPos() < Robot.robotPrefs.groundCargo - 2.0 || Robot.elevator.getCurrentElevatorTarget() < Robot.robotPrefs.groundCargo -2.0) {
-        // Elevator is very low or is going very low
-        // Wrist can not be below vision level
-        safeAngle = (safeAngle < Robot.robotPrefs.wristVision) ? Robot.robotPrefs.wristVision : safeAngle;
-      } else {
-        // Wrist is safe to move as far down as wristDown
-        safeAngle = (safeAngle < Robot.robotPrefs.wristDown) ? Robot.robotPrefs.wristDown : safeAngle;
-      }
+  /**
+   * Sends the Talon the current profile angle, with feed forward for gravity (at the actual angle)
+   * and for the profile velocity.  Called every cycle while a profile is running.
+   */
+  private void trackProfile() {
+    double time = (clock.nanos() - profileStartTime) / 1e9;
+    double feedForward = Robot.robotPrefs.wristKGravity * Math.cos(Math.toRadians(getWristAngle())) +
+      Robot.robotPrefs.wristKV * profile.getVelocity(time);
+    wristMotor.set(ControlMode.Position, degreesToEncoderTicks(getProfileAngle()) + Robot.robotPrefs.wristCalZero,
+                   DemandType.ArbitraryFeedForward, feedForward);
+  }
 
-      // wristMotor.set(ControlMode.Position, degreesToEncoderTicks(safeAngle) + Robot.robotPrefs.wristCalZero);
-      wristMotor.set(ControlMode.Position, degreesToEncoderTicks(safeAngle) + Robot.robotPrefs.wristCalZero, 
-                     DemandType.ArbitraryFeedForward, kFFconst);
-      Robot.log.writeLog("Wrist", "Set angle", "Desired angle," + angle + ",Set angle," + safeAngle + ",Interlock,Allowed,"
-       + ",Elevator Pos," + Robot.elevator.getElevatorPos() + ",Elevator Target," + Robot.elevator.getCurrentElevatorTarget());  
-    }
+  /**
+   * Creates the profile that setWristAngle() would follow from the current angle to the target (or, in
+   * Position mode, an estimate of how the wrist moves), without moving the wrist (ex. to plan a move with the elevator)
+   * @param angle target angle, in degrees
+   * @return new profile (distance in degrees, + = up)
+   */
+  public MotionProfile createProfile(double angle) {
+    return new MotionProfile(angle - getWristAngle(), 0, Robot.robotPrefs.wristProfileVelocity,
+      Robot.robotPrefs.wristProfileAcceleration, Robot.robotPrefs.wristProfileAcceleration, 0);
   }
 
   /**
@@ -181,7 +245,7 @@ public class Wrist extends Subsystem {
    * @return true if wrist is at lower limit, false if not
    */
   public boolean getWristLowerLimit() {
-    return wristLimits.isRevLimitSwitchClosed();
+    return Robot.sensors.wristLowerLimit;
   }
 
   /**
@@ -189,7 +253,7 @@ public class Wrist extends Subsystem {
    * @return true if wrist is at upper limit, false if not
    */
   public boolean getWristUpperLimit() {
-    return wristLimits.isFwdLimitSwitchClosed();
+    return Robot.sensors.wristUpperLimit;
   }
 
   /**
@@ -197,10 +261,11 @@ public class Wrist extends Subsystem {
    * @return raw encoder ticks (based on encoder zero being at horizontal position)
    */
   public double getWristEncoderTicks() {
-    if(Robot.log.getLogLevel() == 1){
-      Robot.log.writeLog("Wrist", "Wrist Encoder Ticks", "Wrist Encoder Ticks," + (getWristEncoderTicksRaw() - Robot.robotPrefs.wristCalZero));
+    double ticks = getWristEncoderTicksRaw() - Robot.robotPrefs.wristCalZero;
+    if (Robot.log.getLogLevel("Wrist") <= 1) {
+      Robot.log.writeLog(1, "Wrist", "Wrist Encoder Ticks", () -> "Wrist Encoder Ticks," + ticks);
     }
-    return getWristEncoderTicksRaw() - Robot.robotPrefs.wristCalZero;
+    return ticks;
   }
 
   /**
@@ -208,7 +273,18 @@ public class Wrist extends Subsystem {
    * @return raw encoder ticks, adjusted direction (positive is towards stowed, negative is towards lower hard stop)
    */
   public double getWristEncoderTicksRaw() {
-    return wristMotor.getSelectedSensorPosition(0);
+    return Robot.sensors.wristEncTicksRaw;
+  }
+
+  /**
+   * Reads the wrist encoder, limit switches, and Talon target into the sensor frame
+   * @param frame frame to fill in
+   */
+  public void readSensors(SensorFrame frame) {
+    frame.wristEncTicksRaw = wristMotor.getSelectedSensorPosition(0);
+    frame.wristClosedLoopTarget = wristMotor.getClosedLoopTarget(0);
+    frame.wristUpperLimit = wristLimits.isFwdLimitSwitchClosed();
+    frame.wristLowerLimit = wristLimits.isRevLimitSwitchClosed();
   }
 
   /**
@@ -234,10 +310,11 @@ public class Wrist extends Subsystem {
    * @return current encoder ticks (based on zero) converted to degrees
    */
   private double getWristEncoderDegrees() {
-    if(Robot.log.getLogLevel() == 1){
-      Robot.log.writeLog("Wrist", "Wrist Encoder Degrees", "Wrist Encoder Degrees," + encoderTicksToDegrees(getWristEncoderTicks()));
+    double degrees = encoderTicksToDegrees(getWristEncoderTicks());
+    if (Robot.log.getLogLevel("Wrist") <= 1) {
+      Robot.log.writeLog(1, "Wrist", "Wrist Encoder Degrees", () -> "Wrist Encoder Degrees," + degrees);
     }
-    return encoderTicksToDegrees(getWristEncoderTicks());
+    return degrees;
   }
 
   /**
@@ -256,14 +333,11 @@ public class Wrist extends Subsystem {
 	 */
   public double getWristAngle() {
     if (Robot.robotPrefs.wristCalibrated) {
-      double wristAngle = getWristEncoderDegrees();
-      wristAngle = wristAngle % 360; // If encoder wraps around 360 degrees
-      wristAngle = (wristAngle > 180) ? wristAngle - 360 : wristAngle; // Change range to -180 to +180
-      // wristAngle = (wristAngle <= -180) ? wristAngle + 360 : wristAngle; // Change range to -180 to +180  THIS LINE OF CODE DOESN'T WORK!!!!
-      if (Robot.log.getLogLevel() == 1){
-        Robot.log.writeLog("Wrist", "Get Wrist Angle", "Wrist Angle," + wristAngle);
+      final double angle = wrapAngle(getWristEncoderDegrees());
+      if (Robot.log.getLogLevel("Wrist") <= 1) {
+        Robot.log.writeLog(1, "Wrist", "Get Wrist Angle", () -> "Wrist Angle," + angle);
       }
-      return wristAngle;
+      return angle;
     } else {
       // Wrist is not calibrated.  Assume we are at max angle in keepout region to engage all interlocks,
       // since we really don't know where the wrist is at.
@@ -271,6 +345,28 @@ public class Wrist extends Subsystem {
     }
   }
 
+  /**
+   * Same as getWristAngle(), but without writing to the file log (for the log records themselves)
+   * @return current degree of wrist angle
+   */
+  private double calcWristAngle() {
+    if (Robot.robotPrefs.wristCalibrated) {
+      return wrapAngle(encoderTicksToDegrees(getWristEncoderTicksRaw() - Robot.robotPrefs.wristCalZero));
+    } else {
+      return Robot.robotPrefs.wristMax;
+    }
+  }
+
+  /**
+   * @param angle angle in degrees
+   * @return angle changed to the range -180 to +180 (in case the encoder wraps around 360 degrees)
+   */
+  private static double wrapAngle(double angle) {
+    angle = angle % 360; // If encoder wraps around 360 degrees
+    return (angle > 180) ? angle - 360 : angle; // Change range to -180 to +180
+    // angle = (angle <= -180) ? angle + 360 : angle; // Change range to -180 to +180  THIS LINE OF CODE DOESN'T WORK!!!!
+  }
+
   /**
 	 * Returns the angle that wrist is trying to move to in degrees.
 	 * If the wrist is not calibrated, then returns wristMax in keepout region to engage all interlocks,
@@ -279,24 +375,33 @@ public class Wrist extends Subsystem {
 	 * @return desired degree of wrist angle
 	 */
   public double getCurrentWristTarget() {
+    final double target = calcWristTarget();
+    if (Robot.robotPrefs.wristCalibrated && Robot.log.getLogLevel("Wrist") <= 1) {
+      Robot.log.writeLog(1, "Wrist", "Wrist Target", () -> "Wrist Target," + target);
+    }
+    return target;
+  }
+
+  /**
+   * Same as getCurrentWristTarget(), but without writing to the file log (for the log records themselves)
+   * @return desired degree of wrist angle
+   */
+  private double calcWristTarget() {
     double currentTarget;
 
     if (Robot.robotPrefs.wristCalibrated) {
-      if (wristMotor.getControlMode() == ControlMode.Position) {
-        currentTarget = encoderTicksToDegrees(wristMotor.getClosedLoopTarget(0) - Robot.robotPrefs.wristCalZero);
+      if (profileEnabled) {
+        // Wrist profile (the closed loop target is only the current step of the profile)
+        currentTarget = profileTarget;
+      } else if (wristMotor.getControlMode() == ControlMode.Position) {
+        currentTarget = encoderTicksToDegrees(Robot.sensors.wristClosedLoopTarget - Robot.robotPrefs.wristCalZero);
       } else {
         // If we are not in position control mode, then we aren't moving towards a target (and the target
         // angle may be undefined).  So, get the actual wrist angle instead.
-        currentTarget = getWristAngle();
+        currentTarget = calcWristAngle();
       }
 
-      currentTarget = currentTarget % 360; // If encoder wraps around 360 degrees
-      currentTarget = (currentTarget > 180) ? currentTarget - 360 : currentTarget; // Change range to -180 to +180
-
-      if(Robot.log.getLogLevel() == 1){
-        Robot.log.writeLog("Wrist", "Wrist Target", "Wrist Target," + currentTarget);
-      }
-      return currentTarget;
+      return wrapAngle(currentTarget);
     } else {
       // Wrist is not calibrated.  Assume we are at max angle in keepout region to engage all interlocks,
       // since we really don't know where the wrist is at.
@@ -317,12 +422,21 @@ public class Wrist extends Subsystem {
    * @param logWhenDisabled true will log when disabled, false will discard the string
    */
   public void updateWristLog(boolean logWhenDisabled) {
-    Robot.log.writeLog(logWhenDisabled, "Wrist", "Update Variables",
-        "Volts," + wristMotor.getMotorOutputVoltage() + ",Amps," + Robot.pdp.getCurrent(RobotMap.wristMotorPDP) +
-        ",WristCalZero," + Robot.robotPrefs.wristCalZero + 
-        ",Enc Raw," + getWristEncoderTicksRaw() + ",Wrist Angle," + getWristAngle() + ",Wrist Target," + getCurrentWristTarget() +
-        ",Upper Limit," + getWristUpperLimit() + ",Lower Limit," + getWristLowerLimit()
-        );
+    fillLogChannels(true);
+    Robot.log.writeChannels(logWhenDisabled, logChannels);
+  }
+
+  /**
+   * Fills in the current record of logChannels (used by the file log and the flight recorder).
+   * Only uses values that were already read this cycle, unless readMotor is true.
+   * @param readMotor true = also read the motor voltage from the Talon, false = record NaN for it
+   */
+  private void fillLogChannels(boolean readMotor) {
+    logChannels.startRecord()
+      .put(readMotor ? wristMotor.getMotorOutputVoltage() : Double.NaN).put(Robot.pdpMonitor.getCurrent(RobotMap.wristMotorPDP))
+      .put(Robot.robotPrefs.wristCalZero)
+      .put(getWristEncoderTicksRaw()).put(calcWristAngle()).put(calcWristTarget())
+      .put(getWristUpperLimit()).put(getWristLowerLimit());
   }
 
   @Override
@@ -336,6 +450,15 @@ public class Wrist extends Subsystem {
   @Override
   public void periodic() {
 
+    // Move the wrist along the profile (the Talon runs the PID, but gravity changes with the angle)
+    if (profileEnabled) {
+      trackProfile();
+    }
+
+    // Keep every cycle in the flight recorder (without any extra reads from the Talon)
+    fillLogChannels(false);
+    Robot.flightRecorder.record(logChannels);
+
     if (Robot.log.getLogRotation() == FileLog.WRIST_CYCLE) {
       SmartDashboard.putBoolean("Wrist calibrated", Robot.robotPrefs.wristCalibrated);
       SmartDashboard.putNumber("Wrist Angle", getWristAngle());
@@ -362,7 +485,11 @@ public class Wrist extends Subsystem {
     // Un-calibrates the wrist if the angle is outside of bounds
     // TODO change low back to - 10.0
     if (getWristAngle() > Robot.robotPrefs.wristMax + 5.0 || getWristAngle() < Robot.robotPrefs.wristMin - 15.0) {
-     Robot.robotPrefs.setWristUncalibrated();
+      if (Robot.robotPrefs.wristCalibrated) {
+        // Encoder jumped or slipped, so save what led up to it
+        Robot.flightRecorder.dump("Wrist angle out of bounds");
+      }
+      Robot.robotPrefs.setWristUncalibrated();
       updateWristLog(true);
     }
 
@@ -0,0 +1,163 @@
+package frc.robot.utilities;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Converts a binary log file written by FileLog.writeChannels() back to CSV lines,
+ * in the same format that FileLog.writeLog() uses:
+ * <pre>
+ * date time,Subsystem,Event,Channel1,value1,Channel2,value2,...
+ * </pre>
+ * Run on a laptop (not the robot):
+ * <pre>
+ * java -cp robot.jar frc.robot.utilities.BinaryLogDecoder logfile.ver.date.time.bin [output.csv]
+ * </pre>
+ * Files compressed by LogMaintenance (.bin.gz) are also read.
+ * If the output file is not given, ".bin" (or ".bin.gz") is replaced with ".data.csv".
+ */
+public class BinaryLogDecoder {
+
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+	private final HashMap<Integer, LogChannels> schemas = new HashMap<Integer, LogChannels>();
+	private final StringBuilder lineBuilder = new StringBuilder(1024);
+
+	/**
+	 * Opens a binary log file for decode()
+	 * @param binFileName name of the binary log file (.bin, or .bin.gz if it was compressed)
+	 */
+	public static DataInputStream open(String binFileName) throws IOException {
+		InputStream in = new BufferedInputStream(new FileInputStream(binFileName));
+		if (binFileName.endsWith(".gz")) {
+			try {
+				in = new BufferedInputStream(new GZIPInputStream(in, 65536));
+			} catch (IOException exception) {
+				in.close();
+				throw exception;
+			}
+		}
+		return new DataInputStream(in);
+	}
+
+	/**
+	 * Decodes a binary log file to a CSV file
+	 * @param binFileName name of the binary log file (.bin or .bin.gz)
+	 * @param csvFileName name of the CSV file to create
+	 * @return number of records decoded
+	 */
+	public int decode(String binFileName, String csvFileName) throws IOException {
+		try (DataInputStream in = open(binFileName);
+				Writer out = new BufferedWriter(new FileWriter(csvFileName))) {
+			return decode(in, out);
+		}
+	}
+
+	/**
+	 * Decodes a binary log stream to CSV lines.  Stops at the end of the stream, or at a
+	 * partly written record at the end of the file (ex. the robot lost power).
+	 * @param in binary log stream
+	 * @param out destination for the CSV lines
+	 * @return number of records decoded
+	 */
+	public int decode(DataInputStream in, Writer out) throws IOException {
+		int records = 0;
+		schemas.clear();
+
+		try {
+			while (true) {
+				byte tag = in.readByte();
+				if (tag == FileLog.BIN_HEADER) {
+					int version = in.readInt();
+					long openTime = in.readLong();
+					if (version != FileLog.BIN_VERSION) {
+						System.out.println("BinaryLogDecoder: unknown file version " + version);
+						break;
+					}
+					// Schemas are written again after each header, since the writer may have restarted
+					schemas.clear();
+					out.write("----------------------------\n");
+					out.write(dateFormat.format(openTime) + ",FileLog,Open Binary,Version," + version + "\n");
+				} else if (tag == FileLog.BIN_SCHEMA) {
+					int id = in.readShort();
+					LogChannels channels = new LogChannels(id, in.readUTF(), in.readUTF());
+					int count = in.readShort();
+					for (int i = 0; i < count; i++) {
+						byte type = in.readByte();
+						String name = in.readUTF();
+						if (type == LogChannels.TYPE_BOOLEAN) {
+							channels.addBoolean(name);
+						} else {
+							channels.addDouble(name);
+						}
+					}
+					schemas.put(id, channels);
+				} else if (tag == FileLog.BIN_DATA) {
+					int id = in.readShort();
+					long time = in.readLong();
+					LogChannels channels = schemas.get(id);
+					if (channels == null) {
+						System.out.println("BinaryLogDecoder: record for unknown channel set " + id + ", stopping");
+						break;
+					}
+
+					lineBuilder.setLength(0);
+					lineBuilder.append(dateFormat.format(time)).append(',').append(channels.getSubsystem())
+						.append(',').append(channels.getEvent());
+					for (int i = 0; i < channels.getChannelCount(); i++) {
+						lineBuilder.append(',').append(channels.getChannelName(i)).append(',');
+						if (channels.getChannelType(i) == LogChannels.TYPE_BOOLEAN) {
+							lineBuilder.append(in.readByte() != 0);
+						} else {
+							lineBuilder.append(in.readDouble());
+						}
+					}
+					lineBuilder.append('\n');
+					out.append(lineBuilder);
+					records++;
+				} else {
+					System.out.println("BinaryLogDecoder: bad record tag " + tag + ", stopping");
+					break;
+				}
+			}
+		} catch (EOFException exception) {
+			// End of file (or a partial record at the end of the file)
+		}
+		return records;
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: BinaryLogDecoder <logfile.bin | logfile.bin.gz> [output.csv]");
+			return;
+		}
+
+		String binFileName = args[0];
+		String csvFileName;
+		if (args.length >= 2) {
+			csvFileName = args[1];
+		} else if (binFileName.endsWith(".bin")) {
+			csvFileName = binFileName.substring(0, binFileName.length() - 4) + ".data.csv";
+		} else if (binFileName.endsWith(".bin.gz")) {
+			csvFileName = binFileName.substring(0, binFileName.length() - 7) + ".data.csv";
+		} else {
+			csvFileName = binFileName + ".data.csv";
+		}
+
+		try {
+			int records = new BinaryLogDecoder().decode(binFileName, csvFileName);
+			System.out.println("Wrote " + records + " records to " + csvFileName);
+		} catch (IOException exception) {
+			System.out.println("Could not decode " + binFileName + ": " + exception);
+		}
+	}
+}
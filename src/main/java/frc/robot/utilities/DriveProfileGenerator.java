@@ -33,7 +33,8 @@ public class DriveProfileGenerator {
 		
 	private double directionSign;  // +1 if finalPoistion>InitialPosition, -1 if not
 	
-	private long startTime, currentTime;
+	private final RobotClock clock;
+	private long startTime, currentTime;		// in nanoseconds (RobotClock)
 
 	/**
 	 * Creates a new profile generator, starting now
@@ -45,6 +46,21 @@ public class DriveProfileGenerator {
 	 */
 	public DriveProfileGenerator(double initialPosition, double finalPosition, double initialVelocity, 
 			double maxVelocity, double maxAcceleration) {
+		this(initialPosition, finalPosition, initialVelocity, maxVelocity, maxAcceleration, RobotClock.get());
+	}
+
+	/**
+	 * Creates a new profile generator, starting now
+	 * @param initialPosition in inches
+	 * @param finalPosition in inches
+	 * @param initialVelocity in inches per second
+	 * @param maxVelocity in inches per second
+	 * @param maxAcceleration in inches per second^2
+	 * @param clock clock to time the profile with (ex. a VirtualClock to run faster than real time)
+	 */
+	public DriveProfileGenerator(double initialPosition, double finalPosition, double initialVelocity, 
+			double maxVelocity, double maxAcceleration, RobotClock clock) {
+		this.clock = clock;
 		this.initialPosition = initialPosition;
 		this.finalPosition = finalPosition;
 		
@@ -58,7 +74,7 @@ public class DriveProfileGenerator {
 		this.maxAcceleration = maxAcceleration;
 		
 		// Save starting time
-		startTime = System.currentTimeMillis();
+		startTime = clock.nanos();
 		currentTime = startTime;
 		
 		stoppingDistance = 0;
@@ -73,8 +89,8 @@ public class DriveProfileGenerator {
 	 * Also calculates velocity in in/s
 	 */
 	public void updateProfileCalcs(){
-		long tempTime = System.currentTimeMillis();
-		dt = ((double)(tempTime - currentTime))/1000.0;
+		long tempTime = clock.nanos();
+		dt = (tempTime - currentTime)/1e9;
 		currentTime = tempTime;		
 		double stoppingVelocity = currentVelocity + dt*maxAcceleration; 
 		stoppingDistance = 0.5*stoppingVelocity*stoppingVelocity/maxAcceleration;
@@ -110,7 +126,7 @@ public class DriveProfileGenerator {
 	 * @return
 	 */
 	public double getTimeSinceProfileStart() {
-		return ((double)(currentTime - startTime))/1000.0;
+		return (currentTime - startTime)/1e9;
 	}
 	
 	/**
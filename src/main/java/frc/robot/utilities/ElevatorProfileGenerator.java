@@ -4,29 +4,39 @@ import frc.robot.Robot;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
+/**
+ * Moves the elevator along a MotionProfile, using feed forward from the profile velocity and
+ * acceleration plus PID feedback on the position error.
+ * <p>
+ * The profile is solved once in setProfileTarget(), then each cycle evaluates it at the time since the
+ * start of the profile, so the target position does not drift when the robot loop runs late.
+ */
 public class ElevatorProfileGenerator {
 
 	private boolean profileEnabled = false;
 
-	private double currentMPDistance; // Distance that should have been travelled in current motion profile (always positive)
-	private double targetMPDistance; // Total distance to be travelled in current motion profile (always positive)
+	private MotionProfile profile = new MotionProfile(0, 0, 1, 1, 1, 0);	// Current motion profile (starts stopped)
+
+	private double currentMPDistance; // Distance that should have been travelled in current motion profile (+ = up)
+	private double targetMPDistance; // Total distance to be travelled in current motion profile (+ = up)
 
 	private double initialPosition; // Initial position in inches from the floor
 	private double finalPosition; // Final position in inches from the floor
 
 	private double maxVelocity = 50;
-	private double currentMPVelocity;
+	private double currentMPVelocity;	// in/s, + = up
 
 	private double maxAcceleration = 100;
 	private double stoppingAcceleration = .5 * maxAcceleration;
-	private double currentMPAcceleration;
-	private boolean approachingTarget = false;		// true = decelerating towards target;  false = not close enough to start decelerating
+	private double maxJerk = 0;			// in/s^3, 0 = trapezoidal profile (see setMaxJerk())
+	private double currentMPAcceleration;	// in/s^2, + = up
 
 	private double dt; // delta T (time)
 
 	private double directionSign; // +1 if finalPosition > InitialPosition, -1 if not
 
-	private long startTime, lastTime;
+	private final RobotClock clock;
+	private long startTime, lastTime;		// in nanoseconds (RobotClock)
 
 	private double prevError, error, intError;
 
@@ -44,14 +54,47 @@ public class ElevatorProfileGenerator {
 	private double kPd = 0.15;	// was 0.05
 	private double kId = 0;
 	private double kDd = 0;
+
+	// Binary log channels for updateElevatorProfileLog()
+	private final LogChannels logChannels = Robot.log.registerChannels("ElevatorProfile", "updateCalc")
+		.addDouble("MP Pos").addDouble("ActualPos").addDouble("TargetPos").addDouble("Time since start").addDouble("dt")
+		.addDouble("ActualVel").addDouble("MP Vel").addDouble("MP Accel").addDouble("PowerFF").addDouble("PowerFB");
 	
 	/**
 	 * Creates a new profile generator but keeps it in disabled mode
 	 */
 	public ElevatorProfileGenerator() {
+		this(RobotClock.get());
+	}
+
+	/**
+	 * Creates a new profile generator but keeps it in disabled mode
+	 * @param clock clock to time profiles with (ex. a VirtualClock to run faster than real time)
+	 */
+	public ElevatorProfileGenerator(RobotClock clock) {
+		this.clock = clock;
 		disableProfileControl();
 	}
 
+	/**
+	 * Sets the jerk limit for new profiles (the current profile is not changed).  Limiting the jerk
+	 * gives an S-curve profile, which starts and stops the elevator more smoothly.
+	 * @param jerk max change in acceleration, in in/s^3, or 0 for a trapezoidal profile
+	 */
+	public void setMaxJerk(double jerk) {
+		maxJerk = Math.max(0, jerk);
+	}
+
+	/**
+	 * Creates a profile with this generator's limits, without starting it (ex. to plan a move)
+	 * @param distance change in position, in inches (+ = up)
+	 * @param initialVelocity velocity at the start of the profile, in in/s (+ = up)
+	 * @return new profile
+	 */
+	public MotionProfile createProfile(double distance, double initialVelocity) {
+		return new MotionProfile(distance, initialVelocity, maxVelocity, maxAcceleration, stoppingAcceleration, maxJerk);
+	}
+
 	/**
 	 * disables motion profile's control of motors
 	 */
@@ -68,24 +111,32 @@ public class ElevatorProfileGenerator {
 	 * @param pos in inches from the floor.
 	*/
 	public void setProfileTarget(double pos) {
+		setProfileTarget(pos, Robot.elevator.getElevatorPos(), Robot.elevator.getElevatorVelocity());
+	}
+
+	/**
+	 * Sets target position for elevator, starting from the given elevator position and velocity
+	 * instead of reading them from Robot.elevator (see setProfileTarget(pos)).
+	 * @param pos target in inches from the floor
+	 * @param currentPos current elevator position, in inches from the floor
+	 * @param currentVelocity current elevator velocity, in inches per second (+ = up)
+	 */
+	public void setProfileTarget(double pos, double currentPos, double currentVelocity) {
 		profileEnabled = true;
 		finalPosition = pos;
-		initialPosition = Robot.elevator.getElevatorPos();
+		initialPosition = currentPos;
 		intError = 0;			// Clear integrated error
 		prevError = 0;			// Clear previous error
-		approachingTarget = false;
 
 		// Save starting time
-		startTime = System.currentTimeMillis();
+		startTime = clock.nanos();
 		lastTime = startTime;
 
 		SmartDashboard.putNumber("ElevatorInitPos", initialPosition);
 		SmartDashboard.putNumber("ElevatorTarget", finalPosition);
 
-		currentMPDistance = 0;
-		targetMPDistance = Math.abs(finalPosition - initialPosition);
-
-		directionSign = Math.signum(finalPosition - initialPosition);
+		targetMPDistance = finalPosition - initialPosition;
+		directionSign = Math.signum(targetMPDistance);
 
 		/* TODO uncomment if we decide to have different velocities/accelerations for up vs down
 		if(directionSign == 1) {
@@ -94,59 +145,32 @@ public class ElevatorProfileGenerator {
 
 		} */
 
-		// Seed the profile with the current velocity, in case the elevator is already moving
-		currentMPVelocity = Robot.elevator.getElevatorVelocity() * directionSign;
+		// Start the profile at the current velocity, in case the elevator is already moving
+		profile = createProfile(targetMPDistance, currentVelocity);
+		currentMPDistance = 0;
+		currentMPVelocity = currentVelocity;
+		currentMPAcceleration = 0;
 
-		Robot.log.writeLog("ElevatorProfile", "New Profile", "Init pos," + initialPosition + ",Final pos," + finalPosition);
+		Robot.log.writeLog("ElevatorProfile", "New Profile", "Init pos," + initialPosition + ",Final pos," + finalPosition +
+			",Init vel," + currentVelocity + ",Profile time," + profile.getTotalTime());
 	}
 
 	/**
 	 * Call this method once per scheduler cycle. This method calculates the
-	 * distance that the robot should have traveled at this point in time, per the
-	 * motion profile. Also calculates velocity in in/s
+	 * distance that the elevator should have traveled at this point in time, per the
+	 * motion profile. Also calculates velocity in in/s and acceleration in in/s^2
 	 */
 	public void updateProfileCalcs() {
-		if (currentMPDistance < targetMPDistance) { 
-			// does not continue calculating after we should have reached our target (within a quarter inch)
-			long currentTime = System.currentTimeMillis();
-			dt = ((double) (currentTime - lastTime)) / 1000.0;
-			lastTime = currentTime;
-
-			double stoppingDistance = 0.5 * currentMPVelocity * currentMPVelocity / stoppingAcceleration;
-
-			// calculating target acceleration
-			if ( (currentMPVelocity > 0) &&
-			       (approachingTarget || (targetMPDistance - currentMPDistance) < stoppingDistance) ) {
-				approachingTarget = true;
-				currentMPAcceleration = -0.5 * currentMPVelocity * currentMPVelocity / (targetMPDistance - currentMPDistance);
-			}
-			else if (currentMPVelocity < maxVelocity) {
-				currentMPAcceleration = maxAcceleration;
-			}
-			else {
-				currentMPAcceleration = 0;
-			}
-
-			// calculating target velocity
-			currentMPVelocity = currentMPVelocity + currentMPAcceleration * dt;
-			if (currentMPVelocity > maxVelocity) {
-				currentMPVelocity = maxVelocity;
-			}
-
-			// calculating the distance the elevator should have travelled
-			currentMPDistance = currentMPDistance + currentMPVelocity * dt;
-			if (currentMPDistance > targetMPDistance) {
-				currentMPDistance = targetMPDistance;
-			}
-
-		} else { // do not change the theoretical distance once it has reached the target
-			currentMPDistance = targetMPDistance;
-			currentMPVelocity = 0;
-			currentMPAcceleration = 0;
-		}
+		long currentTime = clock.nanos();
+		dt = (currentTime - lastTime) / 1e9;
+		lastTime = currentTime;
+
+		double time = (currentTime - startTime) / 1e9;
+		currentMPDistance = profile.getPosition(time);
+		currentMPVelocity = profile.getVelocity(time);
+		currentMPAcceleration = profile.getAcceleration(time);
 	}
 
-
 	/**
 	 * Code to make the elevator follow the MotionProfile, should be called exactly once per scheduler cycle.
 	 * ONLY follow the MotionProfile if elevPosControl is true, else we should be in manual mode so do nothing.
@@ -158,21 +182,26 @@ public class ElevatorProfileGenerator {
 			error = getCurrentPosition() - Robot.elevator.getElevatorPos();
 			intError = intError + error * dt;
 
-			if (directionSign == 1) {
-				percentPowerFF = kFF + kVu*currentMPVelocity*directionSign + kAu*currentMPAcceleration*directionSign;
+			// Use the up or down gains for the direction the profile is moving (the direction of the whole move, when stopped)
+			boolean movingUp = (currentMPVelocity != 0) ? (currentMPVelocity > 0) : (directionSign >= 0);
+			if (movingUp) {
+				percentPowerFF = kFF + kVu*currentMPVelocity + kAu*currentMPAcceleration;
 				percentPowerFB = kPu * error + ((error - prevError) * kDu) + (kIu * intError);
-			} else if(directionSign == -1) {
-				percentPowerFF = kFF + kVd*currentMPVelocity*directionSign + kAd*currentMPAcceleration*directionSign;
+			} else {
+				percentPowerFF = kFF + kVd*currentMPVelocity + kAd*currentMPAcceleration;
 				percentPowerFB = kPd * error + ((error - prevError) * kDd) + (kId * intError);
-			} 
+			}
 			prevError = error;
 
 			// Cap feedback power to prevent jerking the elevator
 			percentPowerFB = (percentPowerFB>0.2) ? 0.2 : percentPowerFB;
 			percentPowerFB = (percentPowerFB<-0.2) ? -0.2 : percentPowerFB;
 
-			if (Robot.log.getLogLevel()<=1 || currentMPVelocity>0 || Math.abs(percentPowerFB)>0.1) {
-				updateElevatorProfileLog(false);
+			// Keep every cycle of the profile in the flight recorder
+			fillLogChannels();
+			Robot.flightRecorder.record(logChannels);
+			if (Robot.log.getLogLevel()<=1 || currentMPVelocity!=0 || Math.abs(percentPowerFB)>0.1) {
+				Robot.log.writeChannels(false, logChannels);
 			}
 
 			return percentPowerFF + percentPowerFB;
@@ -186,21 +215,28 @@ public class ElevatorProfileGenerator {
     * @param logWhenDisabled true will log when disabled, false will discard the string
     */
 	public void updateElevatorProfileLog(boolean logWhenDisabled) {
-		Robot.log.writeLog(logWhenDisabled, "ElevatorProfile", "updateCalc",
-		        "MP Pos," + getCurrentPosition() + ",ActualPos,"
-				+ Robot.elevator.getElevatorPos() + ",TargetPos,"
-				+ finalPosition + ",Time since start," + getTimeSinceProfileStart() + ",dt," + dt
-				+ ",ActualVel," + Robot.elevator.getElevatorVelocity()
-				+ ",MP Vel," + (currentMPVelocity * directionSign)
-				+ ",MP Accel," + (currentMPAcceleration * directionSign)
-				+ ",PowerFF," + percentPowerFF + ",PowerFB," + percentPowerFB );
+		fillLogChannels();
+		Robot.log.writeChannels(logWhenDisabled, logChannels);
+	}
+
+	/**
+	 * Fills in the current record of logChannels (used by the file log and the flight recorder)
+	 */
+	private void fillLogChannels() {
+		logChannels.startRecord()
+			.put(getCurrentPosition()).put(Robot.elevator.getElevatorPos())
+			.put(finalPosition).put(getTimeSinceProfileStart()).put(dt)
+			.put(Robot.elevator.getElevatorVelocity())
+			.put(currentMPVelocity)
+			.put(currentMPAcceleration)
+			.put(percentPowerFF).put(percentPowerFB);
 	}
 
 	/**
 	 * @return Current target position for the robot, in inches
 	 */
 	public double getCurrentPosition() {
-		return currentMPDistance * directionSign + initialPosition;
+		return currentMPDistance + initialPosition;
 
 	}
 
@@ -211,17 +247,24 @@ public class ElevatorProfileGenerator {
 		return finalPosition;
 	}
 
+	/**
+	 * @return true = the current profile has reached its final position (the elevator may still be settling)
+	 */
+	public boolean isProfileFinished() {
+		return profile.isFinished(getTimeSinceProfileStart());
+	}
+
 	/**
 	 * @return time in seconds since starting the current profile
 	 */
 	public double getTimeSinceProfileStart() {
-		return ((double) (lastTime - startTime)) / 1000.0;
+		return (lastTime - startTime) / 1e9;
 	}
 
 	/**
 	 * @return Current target velocity from profile calculation in in/s
 	 */
 	public double getCurrentVelocity() {
-		return currentMPVelocity * directionSign;
+		return currentMPVelocity;
 	}
 }
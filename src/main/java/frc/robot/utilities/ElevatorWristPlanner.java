@@ -0,0 +1,211 @@
+package frc.robot.utilities;
+
+import frc.robot.Robot;
+
+/**
+ * Plans a move of the elevator and wrist together, so both axes move at the same time instead of one
+ * waiting for the other to finish.
+ * <p>
+ * The safe region of (elevator height, wrist angle) is the region allowed by the interlocks:
+ * <ul>
+ * <li>wrist at or above wristKeepOut:  elevator must be at or below elevatorWristSafeStow
+ * <li>wrist below wristVision:  elevator must be at or above groundCargo - 2
+ * <li>wrist below wristLowerCrashWhenElevatorLow:  elevator must be at or above groundCargo
+ * </ul>
+ * Each axis follows its own motion profile.  The planner delays the start of one axis (in DELAY_STEP
+ * steps) until the path through (height, angle) stays in the safe region, and picks the delay that
+ * finishes first.  The path must stay MARGIN_INCHES and MARGIN_DEGREES away from the keepout corner.
+ * The lower limits are where the wrist is parked (ex. groundCargo at wristDown), so the path may touch
+ * them but not cross them.  ElevatorWristMove allows TOLERANCE_INCHES and TOLERANCE_DEGREES on the
+ * lower limits, for noise in the actual positions.
+ * <p>
+ * The plan is only a schedule:  the command that runs it (ElevatorWristMove) still clamps each target
+ * to the safe region using the actual positions, in case an axis runs behind its profile.
+ */
+public class ElevatorWristPlanner {
+
+	public static final double DELAY_STEP = 0.02;		// seconds between delays that are tried
+	public static final double SAMPLE_STEP = 0.02;		// seconds between points that are checked on the path
+	public static final double MARGIN_INCHES = 1.0;		// elevator margin from the keepout corner
+	public static final double MARGIN_DEGREES = 3.0;	// wrist margin from the keepout corner
+	public static final double TOLERANCE_INCHES = 0.5;	// elevator tolerance for the lower limits (actual positions)
+	public static final double TOLERANCE_DEGREES = 2.0;	// wrist tolerance for the lower limits (actual positions)
+
+	/**
+	 * A planned move:  the profile for each axis and how long to wait before starting it
+	 */
+	public static class Plan {
+		public final double elevatorStart, wristStart;			// starting height (in) and angle (deg)
+		public final MotionProfile elevatorProfile, wristProfile;
+		public final double elevatorDelay, wristDelay;			// seconds before starting each profile
+		public final boolean safe;		// false = no delay keeps the path in the safe region (ex. the move starts outside of it)
+
+		Plan(double elevatorStart, MotionProfile elevatorProfile, double elevatorDelay,
+				double wristStart, MotionProfile wristProfile, double wristDelay, boolean safe) {
+			this.elevatorStart = elevatorStart;
+			this.elevatorProfile = elevatorProfile;
+			this.elevatorDelay = elevatorDelay;
+			this.wristStart = wristStart;
+			this.wristProfile = wristProfile;
+			this.wristDelay = wristDelay;
+			this.safe = safe;
+		}
+
+		/**
+		 * @param time seconds since the start of the plan
+		 * @return planned elevator height, in inches from the floor
+		 */
+		public double getElevatorPos(double time) {
+			return elevatorStart + elevatorProfile.getPosition(time - elevatorDelay);
+		}
+
+		/**
+		 * @param time seconds since the start of the plan
+		 * @return planned wrist angle, in degrees
+		 */
+		public double getWristAngle(double time) {
+			return wristStart + wristProfile.getPosition(time - wristDelay);
+		}
+
+		/**
+		 * @return seconds from the start of the plan until both axes reach their targets
+		 */
+		public double getTotalTime() {
+			return Math.max(elevatorDelay + elevatorProfile.getTotalTime(), wristDelay + wristProfile.getTotalTime());
+		}
+
+		@Override
+		public String toString() {
+			return "Elevator delay," + elevatorDelay + ",Elevator time," + elevatorProfile.getTotalTime() +
+				",Wrist delay," + wristDelay + ",Wrist time," + wristProfile.getTotalTime() +
+				",Total time," + getTotalTime() + ",Safe," + safe;
+		}
+	}
+
+	/**
+	 * Plans a move of both axes
+	 * @param elevatorStart current elevator height, in inches from the floor
+	 * @param elevatorProfile profile from the current height to the target height
+	 * @param wristStart current wrist angle, in degrees
+	 * @param wristProfile profile from the current angle to the target angle
+	 * @return plan with the shortest total time that stays in the safe region, or the plan that
+	 * moves the axes one after the other if none does
+	 */
+	public static Plan plan(double elevatorStart, MotionProfile elevatorProfile, double wristStart, MotionProfile wristProfile) {
+		Plan best = null;
+
+		// Try delaying the elevator (wrist leads), then delaying the wrist (elevator leads)
+		for (double delay = 0; delay <= wristProfile.getTotalTime() + DELAY_STEP; delay += DELAY_STEP) {
+			Plan plan = new Plan(elevatorStart, elevatorProfile, delay, wristStart, wristProfile, 0, true);
+			if (isSafe(plan)) {
+				best = plan;
+				break;
+			}
+		}
+		for (double delay = DELAY_STEP; delay <= elevatorProfile.getTotalTime() + DELAY_STEP; delay += DELAY_STEP) {
+			Plan plan = new Plan(elevatorStart, elevatorProfile, 0, wristStart, wristProfile, delay, true);
+			if (best != null && plan.getTotalTime() >= best.getTotalTime()) break;		// Later delays are not faster
+			if (isSafe(plan)) {
+				best = plan;
+				break;
+			}
+		}
+
+		if (best == null) {
+			// No safe schedule.  Move the wrist first (ElevatorWristMove clamps the targets to keep the axes safe).
+			best = new Plan(elevatorStart, elevatorProfile, wristProfile.getTotalTime(), wristStart, wristProfile, 0, false);
+		}
+		return best;
+	}
+
+	/**
+	 * @return true = every point on the planned path is in the safe region
+	 */
+	private static boolean isSafe(Plan plan) {
+		double totalTime = plan.getTotalTime();
+		double lastHeight = plan.getElevatorPos(0), lastAngle = plan.getWristAngle(0);
+		for (double t = SAMPLE_STEP; t < totalTime + SAMPLE_STEP; t += SAMPLE_STEP) {
+			double height = plan.getElevatorPos(t), angle = plan.getWristAngle(t);
+			// Each axis moves one way between samples, and the upper (lower) limit only gets tighter as the
+			// other axis goes up (down), so check the worst corner between the samples instead of only the samples.
+			if (!isBelowMax(Math.max(height, lastHeight), Math.max(angle, lastAngle)) ||
+					!isAboveMin(Math.min(height, lastHeight), Math.min(angle, lastAngle))) {
+				return false;
+			}
+			lastHeight = height;
+			lastAngle = angle;
+		}
+		return true;
+	}
+
+	/**
+	 * @param height elevator height, in inches from the floor
+	 * @param angle wrist angle, in degrees
+	 * @return true = the point is in the safe region (with the margins from the keepout corner)
+	 */
+	public static boolean isSafe(double height, double angle) {
+		return isBelowMax(height, angle) && isAboveMin(height, angle);
+	}
+
+	/**
+	 * @return true = the point is below the keepout corner (with the margins)
+	 */
+	private static boolean isBelowMax(double height, double angle) {
+		return height <= getElevatorMax(angle + MARGIN_DEGREES) - MARGIN_INCHES;
+	}
+
+	/**
+	 * @return true = the point is above the lower limits (it may touch them)
+	 */
+	private static boolean isAboveMin(double height, double angle) {
+		return height >= getElevatorMin(angle);
+	}
+
+	/**
+	 * @param angle wrist angle, in degrees
+	 * @return highest safe elevator height for the wrist angle, in inches from the floor
+	 */
+	public static double getElevatorMax(double angle) {
+		RobotPreferences prefs = Robot.robotPrefs;
+		return (angle >= prefs.wristKeepOut) ? prefs.elevatorWristSafeStow : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @param angle wrist angle, in degrees
+	 * @return lowest safe elevator height for the wrist angle, in inches from the floor
+	 */
+	public static double getElevatorMin(double angle) {
+		RobotPreferences prefs = Robot.robotPrefs;
+		if (angle < prefs.wristLowerCrashWhenElevatorLow) {
+			return prefs.groundCargo;
+		} else if (angle < prefs.wristVision) {
+			return prefs.groundCargo - 2.0;
+		} else {
+			return Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * @param height elevator height, in inches from the floor
+	 * @return highest safe wrist angle for the elevator height, in degrees
+	 */
+	public static double getWristMax(double height) {
+		RobotPreferences prefs = Robot.robotPrefs;
+		return (height > prefs.elevatorWristSafeStow) ? prefs.wristKeepOut : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @param height elevator height, in inches from the floor
+	 * @return lowest safe wrist angle for the elevator height, in degrees
+	 */
+	public static double getWristMin(double height) {
+		RobotPreferences prefs = Robot.robotPrefs;
+		if (height < prefs.groundCargo - 2.0) {
+			return prefs.wristVision;
+		} else if (height < prefs.groundCargo) {
+			return prefs.wristLowerCrashWhenElevatorLow;
+		} else {
+			return prefs.wristDown;
+		}
+	}
+}
@@ -1,21 +1,69 @@
 package frc.robot.utilities;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 public class FileLog {
 	
-	private FileWriter fileWriter;
-	private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
-	private static final SimpleDateFormat fileDateFormat = new SimpleDateFormat("yyyy-MM-dd.HH-mm-ss");
+	private LogSegment segment;		// Current log file segment.  Only used by the writer thread after the constructor.
+	private int segmentNumber = 0;
+	private final LogMaintenance maintenance;		// Recovers, compresses, and deletes old log files
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");		// Only used by the writer thread
+	private final SimpleDateFormat fileDateFormat = new SimpleDateFormat("yyyy-MM-dd.HH-mm-ss");	// Only used by the writer thread
 	private String fileNameBase, fileNameFull;
-	private long startTime;
+	private long startTime;			// Wall clock time (System.currentTimeMillis()) for the file name
+	private final RobotClock clock;		// Time stamps for records.  The writer thread converts them to wall clock time.
+	private long wallOffset;			// Wall clock time minus clock time.  Only used by the writer thread after the constructor.
 	private int logLevel = 3;			// File logging level of detail.  Value between 1-3, where 1 is the most detailed and 3 is the least detailed.
+	private final ConcurrentHashMap<String, Integer> subsystemLogLevels = new ConcurrentHashMap<String, Integer>();	// Log levels that override logLevel for one subsystem
+
+	// Per-channel rate limits, by subsystem and then by event
+	private final ConcurrentHashMap<String, ConcurrentHashMap<String, LogRateLimiter>> rateLimits = new ConcurrentHashMap<String, ConcurrentHashMap<String, LogRateLimiter>>();
+	public final static int DETAIL_RATE_LIMIT = 50;		// Default max records per second for each channel written with writeLog(level, ...)
+	private final static LogRateLimiter NO_LIMIT = new LogRateLimiter(Integer.MAX_VALUE);	// Marks a channel whose limit was removed with setRateLimit()
+
+	// Background writer.  writeLog() only puts records in the queue, and the writer thread
+	// formats them and writes them to the file, so slow flash writes don't stall the robot loop.
+	private final LogQueue queue = new LogQueue(QUEUE_SIZE);
+	private final Thread writerThread;
+	private volatile boolean closed = false;
+	private volatile boolean renameRequested = false;
+	private volatile String newSegmentReason = null;		// Not null = writer thread should start a new segment
+	private final StringBuilder lineBuilder = new StringBuilder(1024);		// Only used by the writer thread
+
+	// Binary log file for channelized records (see LogChannels and BinaryLogDecoder).
+	// The binary file has the same name as the CSV file, with ".bin" instead of ".csv".
+	// It is only created when the first channel record is written.
+	private final CopyOnWriteArrayList<LogChannels> channelSets = new CopyOnWriteArrayList<LogChannels>();
+	private DataOutputStream binWriter;		// Only used by the writer thread
+	private boolean binOpenFailed = false;	// Only used by the writer thread
+	private boolean[] schemaWritten = new boolean[0];	// true = schema for channel set id is in the current binary file.  Only used by the writer thread.
+
+	// Binary log file record tags
+	final static byte BIN_HEADER = 'H';		// int version, long file open time
+	final static byte BIN_SCHEMA = 'S';		// short id, UTF subsystem, UTF event, short count, {byte type, UTF name} x count
+	final static byte BIN_DATA = 'R';		// short id, long time, channel values
+	final static int BIN_VERSION = 1;
+
+	public final static int QUEUE_SIZE = 2048;		// Max number of records waiting to be written
+	public final static int FLUSH_CHARS = 16384;	// Flush the file after this many characters are written...
+	public final static long FLUSH_MILLIS = 250;	// ... or after this much time, whichever comes first
+	private final static long IDLE_WAIT_NANOS = 5000000;	// Writer thread sleep time when the queue is empty (5ms)
+	private final static int WRITE_BUFFER_SIZE = 65536;
+	private final static long CLOCK_SET_MILLIS = 1000;	// Wall clock changes larger than this mean the clock was set (see checkWallClock())
+	public final static int SEGMENT_SIZE = 8*1024*1024;	// Size of each log file segment, in bytes
 	
 	// File logging rotation cycles, to spread out logging times between subsystems	
 	public int rotation = 0;
@@ -27,7 +75,7 @@ public class FileLog {
 	public final static int CARGO_CYCLE = 9;
 
 	/**
-	 * Creates a new log file called "/home/lvuser/logfile.ver.date.time.txt"
+	 * Creates a new log file called "/home/lvuser/logfile.ver.date.time.sN.csv"
 	 * @param version Version of robot code
 	 */
 	public FileLog(String version) {
@@ -35,104 +83,536 @@ public class FileLog {
 	}
 	
 	/**
-	 * Creates a new log file.  ".ver.date.time.txt" will automatically be added to the end of the bae file name.
+	 * Creates a new log file.  ".ver.date.time.sN.csv" will automatically be added to the end of the bae file name.
+	 * The log is written in segments of SEGMENT_SIZE bytes.  A new segment (with a new date and time) is started
+	 * when a segment is full or when startNewSegment() is called.
+	 * Also starts the background thread that writes to the file, and the low priority thread that
+	 * compresses and deletes old log files (see LogMaintenance).
 	 * @param filenameBase Path and base name of log file
 	 * @param version Version of robot code
 	 */
 	public FileLog(String filenameBase, String version) {
+		this(filenameBase, version, RobotClock.get());
+	}
+
+	/**
+	 * Creates a new log file (see FileLog(filenameBase, version)), with records time stamped by the given clock
+	 * @param filenameBase Path and base name of log file
+	 * @param version Version of robot code
+	 * @param clock clock for record time stamps
+	 */
+	public FileLog(String filenameBase, String version, RobotClock clock) {
+		this.clock = clock;
 		this.fileNameBase = filenameBase + "." + version + ".";
+		File baseFile = new File(filenameBase).getAbsoluteFile();
+		maintenance = new LogMaintenance(baseFile.getParentFile(), baseFile.getName() + ".");
+
 		startTime = System.currentTimeMillis();
-		fileNameFull = fileNameBase + fileDateFormat.format(startTime) + ".csv";
+		wallOffset = startTime - clock.millis();
+		openSegment("Open");
+		maintenance.start();
 
-		try {
-			fileWriter = new FileWriter(fileNameFull, true);
-			fileWriter.write("----------------------------\n");
-			fileWriter.write(dateFormat.format(System.currentTimeMillis()) + ",FileLog,Open," + fileNameFull + "\n");
-			fileWriter.flush();
-		} catch (IOException exception) {
-			System.out.println("Could not open log file: " + exception);
-		}
+		writerThread = new Thread(this::writerLoop, "FileLog writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+
+		// Write out any queued records if the robot code is stopped
+		Runtime.getRuntime().addShutdownHook(new Thread(this::close));
 	}
 
 	/**
-	 * Renames them log file name to the current date and time
+	 * Renames them log file name to the current date and time.
+	 * The rename is done by the writer thread, after it writes any records that are already queued.
 	 */
 	public void updateFilenameDateTime() {
-		String fileNameNew;
-		File oldFile, newFile;
+		renameRequested = true;
+	}
 
-		// Close the current log file
-		try {
-			fileWriter.close();
-		} catch (IOException exception) {
+	/**
+	 * Closes the current log file segment and starts a new one, named with the current date and time.
+	 * Use this at match phase changes (ex. autonomous, teleop, disabled) so that each phase is in its own file.
+	 * The new segment is started by the writer thread, after it writes any records that are already queued.
+	 * @param reason reason for the new segment, written to the log (ex. "Teleop")
+	 */
+	public void startNewSegment(String reason) {
+		newSegmentReason = reason;
+	}
+
+	/**
+	 * Sets the maximum total size of the log files in the log directory.  When the log files are
+	 * larger than this, the oldest files are deleted.
+	 * @param megabytes quota in MB.  0 or less disables deleting old files.
+	 */
+	public void setRetentionQuota(double megabytes) {
+		maintenance.setQuota(megabytes);
+		writeLog("FileLog", "Retention quota", "MB," + megabytes);
+	}
+
+	/**
+	 * @return name of the current log file segment
+	 */
+	private String getSegmentFileName() {
+		return fileNameBase + fileDateFormat.format(startTime) + ".s" + segmentNumber + ".csv";
+	}
+
+	/**
+	 * Creates the next log file segment, named with startTime.  Only call this from the constructor or the writer thread.
+	 * @param event event to write at the start of the segment (ex. "Open")
+	 */
+	private void openSegment(String event) {
+		segmentNumber++;
+		fileNameFull = getSegmentFileName();
+		binOpenFailed = false;
+
+		File file = new File(fileNameFull);
+		maintenance.setActiveFiles(file, new File(getBinaryFileName(fileNameFull)));
+		segment = new LogSegment(file, segmentNumber, SEGMENT_SIZE);
+		if (!segment.isOpen()) {
+			System.out.println("Could not open log file: " + fileNameFull);
+			return;
 		}
 
+		segment.write("----------------------------\n");
+		segment.write(dateFormat.format(System.currentTimeMillis()) + ",FileLog," + event + "," + fileNameFull + "\n");
+		segment.commit();
+	}
+
+	/**
+	 * Closes the current log file segment and opens the next one.  Only call this from the writer thread.
+	 * @param reason reason for the new segment, written to both segments
+	 */
+	private void rotateSegment(String reason) {
+		newSegmentReason = null;
+		closeBinaryFile();
+
+		long timeMillis = System.currentTimeMillis();
+		if (segment != null) {
+			startTime = timeMillis;
+			String nextFileName = fileNameBase + fileDateFormat.format(startTime) + ".s" + (segmentNumber + 1) + ".csv";
+			segment.write(dateFormat.format(timeMillis) + ",FileLog,Close," + reason + "," + nextFileName + "\n");
+			segment.close();
+		}
+
+		startTime = timeMillis;
+		openSegment("Open " + reason);
+	}
+
+	/**
+	 * Renames the current log file segment to the current date and time.
+	 * Only call this from the writer thread.
+	 */
+	private void renameFile() {
+		renameRequested = false;
+		closeBinaryFile();
+
 		// Update startTime and generate the new file name
 		startTime = System.currentTimeMillis();
-		fileNameNew = fileNameBase + fileDateFormat.format(startTime) + ".csv";
+		String fileNameNew = getSegmentFileName();
 
-		// Rename the file
-		oldFile = new File(fileNameFull);
-		newFile = new File(fileNameNew);
-		oldFile.renameTo(newFile);
+		if (segment == null || !segment.isOpen()) {
+			openSegment("Open");
+			return;
+		}
 
-		// Update member variables and open the new file
-		fileNameFull = fileNameNew;
-		try {
-			fileWriter = new FileWriter(fileNameFull, true);
-			fileWriter.write("----------------------------\n");
-			fileWriter.write(dateFormat.format(System.currentTimeMillis()) + ",FileLog,Rename," + fileNameFull + "\n");
-			fileWriter.flush();
-		} catch (IOException exception) {
-			System.out.println("Could not open log file: " + exception);
+		// Rename the files
+		File oldBinFile = new File(getBinaryFileName(fileNameFull));
+		File newBinFile = new File(getBinaryFileName(fileNameNew));
+		maintenance.setActiveFiles(segment.getFile(), oldBinFile, new File(fileNameNew), newBinFile);
+		segment.renameTo(new File(fileNameNew));
+		if (oldBinFile.exists()) {
+			oldBinFile.renameTo(newBinFile);
 		}
+		binOpenFailed = false;
+
+		// Update member variables
+		fileNameFull = segment.getFile().getPath();
+		maintenance.setActiveFiles(segment.getFile(), new File(getBinaryFileName(fileNameFull)));
+		segment.write("----------------------------\n");
+		segment.write(dateFormat.format(System.currentTimeMillis()) + ",FileLog,Rename," + fileNameFull + "\n");
 	}
 	
 	/**
 	 * Writes a message to the log file.  The message will be timestamped.  Does not echo the message to the screen.
+	 * The message is queued and written to the file by a background thread, so this method does not block.
 	 * @param subsystemOrCommand The name of the subsytem or command generating the message
 	 * @param event A description of the event (ex. start, data, event)
 	 * @param msg The message
 	 */
 	public void writeLog(String subsytemOrCommand, String event, String msg) {
-		// If system clock has reset by more than 24 hours (like when the clock is set
-		// at the start of a match), then fix the filename
-		if (System.currentTimeMillis() - startTime > 1000*3600*24) {
-			updateFilenameDateTime();
-		}
-
-		// Write the message to the file
-		try {
-			fileWriter.write(dateFormat.format(System.currentTimeMillis()) + "," + subsytemOrCommand + "," + event + "," + msg + "\n");
-			fileWriter.flush();
-		} catch (IOException exception) {
+		if (!closed) {
+			long timeMillis = clock.millis();
+			if (checkRateLimit(timeMillis, subsytemOrCommand, event)) {
+				queue.offer(timeMillis, subsytemOrCommand, event, msg);
+			}
 		}
 	}
 
 	/**
 	 * Writes a message to the log file.  The message will be timestamped.  Does not echo the message to the screen.
+	 * The message is queued and written to the file by a background thread, so this method does not block.
 	 * @param logWhenDisabled true will log when disabled, false will discard the message
 	 * @param subsystemOrCommand The name of the subsytem or command generating the message
 	 * @param event A description of the event (ex. start, data, event)
 	 * @param msg The message
 	 */
 	public void writeLog(boolean logWhenDisabled, String subsytemOrCommand, String event, String msg) {
-		// If system clock has reset by more than 24 hours (like when the clock is set
-		// at the start of a match), then fix the filename
-		if (System.currentTimeMillis() - startTime > 1000*3600*24) {
-			updateFilenameDateTime();
+		if(logWhenDisabled || DriverStation.getInstance().isEnabled()) {
+			writeLog(subsytemOrCommand, event, msg);
+		}
+	}
+
+	/**
+	 * Writes a detailed message to the log file, only if the subsystem's log level is at or below the given level
+	 * (see getLogLevel(String)).  The message is only built if it will be written.  A lambda that captures
+	 * local variables is still allocated on every call, so in getters and other code that runs many times
+	 * per cycle, check getLogLevel(String) before calling.  Each subsystem and event is limited to
+	 * DETAIL_RATE_LIMIT records per second, unless a different limit is set with setRateLimit().
+	 * <p>
+	 * Example:  if (Robot.log.getLogLevel("Wrist") <= 1) {
+	 *             Robot.log.writeLog(1, "Wrist", "Get Wrist Angle", () -> "Wrist Angle," + wristAngle);
+	 *           }
+	 * @param level detail level of the message (1 = only write at full debugging, 2 = write in lab mode or below, 3 = always write)
+	 * @param subsystemOrCommand The name of the subsytem or command generating the message
+	 * @param event A description of the event (ex. start, data, event)
+	 * @param msg Supplies the message
+	 */
+	public void writeLog(int level, String subsytemOrCommand, String event, Supplier<String> msg) {
+		if (closed || getLogLevel(subsytemOrCommand) > level) return;
+
+		if (getRateLimiter(subsytemOrCommand, event) == null) {
+			setRateLimit(subsytemOrCommand, event, DETAIL_RATE_LIMIT);
 		}
 
-		// Write the message to the file
+		long timeMillis = clock.millis();
+		if (checkRateLimit(timeMillis, subsytemOrCommand, event)) {
+			queue.offer(timeMillis, subsytemOrCommand, event, msg.get());
+		}
+	}
+
+	/**
+	 * Limits how many records per second are written for one subsystem and event.  Records over the limit
+	 * are not written.  Instead, the number of suppressed records is written (as "Suppressed,K") with
+	 * the next record that is allowed.
+	 * @param subsystemOrCommand The name of the subsytem or command
+	 * @param event The event to limit
+	 * @param maxPerSecond maximum records per second.  0 or less removes the limit.
+	 */
+	public void setRateLimit(String subsytemOrCommand, String event, int maxPerSecond) {
+		ConcurrentHashMap<String, LogRateLimiter> events = rateLimits.get(subsytemOrCommand);
+		if (events == null) {
+			rateLimits.putIfAbsent(subsytemOrCommand, new ConcurrentHashMap<String, LogRateLimiter>());
+			events = rateLimits.get(subsytemOrCommand);
+		}
+
+		if (maxPerSecond > 0) {
+			events.put(event, new LogRateLimiter(maxPerSecond));
+		} else {
+			events.put(event, NO_LIMIT);		// Keep an entry, so writeLog(level, ...) doesn't put the default limit back
+		}
+	}
+
+	/**
+	 * @return rate limiter for a subsystem and event, NO_LIMIT if the limit was removed, or null if no limit was ever set
+	 */
+	private LogRateLimiter getRateLimiter(String subsytemOrCommand, String event) {
+		if (rateLimits.isEmpty()) return null;
+		ConcurrentHashMap<String, LogRateLimiter> events = rateLimits.get(subsytemOrCommand);
+		return (events == null) ? null : events.get(event);
+	}
+
+	/**
+	 * Checks the rate limit for a subsystem and event.  If records were suppressed and this
+	 * record is allowed, then queues a record with the number of suppressed records.
+	 * @return true = write the record, false = record is over the rate limit
+	 */
+	private boolean checkRateLimit(long timeMillis, String subsytemOrCommand, String event) {
+		LogRateLimiter limiter = getRateLimiter(subsytemOrCommand, event);
+		if (limiter == null || limiter == NO_LIMIT) return true;
+
+		int suppressed = limiter.check(timeMillis);
+		if (suppressed < 0) return false;
+		if (suppressed > 0) {
+			queue.offer(timeMillis, subsytemOrCommand, event, "Suppressed," + suppressed);
+		}
+		return true;
+	}
+
+	/**
+	 * Writes a record built with a LogRecord to the log file.  The record will be timestamped.  Does not echo the message to the screen.
+	 * The message is copied into the queue and written to the file by a background thread, so this method does not block
+	 * and does not allocate memory.
+	 * @param record record to write (subsystem, event, and message)
+	 */
+	public void writeLog(LogRecord record) {
+		if (!closed) {
+			long timeMillis = clock.millis();
+			if (checkRateLimit(timeMillis, record.getSubsystem(), record.getEvent())) {
+				queue.offer(timeMillis, record.getSubsystem(), record.getEvent(), record.getBuffer(), record.getLength());
+			}
+		}
+	}
+
+	/**
+	 * Writes a record built with a LogRecord to the log file.  The record will be timestamped.  Does not echo the message to the screen.
+	 * The message is copied into the queue and written to the file by a background thread, so this method does not block
+	 * and does not allocate memory.
+	 * @param logWhenDisabled true will log when disabled, false will discard the message
+	 * @param record record to write (subsystem, event, and message)
+	 */
+	public void writeLog(boolean logWhenDisabled, LogRecord record) {
 		if(logWhenDisabled || DriverStation.getInstance().isEnabled()) {
-			try {
-			fileWriter.write(dateFormat.format(System.currentTimeMillis()) + "," + subsytemOrCommand + "," + event + "," + msg + "\n");
-			fileWriter.flush();
-			} catch (IOException exception) {
+			writeLog(record);
+		}
+	}
+
+	/**
+	 * Registers a new set of channels for the binary log file.  Call this once per set
+	 * (usually in the constructor of the subsystem), then add the channels to the returned object.
+	 * @param subsystemOrCommand The name of the subsytem or command generating the records
+	 * @param event A description of the records (ex. "Update Variables")
+	 * @return new channel set
+	 */
+	public synchronized LogChannels registerChannels(String subsytemOrCommand, String event) {
+		LogChannels channels = new LogChannels(channelSets.size(), subsytemOrCommand, event);
+		channelSets.add(channels);
+		return channels;
+	}
+
+	/**
+	 * Writes the current record of a channel set to the binary log file.  The record will be timestamped.
+	 * The record is copied into the queue and written to the file by a background thread, so this method does not block.
+	 * @param channels channel set from registerChannels(), with a record filled in using startRecord() and put()
+	 */
+	public void writeChannels(LogChannels channels) {
+		if (!closed) {
+			byte[] record = channels.getRecordArray();
+			if (record != null) {
+				queue.offer(clock.millis(), channels.getId(), record, channels.getRecordBytes());
 			}
 		}
 	}
-	
+
+	/**
+	 * Writes the current record of a channel set to the binary log file.  The record will be timestamped.
+	 * The record is copied into the queue and written to the file by a background thread, so this method does not block.
+	 * @param logWhenDisabled true will log when disabled, false will discard the record
+	 * @param channels channel set from registerChannels(), with a record filled in using startRecord() and put()
+	 */
+	public void writeChannels(boolean logWhenDisabled, LogChannels channels) {
+		if(logWhenDisabled || DriverStation.getInstance().isEnabled()) {
+			writeChannels(channels);
+		}
+	}
+
+	/**
+	 * Writer thread main loop.  Writes queued records to the file, flushing the file
+	 * after FLUSH_CHARS characters or FLUSH_MILLIS milliseconds.
+	 */
+	private void writerLoop() {
+		long lastFlushTime = clock.millis();
+		int unflushedChars = 0;
+		int slot;
+
+		while (true) {
+			checkWallClock();
+
+			// Write all records that are waiting in the queue
+			while ((slot = queue.peekSlot()) >= 0) {
+				// Check for a new segment before each record, so records logged after startNewSegment() go in the new segment
+				if (newSegmentReason != null) rotateSegment(newSegmentReason);
+
+				if (queue.getChannelSetId(slot) == LogQueue.TEXT_RECORD) {
+					unflushedChars += writeRecord(queue.getTime(slot), queue.getSubsystem(slot), queue.getEvent(slot), queue.getMsg(slot));
+				} else if (queue.getChannelSetId(slot) == LogQueue.BYTES_RECORD) {
+					unflushedChars += writeRecord(queue.getTime(slot), queue.getSubsystem(slot), queue.getEvent(slot), queue.getPayload(slot), queue.getPayloadLength(slot));
+				} else {
+					unflushedChars += writeBinaryRecord(queue.getTime(slot), queue.getChannelSetId(slot), queue.getPayload(slot), queue.getPayloadLength(slot));
+				}
+				queue.releaseSlot(slot);
+
+				if (unflushedChars >= FLUSH_CHARS) {
+					flushFile();
+					unflushedChars = 0;
+					lastFlushTime = clock.millis();
+				}
+			}
+
+			// Record how many messages were lost because the queue was full
+			long dropped = queue.getAndResetDropped();
+			if (dropped > 0) {
+				unflushedChars += writeRecord(clock.millis(), "FileLog", "Dropped", "Records," + dropped);
+			}
+
+			if (unflushedChars > 0 && (clock.millis() - lastFlushTime >= FLUSH_MILLIS || closed)) {
+				flushFile();
+				unflushedChars = 0;
+				lastFlushTime = clock.millis();
+			}
+
+			if (closed && queue.isEmpty()) break;
+
+			if (renameRequested) renameFile();
+			if (newSegmentReason != null) rotateSegment(newSegmentReason);
+
+			LockSupport.parkNanos(IDLE_WAIT_NANOS);
+		}
+
+		if (segment != null) segment.close();
+		closeBinaryFile();
+		maintenance.stop();
+	}
+
+	/**
+	 * Checks if the wall clock was set (like when the Driver Station sets the clock at the start of a match).
+	 * If it was, then record times are converted with the new wall clock time, and the file is renamed
+	 * to the new date and time.  Only call this from the writer thread.
+	 */
+	private void checkWallClock() {
+		long offset = System.currentTimeMillis() - clock.millis();
+		if (Math.abs(offset - wallOffset) > CLOCK_SET_MILLIS) {
+			wallOffset = offset;
+			renameFile();
+		}
+	}
+
+	/**
+	 * Formats one record and writes it to the file buffer.  Only call this from the writer thread.
+	 * @return number of characters written
+	 */
+	private int writeRecord(long timeMillis, String subsytemOrCommand, String event, String msg) {
+		if (!startLine(timeMillis, subsytemOrCommand, event)) return 0;
+		lineBuilder.append(msg);
+		return endLine();
+	}
+
+	/**
+	 * Formats one record with an ASCII byte message and writes it to the file buffer.  Only call this from the writer thread.
+	 * @return number of characters written
+	 */
+	private int writeRecord(long timeMillis, String subsytemOrCommand, String event, byte[] msg, int length) {
+		if (!startLine(timeMillis, subsytemOrCommand, event)) return 0;
+		for (int i = 0; i < length; i++) {
+			lineBuilder.append((char) (msg[i] & 0xff));
+		}
+		return endLine();
+	}
+
+	/**
+	 * Starts formatting a record in lineBuilder (time stamp, subsystem, and event).  Only call this from the writer thread.
+	 * @return true = ready for the message, false = the log file is not open
+	 */
+	private boolean startLine(long timeMillis, String subsytemOrCommand, String event) {
+		if (segment == null || !segment.isOpen()) return false;
+
+		lineBuilder.setLength(0);
+		lineBuilder.append(dateFormat.format(timeMillis + wallOffset)).append(',').append(subsytemOrCommand)
+			.append(',').append(event).append(',');
+		return true;
+	}
+
+	/**
+	 * Ends the record in lineBuilder and writes it to the current segment.  Starts a new segment
+	 * if the current segment is full.  Only call this from the writer thread.
+	 * @return number of characters written
+	 */
+	private int endLine() {
+		lineBuilder.append('\n');
+		if (!segment.write(lineBuilder)) {
+			rotateSegment("Segment full");
+			if (!segment.write(lineBuilder)) {
+				// Record is larger than a whole segment, so cut it off
+				lineBuilder.setLength(Math.max(0, segment.getRemaining() - 1));
+				lineBuilder.append('\n');
+				segment.write(lineBuilder);
+			}
+		}
+		return lineBuilder.length();
+	}
+
+	/**
+	 * Writes one channel record to the binary file buffer.  Writes the channel set's schema first
+	 * if it is not already in the current binary file.  Only call this from the writer thread.
+	 * @return number of bytes written
+	 */
+	private int writeBinaryRecord(long timeMillis, int id, byte[] data, int length) {
+		if (binWriter == null) openBinaryFile();
+		if (binWriter == null) return 0;
+
+		int size = binWriter.size();
+		try {
+			if (id >= schemaWritten.length) {
+				schemaWritten = Arrays.copyOf(schemaWritten, channelSets.size());
+			}
+			if (!schemaWritten[id]) {
+				channelSets.get(id).writeSchema(binWriter);
+				schemaWritten[id] = true;
+			}
+
+			binWriter.writeByte(BIN_DATA);
+			binWriter.writeShort(id);
+			binWriter.writeLong(timeMillis + wallOffset);
+			binWriter.write(data, 0, length);
+		} catch (IOException exception) {
+		}
+		return binWriter.size() - size;
+	}
+
+	/**
+	 * Opens (or appends to) the binary file that goes with the current CSV file, and writes the file header.
+	 * Only call this from the writer thread.
+	 */
+	private void openBinaryFile() {
+		if (binOpenFailed) return;
+
+		String binFileName = getBinaryFileName(fileNameFull);
+		try {
+			binWriter = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binFileName, true), WRITE_BUFFER_SIZE));
+			binWriter.writeByte(BIN_HEADER);
+			binWriter.writeInt(BIN_VERSION);
+			binWriter.writeLong(System.currentTimeMillis());
+		} catch (IOException exception) {
+			binWriter = null;
+			binOpenFailed = true;
+			System.out.println("Could not open binary log file: " + exception);
+			return;
+		}
+		Arrays.fill(schemaWritten, false);
+		writeRecord(clock.millis(), "FileLog", "Open Binary", binFileName);
+	}
+
+	/**
+	 * Closes the binary file, if it is open.  Only call this from the writer thread.
+	 */
+	private void closeBinaryFile() {
+		try {
+			if (binWriter != null) binWriter.close();
+		} catch (IOException exception) {
+		}
+		binWriter = null;
+	}
+
+	/**
+	 * @param csvFileName name of a CSV log file
+	 * @return name of the binary log file that goes with the CSV file
+	 */
+	static String getBinaryFileName(String csvFileName) {
+		if (csvFileName.endsWith(".csv")) {
+			return csvFileName.substring(0, csvFileName.length() - 4) + ".bin";
+		}
+		return csvFileName + ".bin";
+	}
+
+	/**
+	 * Flushes the file buffers to disk.  Only call this from the writer thread.
+	 */
+	private void flushFile() {
+		if (segment != null) segment.commit();
+		try {
+			if (binWriter != null) binWriter.flush();
+		} catch (IOException exception) {
+		}
+	}
+
 	/**
 	 * Writes a message to the log file.  The message will be timestamped.  Also echos the message to the screen.
 	 * @param subsystemOrCommand The name of the subsytem or command generating the message
@@ -167,6 +647,32 @@ public class FileLog {
 		return logLevel;
 	}
 
+	/**
+	 * Changes level of detail for one subsystem, overriding the level from setLogLevel(int).
+	 * Use this to turn on detailed logging for the subsystem being debugged without flooding the log
+	 * with every other subsystem.
+	 * @param subsystemOrCommand The name of the subsytem or command, as used in writeLog
+	 * @param level between 1-3, where 1 is the most detailed and 3 is the least detailed.  0 removes the override.
+	 */
+	public void setLogLevel(String subsytemOrCommand, int level) {
+		if (level > 0) {
+			subsystemLogLevels.put(subsytemOrCommand, level);
+		} else {
+			subsystemLogLevels.remove(subsytemOrCommand);
+		}
+		writeLogEcho("FileLog", "setLogLevel", subsytemOrCommand + ",Level" + getLogLevel(subsytemOrCommand));
+	}
+
+	/**
+	 * Returns what level of detail the fileLog should be at for one subsystem.  This is the
+	 * level set with setLogLevel(String, int), or the overall log level if the subsystem does not have its own level.
+	 * @param subsystemOrCommand The name of the subsytem or command, as used in writeLog
+	 */
+	public int getLogLevel(String subsytemOrCommand) {
+		Integer level = subsystemLogLevels.get(subsytemOrCommand);
+		return (level == null) ? logLevel : level;
+	}
+
 	/** 
 	 * Advances the log rotation counter by one place, and resets if above threshhold for the current log level
 	 */
@@ -188,13 +694,16 @@ public class FileLog {
 	}
 	
 	/**
-	 * Closes the log file.  All writes after closing the log file will be ignored.
+	 * Closes the log file.  All queued records are written before the file is closed.
+	 * All writes after closing the log file will be ignored.
 	 */
 	public void close() {
+		if (closed) return;
+		closed = true;
+		LockSupport.unpark(writerThread);
 		try {
-			fileWriter.close();
-			fileWriter = null;
-		} catch (IOException exception) {
+			writerThread.join(1000);
+		} catch (InterruptedException exception) {
 		}
 	}
 
@@ -0,0 +1,193 @@
+package frc.robot.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+
+import frc.robot.Robot;
+
+/**
+ * In-memory "black box" that keeps the last few seconds of every subsystem's variables at the full loop rate.
+ * Subsystems fill in their LogChannels record every cycle and pass it to record(), which only copies the
+ * bytes into a pre-allocated ring (no file writes).  When something goes wrong, dump() writes the rings
+ * to a binary log file (same format as the FileLog binary file, so BinaryLogDecoder turns it into CSV).
+ * <p>
+ * Dumps are triggered by RobotPreferences.recordStickyFaults(), by encoder fault checks in the subsystems,
+ * or by the "Flight Recorder Dump" button on the dashboard.
+ */
+public class FlightRecorder {
+
+	public final static double DEFAULT_SECONDS = 10.0;		// Seconds of history to keep
+	public final static double LOOPS_PER_SECOND = 50.0;
+	public final static long MIN_DUMP_INTERVAL_MILLIS = 5000;	// Don't dump more often than this (faults tend to repeat every cycle)
+
+	/**
+	 * Ring of the most recent records for one channel set
+	 */
+	private static class Ring {
+		final LogChannels channels;
+		final byte[] data;			// Record values, recordBytes per record
+		final long[] time;			// Time stamp of each record (RobotClock.millis())
+		int next = 0;				// Index of the next record to write
+		int count = 0;				// Number of valid records
+
+		Ring(LogChannels channels, int capacity) {
+			this.channels = channels;
+			data = new byte[capacity * channels.getRecordBytes()];
+			time = new long[capacity];
+		}
+
+		/**
+		 * @return a copy of this ring (so it can be written to a file by another thread)
+		 */
+		Ring copy() {
+			Ring ring = new Ring(channels, time.length);
+			System.arraycopy(data, 0, ring.data, 0, data.length);
+			System.arraycopy(time, 0, ring.time, 0, time.length);
+			ring.next = next;
+			ring.count = count;
+			return ring;
+		}
+
+		/**
+		 * @param i record number, where 0 is the oldest record
+		 * @return index of the record in the ring
+		 */
+		int index(int i) {
+			return (next - count + i + time.length) % time.length;
+		}
+	}
+
+	private final String fileNameBase;
+	private final int capacity;					// Records per channel set
+	private Ring[] rings = new Ring[0];			// Rings by channel set id
+	private final RobotClock clock = RobotClock.get();
+	private long lastDumpTime;
+	private boolean dumped = false;
+	private final SimpleDateFormat fileDateFormat = new SimpleDateFormat("yyyy-MM-dd.HH-mm-ss");
+
+	/**
+	 * Creates a flight recorder that dumps to "/home/lvuser/logfile.blackbox.date.time.reason.bin"
+	 */
+	public FlightRecorder() {
+		this("/home/lvuser/logfile.blackbox", DEFAULT_SECONDS);
+	}
+
+	/**
+	 * Creates a flight recorder
+	 * @param fileNameBase path and base name of the dump files.  ".date.time.reason.bin" is added to the end.
+	 * @param seconds seconds of history to keep
+	 */
+	public FlightRecorder(String fileNameBase, double seconds) {
+		this.fileNameBase = fileNameBase + ".";
+		capacity = (int) Math.ceil(seconds * LOOPS_PER_SECOND);
+	}
+
+	/**
+	 * Records the current record of a channel set (call once per cycle, after filling in the record).
+	 * Only copies the record into memory.
+	 * @param channels channel set with a record filled in using startRecord() and put()
+	 */
+	public synchronized void record(LogChannels channels) {
+		byte[] record = channels.getRecordArray();
+		if (record == null) return;
+
+		int id = channels.getId();
+		if (id >= rings.length) {
+			Ring[] newRings = new Ring[id + 1];
+			System.arraycopy(rings, 0, newRings, 0, rings.length);
+			rings = newRings;
+		}
+		Ring ring = rings[id];
+		if (ring == null) {
+			ring = new Ring(channels, capacity);
+			rings[id] = ring;
+		}
+
+		int recordBytes = channels.getRecordBytes();
+		System.arraycopy(record, 0, ring.data, ring.next * recordBytes, recordBytes);
+		ring.time[ring.next] = clock.millis();
+		ring.next = (ring.next + 1) % capacity;
+		if (ring.count < capacity) ring.count++;
+	}
+
+	/**
+	 * Writes the recorded history to a file.  The history is copied, and the file is written by a
+	 * background thread, so this returns quickly.  Dumps closer together than MIN_DUMP_INTERVAL_MILLIS are skipped.
+	 * @param reason reason for the dump (used in the file name and the log)
+	 */
+	public synchronized void dump(String reason) {
+		long now = clock.millis();
+		if (dumped && now - lastDumpTime < MIN_DUMP_INTERVAL_MILLIS) {
+			Robot.log.writeLog("FlightRecorder", "Dump skipped", reason);
+			return;
+		}
+		if (rings.length == 0) {
+			Robot.log.writeLog("FlightRecorder", "Dump skipped", reason + ",No data recorded");
+			return;
+		}
+		lastDumpTime = now;
+		dumped = true;
+
+		Ring[] snapshot = new Ring[rings.length];
+		for (int i = 0; i < rings.length; i++) {
+			if (rings[i] != null) snapshot[i] = rings[i].copy();
+		}
+
+		// The file has wall clock times, so BinaryLogDecoder can print dates
+		long wallTime = System.currentTimeMillis();
+		long wallOffset = wallTime - now;
+		String fileName = fileNameBase + fileDateFormat.format(wallTime) + "." + reason.replaceAll("[^A-Za-z0-9-]", "_") + ".bin";
+		Robot.log.writeLogEcho("FlightRecorder", "Dump", reason + "," + fileName);
+
+		Thread thread = new Thread(() -> writeFile(fileName, snapshot, wallTime, wallOffset), "FlightRecorder dump");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	/**
+	 * Writes the rings to a binary log file, with the records from all channel sets merged in time order
+	 * @param wallOffset add to the ring times to get wall clock times
+	 */
+	private static void writeFile(String fileName, Ring[] snapshot, long dumpTime, long wallOffset) {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+			out.writeByte(FileLog.BIN_HEADER);
+			out.writeInt(FileLog.BIN_VERSION);
+			out.writeLong(dumpTime);
+
+			int[] position = new int[snapshot.length];
+			for (Ring ring : snapshot) {
+				if (ring != null) ring.channels.writeSchema(out);
+			}
+
+			while (true) {
+				// Find the oldest record that has not been written
+				int oldest = -1;
+				long oldestTime = Long.MAX_VALUE;
+				for (int id = 0; id < snapshot.length; id++) {
+					Ring ring = snapshot[id];
+					if (ring == null || position[id] >= ring.count) continue;
+					long time = ring.time[ring.index(position[id])];
+					if (time < oldestTime) {
+						oldest = id;
+						oldestTime = time;
+					}
+				}
+				if (oldest < 0) break;
+
+				Ring ring = snapshot[oldest];
+				int recordBytes = ring.channels.getRecordBytes();
+				out.writeByte(FileLog.BIN_DATA);
+				out.writeShort(oldest);
+				out.writeLong(oldestTime + wallOffset);
+				out.write(ring.data, ring.index(position[oldest]) * recordBytes, recordBytes);
+				position[oldest]++;
+			}
+		} catch (IOException exception) {
+			System.out.println("FlightRecorder could not write " + fileName + ": " + exception);
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+
+import frc.robot.Robot;
+
+/**
+ * Safety rules between the elevator, wrist, climber, and rear hatch, in one table.
+ * <p>
+ * The positions and targets of the mechanisms are read once per cycle into a snapshot (see update()),
+ * and each rule is checked against the snapshot and the requested target.  A rule can forbid a move
+ * or limit its target.  check() returns whether the move is allowed, the (limited) target, and the
+ * reason for the first rule that forbade or limited the move, for logging.
+ * <p>
+ * To add a constraint, add a rule to the table in the constructor.  Rules are checked in order.
+ * <p>
+ * Not thread safe.  Only use from the main robot thread.
+ */
+public class Interlocks {
+
+	/**
+	 * Moves that are checked by the interlocks
+	 */
+	public enum Move {
+		ELEVATOR_PROFILE,		// Elevator motion profile (roboRIO or Motion Magic), target in inches from the floor
+		ELEVATOR_POSITION,		// Elevator Talon Position control, target in inches from the floor
+		WRIST,					// Wrist angle, in degrees
+		CLIMB,					// Climber angle, in degrees
+		REAR_HATCH_EXTEND		// Extend the rear hatch piston (target is not used)
+	}
+
+	/**
+	 * Reason that a move was forbidden or limited (ALLOWED = no rule applied)
+	 */
+	public enum Reason {
+		ALLOWED,
+		ELEVATOR_NOT_CALIBRATED,
+		WRIST_NOT_CALIBRATED,
+		WRIST_STOWED,				// Wrist is in the keepout region
+		WRIST_MOVING_TO_STOW,		// Wrist is moving to the keepout region
+		WRIST_TOO_LOW,				// Wrist would crash into the robot if the elevator moves to the target
+		CLIMB_NOT_SAFE_FOR_STOW,	// Wrist can't move in or out of keepout because of the climber
+		ELEVATOR_NOT_SAFE_FOR_STOW,	// Wrist can't move in or out of keepout because of the elevator
+		ELEVATOR_LOW,				// Wrist target limited to wristVision because the elevator is low
+		WRIST_MIN,					// Wrist target limited to wristDown
+		WRIST_STOWED_CLIMB_MAX,		// Climber target limited to climbWristStowedSafe because the wrist is stowed
+		WRIST_MOVING_CLIMB_MAX,		// Climber target limited to climbWristMovingSafe because the wrist is moving
+		CLIMB_TOO_LOW				// Rear hatch can't extend during the climb
+	}
+
+	private enum Action { FORBID, MIN, MAX }
+
+	/**
+	 * One row of the interlock table
+	 */
+	private static class Rule {
+		final Action action;
+		final Reason reason;
+		final DoublePredicate applies;	// Called with the requested target
+		final DoubleSupplier limit;		// Limit for MIN and MAX rules
+
+		Rule(Action action, Reason reason, DoublePredicate applies, DoubleSupplier limit) {
+			this.action = action;
+			this.reason = reason;
+			this.applies = applies;
+			this.limit = limit;
+		}
+	}
+
+	/**
+	 * Result of checking a move
+	 */
+	public static class Result {
+		public final boolean allowed;
+		public final double target;		// Requested target, after any limits
+		public final Reason reason;		// Rule that forbade or limited the move
+
+		Result(boolean allowed, double target, Reason reason) {
+			this.allowed = allowed;
+			this.target = target;
+			this.reason = reason;
+		}
+
+		@Override
+		public String toString() {
+			return "Allowed," + (allowed ? "Yes" : "No") + ",Reason," + reason;
+		}
+	}
+
+	private final List<List<Rule>> rules = new ArrayList<>();		// Rules for each Move, in order
+
+	// Snapshot of the mechanisms (see update())
+	private boolean elevatorCalibrated, wristCalibrated, wristUpperLimit;
+	private double elevatorPos, elevatorTarget, wristAngle, wristTarget, climbAngle;
+
+	/**
+	 * Creates the interlock table.  Call update() before checking moves.
+	 */
+	public Interlocks() {
+		for (int i = 0; i < Move.values().length; i++) {
+			rules.add(new ArrayList<>());
+		}
+		RobotPreferences prefs = Robot.robotPrefs;
+
+		// Elevator:  the wrist must be out of keepout (unless the elevator stays at or below elevatorWristSafeStow),
+		// and high enough to clear the robot at the target
+		for (Move move : new Move[] {Move.ELEVATOR_PROFILE, Move.ELEVATOR_POSITION}) {
+			double wristLowest = (move == Move.ELEVATOR_PROFILE) ? prefs.wristLowerCrashWhenElevatorLow : prefs.wristStraight - 5.0;
+			forbid(move, Reason.ELEVATOR_NOT_CALIBRATED, pos -> !elevatorCalibrated);
+			forbid(move, Reason.WRIST_STOWED, pos -> wristAngle >= prefs.wristKeepOut && !isElevatorSafeForStow(pos));
+			forbid(move, Reason.WRIST_MOVING_TO_STOW, pos -> wristTarget >= prefs.wristKeepOut && !isElevatorSafeForStow(pos));
+			forbid(move, Reason.WRIST_TOO_LOW, pos ->
+				(wristAngle < wristLowest || wristTarget < wristLowest) &&			// Wrist is below wristLowest, so the elevator
+				(pos < prefs.groundCargo ||											// must stay at or above groundCargo and the
+					wristAngle < prefs.wristDown - 3.0 || wristTarget < prefs.wristDown - 3.0));	// wrist must be at least wristDown
+		}
+
+		// Wrist:  can't move in or out of keepout unless the climber and elevator are out of the way
+		forbid(Move.WRIST, Reason.WRIST_NOT_CALIBRATED, angle -> !wristCalibrated);
+		forbid(Move.WRIST, Reason.CLIMB_NOT_SAFE_FOR_STOW, angle ->
+			climbAngle > prefs.climbWristMovingSafe && crossesKeepOut(angle));
+		forbid(Move.WRIST, Reason.ELEVATOR_NOT_SAFE_FOR_STOW, angle ->
+			(elevatorPos > prefs.elevatorWristSafeStow || elevatorTarget > prefs.elevatorWristSafeStow) && crossesKeepOut(angle));
+		limit(Move.WRIST, Action.MIN, Reason.ELEVATOR_LOW, () -> prefs.wristVision, angle -> isElevatorLow());
+		limit(Move.WRIST, Action.MIN, Reason.WRIST_MIN, () -> prefs.wristDown, angle -> !isElevatorLow());
+
+		// Climber:  limited by the wrist position
+		limit(Move.CLIMB, Action.MAX, Reason.WRIST_STOWED_CLIMB_MAX, () -> prefs.climbWristStowedSafe, angle -> isWristStowed());
+		limit(Move.CLIMB, Action.MAX, Reason.WRIST_MOVING_CLIMB_MAX, () -> prefs.climbWristMovingSafe, angle ->
+			!isWristStowed() && (wristAngle > prefs.wristKeepOut || wristTarget > prefs.wristKeepOut));
+		// If rear hatch piston is extended and climb is told to go below climb prep, climber will only go to climb prep (to prevent crash).
+		// limit(Move.CLIMB, Action.MIN, Reason.REAR_HATCH_EXTENDED, () -> prefs.climbPrep, angle -> angle < prefs.climbPrep - 5);
+
+		// Rear hatch:  don't extend during the climb
+		forbid(Move.REAR_HATCH_EXTEND, Reason.CLIMB_TOO_LOW, target -> climbAngle <= prefs.climbPrep - 5);
+	}
+
+	private void forbid(Move move, Reason reason, DoublePredicate applies) {
+		rules.get(move.ordinal()).add(new Rule(Action.FORBID, reason, applies, null));
+	}
+
+	private void limit(Move move, Action action, Reason reason, DoubleSupplier limit, DoublePredicate applies) {
+		rules.get(move.ordinal()).add(new Rule(action, reason, applies, limit));
+	}
+
+	/**
+	 * @return true = moving the wrist to angle moves it in or out of the keepout region
+	 */
+	private boolean crossesKeepOut(double angle) {
+		return angle > Robot.robotPrefs.wristKeepOut || wristAngle > Robot.robotPrefs.wristKeepOut;
+	}
+
+	/**
+	 * @return true = elevator is at or below elevatorWristSafeStow, and so is the target pos
+	 */
+	private boolean isElevatorSafeForStow(double pos) {
+		return elevatorPos <= Robot.robotPrefs.elevatorWristSafeStow && pos <= Robot.robotPrefs.elevatorWristSafeStow;
+	}
+
+	/**
+	 * @return true = elevator is very low or is going very low
+	 */
+	private boolean isElevatorLow() {
+		return elevatorPos < Robot.robotPrefs.groundCargo - 2.0 || elevatorTarget < Robot.robotPrefs.groundCargo - 2.0;
+	}
+
+	/**
+	 * @return true = wrist is stowed and is not being moved to another position
+	 */
+	private boolean isWristStowed() {
+		return wristUpperLimit && wristTarget >= Robot.robotPrefs.wristStowed - 3;
+	}
+
+	/**
+	 * Reads the positions and targets of the mechanisms.  Robot calls this once per cycle, after
+	 * capturing the sensors.  Subsystems call this after setting a new target, so later moves in the
+	 * same cycle are checked against the new target.
+	 */
+	public void update() {
+		elevatorCalibrated = Robot.elevator.encoderCalibrated();
+		elevatorPos = Robot.elevator.getElevatorPos();
+		elevatorTarget = Robot.elevator.getCurrentElevatorTarget();
+		wristCalibrated = Robot.robotPrefs.wristCalibrated;
+		wristUpperLimit = Robot.wrist.getWristUpperLimit();
+		wristAngle = Robot.wrist.getWristAngle();
+		wristTarget = Robot.wrist.getCurrentWristTarget();
+		climbAngle = Robot.climb.getClimbAngle();
+	}
+
+	/**
+	 * Checks if a move is allowed, and limits its target
+	 * @param move move to check
+	 * @param target requested target (units depend on the move)
+	 * @return result (allowed, limited target, and reason)
+	 */
+	public Result check(Move move, double target) {
+		Reason reason = Reason.ALLOWED;
+		for (Rule rule : rules.get(move.ordinal())) {
+			if (!rule.applies.test(target)) continue;
+			if (rule.action == Action.FORBID) {
+				return new Result(false, target, rule.reason);
+			}
+			double limit = rule.limit.getAsDouble();
+			if ((rule.action == Action.MIN) ? target < limit : target > limit) {
+				target = limit;
+				if (reason == Reason.ALLOWED) reason = rule.reason;
+			}
+		}
+		return new Result(true, target, reason);
+	}
+
+	/**
+	 * @return snapshot of the mechanisms, for logging
+	 */
+	@Override
+	public String toString() {
+		return "Elevator Pos," + elevatorPos + ",Elevator Target," + elevatorTarget + ",Wrist Angle," + wristAngle +
+			",Wrist Target," + wristTarget + ",Wrist Upper Limit," + wristUpperLimit + ",Climb Angle," + climbAngle;
+	}
+}
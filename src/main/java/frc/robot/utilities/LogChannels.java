@@ -0,0 +1,189 @@
+package frc.robot.utilities;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * A set of named channels that a subsystem writes periodically to the binary log file.
+ * The channels are declared once, and then each record is written as primitives
+ * (no String building).  Use BinaryLogDecoder to turn the binary log back into CSV.
+ * <p>
+ * Usage:
+ * <pre>
+ * logChannels = Robot.log.registerChannels("Elevator", "Update Variables")
+ *     .addDouble("Volts1").addBoolean("Upper Limit");
+ * ...
+ * logChannels.startRecord().put(volts).put(upperLimit);
+ * Robot.log.writeChannels(false, logChannels);
+ * </pre>
+ * All channels must be added before the first call to startRecord().  Values must be put
+ * in the same order that the channels were added.
+ */
+public class LogChannels {
+
+	public static final byte TYPE_DOUBLE = 'D';		// 8 bytes
+	public static final byte TYPE_BOOLEAN = 'Z';	// 1 byte
+
+	private final int id;
+	private final String subsystem, event;
+	private final ArrayList<String> names = new ArrayList<String>();
+	private byte[] types = new byte[0];
+	private int recordBytes = 0;		// Size of the values in one record, in bytes
+
+	private ByteBuffer record;			// Values of the current record (created by the first call to startRecord)
+	private int channel = 0;			// Next channel to be put in the current record
+
+	/**
+	 * Creates a new set of log channels.  Use FileLog.registerChannels() instead of calling this directly.
+	 * @param id channel set number in the binary log file
+	 * @param subsystem The name of the subsytem or command generating the records
+	 * @param event A description of the records (ex. "Update Variables")
+	 */
+	LogChannels(int id, String subsystem, String event) {
+		this.id = id;
+		this.subsystem = subsystem;
+		this.event = event;
+	}
+
+	/**
+	 * Adds a double channel
+	 * @param name channel name (column heading in the decoded CSV)
+	 * @return this, so calls can be chained
+	 */
+	public LogChannels addDouble(String name) {
+		return addChannel(name, TYPE_DOUBLE, 8);
+	}
+
+	/**
+	 * Adds a boolean channel
+	 * @param name channel name (column heading in the decoded CSV)
+	 * @return this, so calls can be chained
+	 */
+	public LogChannels addBoolean(String name) {
+		return addChannel(name, TYPE_BOOLEAN, 1);
+	}
+
+	private LogChannels addChannel(String name, byte type, int size) {
+		if (record != null) {
+			System.out.println("LogChannels " + subsystem + ": channel " + name + " added after logging started, ignored");
+			return this;
+		}
+		names.add(name);
+		byte[] newTypes = new byte[types.length + 1];
+		System.arraycopy(types, 0, newTypes, 0, types.length);
+		newTypes[types.length] = type;
+		types = newTypes;
+		recordBytes += size;
+		return this;
+	}
+
+	/**
+	 * Starts a new record.  Follow this with one put() per channel.
+	 * @return this, so calls can be chained
+	 */
+	public LogChannels startRecord() {
+		if (record == null) {
+			record = ByteBuffer.wrap(new byte[recordBytes]);
+		}
+		record.clear();
+		channel = 0;
+		return this;
+	}
+
+	/**
+	 * Puts the value of the next channel in the current record
+	 * @param value value (a boolean channel records true for any non-zero value)
+	 * @return this, so calls can be chained
+	 */
+	public LogChannels put(double value) {
+		if (channel >= types.length) return this;
+		if (types[channel] == TYPE_DOUBLE) {
+			record.putDouble(value);
+		} else {
+			record.put((byte) (value != 0 ? 1 : 0));
+		}
+		channel++;
+		return this;
+	}
+
+	/**
+	 * Puts the value of the next channel in the current record
+	 * @param value value (a double channel records 1.0 for true and 0.0 for false)
+	 * @return this, so calls can be chained
+	 */
+	public LogChannels put(boolean value) {
+		if (channel >= types.length) return this;
+		if (types[channel] == TYPE_DOUBLE) {
+			record.putDouble(value ? 1.0 : 0.0);
+		} else {
+			record.put((byte) (value ? 1 : 0));
+		}
+		channel++;
+		return this;
+	}
+
+	/**
+	 * @return channel set number in the binary log file
+	 */
+	public int getId() {
+		return id;
+	}
+
+	public String getSubsystem() {
+		return subsystem;
+	}
+
+	public String getEvent() {
+		return event;
+	}
+
+	/**
+	 * @return number of channels
+	 */
+	public int getChannelCount() {
+		return types.length;
+	}
+
+	public String getChannelName(int channel) {
+		return names.get(channel);
+	}
+
+	/**
+	 * @return channel type (TYPE_DOUBLE or TYPE_BOOLEAN)
+	 */
+	public byte getChannelType(int channel) {
+		return types[channel];
+	}
+
+	/**
+	 * @return size of the values in one record, in bytes
+	 */
+	public int getRecordBytes() {
+		return recordBytes;
+	}
+
+	/**
+	 * Writes the schema record for this channel set to a binary log file (see FileLog.BIN_SCHEMA)
+	 * @param out binary log file
+	 */
+	void writeSchema(DataOutputStream out) throws IOException {
+		out.writeByte(FileLog.BIN_SCHEMA);
+		out.writeShort(id);
+		out.writeUTF(subsystem);
+		out.writeUTF(event);
+		out.writeShort(types.length);
+		for (int i = 0; i < types.length; i++) {
+			out.writeByte(types[i]);
+			out.writeUTF(names.get(i));
+		}
+	}
+
+	/**
+	 * @return backing array of the current record (values start at index 0), or null if no record has been started
+	 */
+	byte[] getRecordArray() {
+		return (record == null) ? null : record.array();
+	}
+}
@@ -0,0 +1,184 @@
+package frc.robot.utilities;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.GZIPOutputStream;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Low priority background thread that cleans up old log files:
+ * <li>While the robot is disabled, compresses closed .csv and .bin log files to .gz (BinaryLogDecoder reads .bin.gz).</li>
+ * <li>While the robot is disabled, compresses closed .csv and .bin log files to .gz.</li>
+ * <li>Deletes the oldest log files when the log files use more than the retention quota.</li></ul>
+ * Only files that start with the log file prefix are touched, and the files that FileLog is
+ * currently writing are never touched.
+ */
+public class LogMaintenance {
+
+	public final static double DEFAULT_QUOTA_MB = 100;
+	private final static long PASS_INTERVAL_MILLIS = 5000;
+	private final static int COPY_BUFFER_SIZE = 8192;
+
+	private final File directory;
+	private final String prefix;
+	private final Thread thread;
+	private volatile long quotaBytes = (long) (DEFAULT_QUOTA_MB * 1024 * 1024);
+	private volatile String[] activeNames = new String[0];		// Names of the files that FileLog is writing
+	private volatile boolean stopped = false;
+
+	/**
+	 * Creates the maintenance thread.  Call setActiveFiles() and then start().
+	 * @param directory directory holding the log files
+	 * @param prefix start of the file name of every log file (ex. "logfile.")
+	 */
+	public LogMaintenance(File directory, String prefix) {
+		this.directory = directory;
+		this.prefix = prefix;
+
+		thread = new Thread(this::run, "FileLog maintenance");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+	}
+
+	/**
+	 * Starts the maintenance thread
+	 */
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Sets the files that are being written, so that they are not compressed or deleted.
+	 * Call this before creating or renaming a file.
+	 * @param files files that FileLog is writing (or is about to create or rename)
+	 */
+	public void setActiveFiles(File... files) {
+		String[] names = new String[files.length];
+		for (int i = 0; i < files.length; i++) {
+			names[i] = files[i].getName();
+		}
+		activeNames = names;
+	}
+
+	/**
+	 * Sets the maximum total size of the log files.  The oldest files are deleted when the log files are larger than this.
+	 * @param megabytes quota in MB.  0 or less disables deleting files.
+	 */
+	public void setQuota(double megabytes) {
+		quotaBytes = (long) (megabytes * 1024 * 1024);
+	}
+
+	/**
+	 * Stops the maintenance thread
+	 */
+	public void stop() {
+		stopped = true;
+		thread.interrupt();
+	}
+
+	private void run() {
+		for (File file : listLogFiles()) {
+			if (file.getName().endsWith(".csv") && !isActive(file) && LogSegment.recover(file)) {
+				System.out.println("FileLog recovered unclosed log segment " + file.getName());
+			}
+		}
+
+		while (!stopped) {
+			if (isDisabled()) {
+				for (File file : listLogFiles()) {
+					String name = file.getName();
+					if ((name.endsWith(".csv") || name.endsWith(".bin")) && !isActive(file)) {
+						if (!compress(file)) break;
+					}
+				}
+			}
+
+			enforceQuota();
+
+			try {
+				Thread.sleep(PASS_INTERVAL_MILLIS);
+			} catch (InterruptedException exception) {
+			}
+		}
+	}
+
+	/**
+	 * Deletes the oldest log files until the log files are under the quota
+	 */
+	private void enforceQuota() {
+		long quota = quotaBytes;
+		if (quota <= 0) return;
+
+		File[] files = listLogFiles();
+		long total = 0;
+		for (File file : files) total += file.length();
+		if (total <= quota) return;
+
+		Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+		for (File file : files) {
+			if (total <= quota) break;
+			if (isActive(file)) continue;
+			long length = file.length();
+			if (file.delete()) {
+				total -= length;
+				System.out.println("FileLog deleted old log file " + file.getName());
+			}
+		}
+	}
+
+	/**
+	 * Compresses a file to file.gz and deletes the original.  Stops (and deletes the partial .gz file)
+	 * if the robot is enabled while compressing.
+	 * @return true if the file was compressed, false if compressing was stopped or failed
+	 */
+	private boolean compress(File file) {
+		File gzFile = new File(file.getPath() + ".gz");
+		boolean done = false;
+
+		try (InputStream in = new FileInputStream(file);
+				OutputStream out = new GZIPOutputStream(new FileOutputStream(gzFile), COPY_BUFFER_SIZE)) {
+			byte[] buffer = new byte[COPY_BUFFER_SIZE];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				if (!isDisabled() || stopped) break;
+				out.write(buffer, 0, n);
+			}
+			done = (n <= 0);
+		} catch (IOException exception) {
+			System.out.println("FileLog could not compress " + file.getName() + ": " + exception);
+		}
+
+		if (done) {
+			gzFile.setLastModified(file.lastModified());
+			file.delete();
+		} else {
+			gzFile.delete();
+		}
+		return done;
+	}
+
+	private File[] listLogFiles() {
+		File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix));
+		return (files == null) ? new File[0] : files;
+	}
+
+	private boolean isActive(File file) {
+		String name = file.getName();
+		for (String activeName : activeNames) {
+			if (name.equals(activeName)) return true;
+		}
+		return false;
+	}
+
+	private boolean isDisabled() {
+		DriverStation ds = DriverStation.getInstance();
+		return ds != null && ds.isDisabled();
+	}
+}
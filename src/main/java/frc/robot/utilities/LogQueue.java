@@ -0,0 +1,251 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue used to hand log records from the robot threads to the
+ * FileLog writer thread.  Any thread may offer records, but only one thread (the writer)
+ * may read them.  All slots are allocated up front, so offering a record does not
+ * allocate memory or block.  If the queue is full, the record is dropped and counted.
+ * <p>
+ * Each slot has a sequence number that tells producers and the consumer whether
+ * the slot is free or holds a published record (bounded MPSC ring buffer).
+ * <p>
+ * A record is a text record (subsystem, event, message), a byte message record (subsystem, event,
+ * and a copy of the message bytes from a LogRecord), or a binary record (channel set id and a copy
+ * of the record bytes).  Each slot keeps its own payload array,
+ * which only grows when a larger record is stored, so binary records do not allocate
+ * memory once the queue has warmed up.
+ */
+public class LogQueue {
+
+	private final int capacity;
+	private final int mask;
+	private final AtomicLongArray sequence;		// Sequence number of each slot
+	private final AtomicLong tail = new AtomicLong(0);	// Next position to be claimed by a producer
+	private long head = 0;							// Next position to be read by the consumer (writer thread only)
+	private final AtomicLong dropped = new AtomicLong(0);	// Records dropped because the queue was full
+
+	public static final int TEXT_RECORD = -1;		// Channel set id for text records
+	public static final int BYTES_RECORD = -2;		// Channel set id for byte message records
+	private static final int INITIAL_PAYLOAD_BYTES = 256;
+
+	// Record contents, stored by slot
+	private final long[] time;
+	private final String[] subsystem, event, msg;
+	private final int[] channelSetId;
+	private final byte[][] payload;
+	private final int[] payloadLength;
+
+	/**
+	 * Creates a new log queue
+	 * @param capacity minimum number of records that the queue can hold (rounded up to a power of 2)
+	 */
+	public LogQueue(int capacity) {
+		int size = 1;
+		while (size < capacity) size <<= 1;
+		this.capacity = size;
+		mask = size - 1;
+
+		sequence = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			sequence.set(i, i);
+		}
+		time = new long[size];
+		subsystem = new String[size];
+		event = new String[size];
+		msg = new String[size];
+		channelSetId = new int[size];
+		payload = new byte[size][];
+		payloadLength = new int[size];
+		for (int i = 0; i < size; i++) {
+			payload[i] = new byte[INITIAL_PAYLOAD_BYTES];
+		}
+	}
+
+	/**
+	 * Adds a record to the queue.  Safe to call from any thread.  Never blocks.
+	 * @param timeMillis time stamp of the record, in the same format as RobotClock.millis()
+	 * @param subsystemOrCommand The name of the subsytem or command generating the message
+	 * @param eventName A description of the event (ex. start, data, event)
+	 * @param message The message
+	 * @return true = record queued, false = queue is full and the record was dropped
+	 */
+	public boolean offer(long timeMillis, String subsystemOrCommand, String eventName, String message) {
+		int index = claimSlot();
+		if (index < 0) return false;
+
+		time[index] = timeMillis;
+		subsystem[index] = subsystemOrCommand;
+		event[index] = eventName;
+		msg[index] = message;
+		channelSetId[index] = TEXT_RECORD;
+		publishSlot(index);
+		return true;
+	}
+
+	/**
+	 * Adds a record with the message as ASCII bytes to the queue.  The message bytes are copied, so the caller may
+	 * reuse its array as soon as this returns.  Safe to call from any thread.  Never blocks.
+	 * @param timeMillis time stamp of the record, in the same format as RobotClock.millis()
+	 * @param subsystemOrCommand The name of the subsytem or command generating the message
+	 * @param eventName A description of the event (ex. start, data, event)
+	 * @param message message bytes
+	 * @param length number of bytes to copy from message
+	 * @return true = record queued, false = queue is full and the record was dropped
+	 */
+	public boolean offer(long timeMillis, String subsystemOrCommand, String eventName, byte[] message, int length) {
+		int index = claimSlot();
+		if (index < 0) return false;
+
+		copyPayload(index, message, length);
+		time[index] = timeMillis;
+		subsystem[index] = subsystemOrCommand;
+		event[index] = eventName;
+		channelSetId[index] = BYTES_RECORD;
+		publishSlot(index);
+		return true;
+	}
+
+	/**
+	 * Adds a binary record to the queue.  The record bytes are copied, so the caller may
+	 * reuse its array as soon as this returns.  Safe to call from any thread.  Never blocks.
+	 * @param timeMillis time stamp of the record, in the same format as RobotClock.millis()
+	 * @param id channel set id of the record (see LogChannels)
+	 * @param data record bytes
+	 * @param length number of bytes to copy from data
+	 * @return true = record queued, false = queue is full and the record was dropped
+	 */
+	public boolean offer(long timeMillis, int id, byte[] data, int length) {
+		int index = claimSlot();
+		if (index < 0) return false;
+
+		copyPayload(index, data, length);
+		time[index] = timeMillis;
+		channelSetId[index] = id;
+		publishSlot(index);
+		return true;
+	}
+
+	/**
+	 * Copies bytes into the payload of a claimed slot, growing the slot's payload array if needed
+	 */
+	private void copyPayload(int index, byte[] data, int length) {
+		if (payload[index].length < length) {
+			payload[index] = new byte[Integer.highestOneBit(length) << 1];
+		}
+		System.arraycopy(data, 0, payload[index], 0, length);
+		payloadLength[index] = length;
+	}
+
+	/**
+	 * Claims the next free slot for a producer.  The caller must fill in the slot and then call publishSlot().
+	 * @return index of the claimed slot, or -1 if the queue is full (the record is counted as dropped)
+	 */
+	private int claimSlot() {
+		long pos = tail.get();
+		while (true) {
+			int index = (int) pos & mask;
+			long diff = sequence.get(index) - pos;
+			if (diff == 0) {
+				// Slot is free.  Try to claim it.
+				if (tail.compareAndSet(pos, pos + 1)) return index;
+				pos = tail.get();
+			} else if (diff < 0) {
+				// Slot still holds a record that the writer has not read, so the queue is full
+				dropped.incrementAndGet();
+				return -1;
+			} else {
+				// Another producer claimed this slot first
+				pos = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Makes a filled slot visible to the consumer
+	 * @param index slot index from claimSlot()
+	 */
+	private void publishSlot(int index) {
+		long pos = sequence.get(index);
+		sequence.set(index, pos + 1);
+	}
+
+	/**
+	 * Gets the slot holding the oldest record in the queue.  Writer thread only.
+	 * @return slot index, or -1 if the queue is empty
+	 */
+	public int peekSlot() {
+		int index = (int) head & mask;
+		return (sequence.get(index) == head + 1) ? index : -1;
+	}
+
+	/**
+	 * Frees the slot returned by peekSlot(), so that producers can reuse it.  Writer thread only.
+	 * @param index slot index from peekSlot()
+	 */
+	public void releaseSlot(int index) {
+		subsystem[index] = null;
+		event[index] = null;
+		msg[index] = null;
+		sequence.set(index, head + capacity);
+		head++;
+	}
+
+	public long getTime(int index) {
+		return time[index];
+	}
+
+	public String getSubsystem(int index) {
+		return subsystem[index];
+	}
+
+	public String getEvent(int index) {
+		return event[index];
+	}
+
+	public String getMsg(int index) {
+		return msg[index];
+	}
+
+	/**
+	 * @return channel set id of a binary record, TEXT_RECORD for a text record, or BYTES_RECORD for a byte message record
+	 */
+	public int getChannelSetId(int index) {
+		return channelSetId[index];
+	}
+
+	/**
+	 * @return payload array of a binary or byte message record (only the first getPayloadLength() bytes are valid)
+	 */
+	public byte[] getPayload(int index) {
+		return payload[index];
+	}
+
+	public int getPayloadLength(int index) {
+		return payloadLength[index];
+	}
+
+	/**
+	 * @return true if there are no records waiting for the writer
+	 */
+	public boolean isEmpty() {
+		return peekSlot() < 0;
+	}
+
+	/**
+	 * Returns the number of records dropped since the last call, and resets the count to zero.
+	 * @return number of records dropped because the queue was full
+	 */
+	public long getAndResetDropped() {
+		return dropped.getAndSet(0);
+	}
+
+	/**
+	 * @return maximum number of records the queue can hold
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,48 @@
+package frc.robot.utilities;
+
+/**
+ * Limits how many records per second one log channel (subsystem and event) may write.
+ * Records over the limit are counted instead of written.  The count is reported with the
+ * next record that is allowed through, so a burst turns into one "Suppressed,K" line.
+ */
+class LogRateLimiter {
+
+	private final int maxPerSecond;
+	private long windowStart = 0;		// Start of the current one second window, in ms
+	private int count = 0;				// Records allowed in the current window
+	private int suppressed = 0;			// Records dropped since the last report
+
+	/**
+	 * @param maxPerSecond maximum number of records per second to allow
+	 */
+	LogRateLimiter(int maxPerSecond) {
+		this.maxPerSecond = maxPerSecond;
+	}
+
+	/**
+	 * Checks if a record may be written now
+	 * @param timeMillis current time, in ms
+	 * @return -1 = record is over the limit (do not write it), otherwise the number of records
+	 * suppressed since the last allowed record (write the record, and report the count if it is non-zero)
+	 */
+	synchronized int check(long timeMillis) {
+		if (timeMillis - windowStart >= 1000 || timeMillis < windowStart) {
+			windowStart = timeMillis;
+			count = 0;
+		}
+
+		if (count >= maxPerSecond) {
+			suppressed++;
+			return -1;
+		}
+
+		count++;
+		int report = suppressed;
+		suppressed = 0;
+		return report;
+	}
+
+	int getMaxPerSecond() {
+		return maxPerSecond;
+	}
+}
@@ -0,0 +1,211 @@
+package frc.robot.utilities;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable builder for the message part of a log record.  Values are written as
+ * "key,value,key,value,..." directly into a byte buffer that is kept between records,
+ * so building a record does not box values or create Strings.
+ * <p>
+ * Usage:
+ * <pre>
+ * logRecord = new LogRecord("Pathfinder", "execute");
+ * ...
+ * logRecord.start().add("left power", l).add("left isFinished", done);
+ * Robot.log.writeLog(false, logRecord);
+ * </pre>
+ * Doubles are written with up to DECIMAL_PLACES digits after the decimal point
+ * (trailing zeros are dropped).  Keys should be plain ASCII.
+ * A LogRecord must only be used by one thread at a time.
+ */
+public class LogRecord {
+
+	public static final int DECIMAL_PLACES = 6;
+	private static final long DECIMAL_SCALE = 1000000;	// 10^DECIMAL_PLACES
+	private static final double MAX_FIXED = 1e12;		// Larger values are written with Double.toString()
+
+	private final String subsystem, event;
+	private byte[] buffer;
+	private int length = 0;
+
+	/**
+	 * Creates a new log record builder
+	 * @param subsystemOrCommand The name of the subsytem or command generating the message
+	 * @param event A description of the event (ex. start, data, event)
+	 */
+	public LogRecord(String subsystemOrCommand, String event) {
+		this(subsystemOrCommand, event, 256);
+	}
+
+	/**
+	 * Creates a new log record builder
+	 * @param subsystemOrCommand The name of the subsytem or command generating the message
+	 * @param event A description of the event (ex. start, data, event)
+	 * @param initialSize starting size of the buffer, in bytes (the buffer grows if needed)
+	 */
+	public LogRecord(String subsystemOrCommand, String event, int initialSize) {
+		this.subsystem = subsystemOrCommand;
+		this.event = event;
+		buffer = new byte[Math.max(initialSize, 16)];
+	}
+
+	/**
+	 * Clears the record so that a new message can be built
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord start() {
+		length = 0;
+		return this;
+	}
+
+	/**
+	 * Adds a key and value to the message
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord add(String key, double value) {
+		appendKey(key);
+		appendDouble(value);
+		return this;
+	}
+
+	/**
+	 * Adds a key and value to the message
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord add(String key, int value) {
+		appendKey(key);
+		appendLong(value);
+		return this;
+	}
+
+	/**
+	 * Adds a key and value to the message
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord add(String key, long value) {
+		appendKey(key);
+		appendLong(value);
+		return this;
+	}
+
+	/**
+	 * Adds a key and value to the message
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord add(String key, boolean value) {
+		appendKey(key);
+		appendAscii(value ? "true" : "false");
+		return this;
+	}
+
+	/**
+	 * Adds a key and value to the message
+	 * @return this, so calls can be chained
+	 */
+	public LogRecord add(String key, String value) {
+		appendKey(key);
+		appendAscii(value);
+		return this;
+	}
+
+	public String getSubsystem() {
+		return subsystem;
+	}
+
+	public String getEvent() {
+		return event;
+	}
+
+	/**
+	 * @return length of the message, in bytes
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * @return buffer holding the message (only the first getLength() bytes are valid)
+	 */
+	byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return the message as a String (creates a new String, so don't use this in periodic code)
+	 */
+	@Override
+	public String toString() {
+		return new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+	}
+
+	private void appendKey(String key) {
+		if (length > 0) appendByte(',');
+		appendAscii(key);
+		appendByte(',');
+	}
+
+	private void appendByte(int b) {
+		if (length == buffer.length) {
+			byte[] newBuffer = new byte[buffer.length * 2];
+			System.arraycopy(buffer, 0, newBuffer, 0, length);
+			buffer = newBuffer;
+		}
+		buffer[length++] = (byte) b;
+	}
+
+	private void appendAscii(String s) {
+		if (s == null) s = "null";
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			appendByte(c < 0x80 ? c : '?');
+		}
+	}
+
+	private void appendLong(long value) {
+		if (value == Long.MIN_VALUE) {
+			appendAscii(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			appendByte('-');
+			value = -value;
+		}
+
+		// Count the digits, then write them from the last digit to the first
+		int digits = 1;
+		for (long v = value / 10; v > 0; v /= 10) digits++;
+		for (int i = 0; i < digits; i++) appendByte('0');
+		int pos = length - 1;
+		for (int i = 0; i < digits; i++) {
+			buffer[pos--] = (byte) ('0' + (value % 10));
+			value /= 10;
+		}
+	}
+
+	private void appendDouble(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= MAX_FIXED) {
+			appendAscii(Double.toString(value));
+			return;
+		}
+
+		long scaled = Math.round(Math.abs(value) * DECIMAL_SCALE);
+		if (value < 0 && scaled != 0) appendByte('-');
+		appendLong(scaled / DECIMAL_SCALE);
+		appendByte('.');
+
+		long fraction = scaled % DECIMAL_SCALE;
+		if (fraction == 0) {
+			appendByte('0');
+			return;
+		}
+
+		// Write all of the decimal places, then drop the trailing zeros
+		int start = length;
+		for (int i = 0; i < DECIMAL_PLACES; i++) appendByte('0');
+		for (int pos = length - 1; pos >= start; pos--) {
+			buffer[pos] = (byte) ('0' + (fraction % 10));
+			fraction /= 10;
+		}
+		while (buffer[length - 1] == '0') length--;
+	}
+}
@@ -0,0 +1,200 @@
+package frc.robot.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One pre-allocated log file segment, written through a memory-mapped buffer.
+ * <p>
+ * The file starts with a fixed-width text header line:
+ * <pre>
+ * #FileLog segment,000003,Length,000000123456,Open
+ * </pre>
+ * The length is the number of bytes (including the header) that have been forced to disk.
+ * commit() writes the data to disk first and then updates the length, so after a brownout the
+ * file is good up to the length in the header.  Anything after that is zeros or a partial page.
+ * close() (or recover(), for a segment that was never closed) truncates the file to the
+ * committed length and marks it Closed, so it reads as a normal CSV file.
+ * <p>
+ * Only one thread may use a LogSegment.
+ */
+public class LogSegment {
+
+	public final static int HEADER_SIZE = 64;
+	private final static String HEADER_PREFIX = "#FileLog segment,";
+	private final static int SEQUENCE_OFFSET = HEADER_PREFIX.length();			// 6 digits
+	private final static int LENGTH_OFFSET = SEQUENCE_OFFSET + 6 + ",Length,".length();	// 12 digits
+	private final static int STATE_OFFSET = LENGTH_OFFSET + 12 + 1;				// "Open  " or "Closed"
+
+	private File file;
+	private RandomAccessFile raf;
+	private MappedByteBuffer buffer;
+	private int committed;				// Bytes forced to disk (recorded in the header)
+
+	/**
+	 * Creates a new segment file of a fixed size and maps it into memory.  If the file
+	 * cannot be created, then isOpen() returns false and all writes are ignored.
+	 * @param file file to create (an existing file is overwritten)
+	 * @param sequence segment number, recorded in the header
+	 * @param capacity size of the segment file, in bytes
+	 */
+	public LogSegment(File file, int sequence, int capacity) {
+		this.file = file;
+
+		try {
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(0);
+			raf.setLength(capacity);
+			buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+			byte[] header = String.format("%s%06d,Length,%012d,Open  ", HEADER_PREFIX, sequence % 1000000, HEADER_SIZE)
+				.getBytes(StandardCharsets.ISO_8859_1);
+			buffer.put(header);
+			while (buffer.position() < HEADER_SIZE - 1) buffer.put((byte) ' ');
+			buffer.put((byte) '\n');
+			committed = HEADER_SIZE;
+			buffer.force();
+		} catch (IOException exception) {
+			System.out.println("Could not create log segment " + file + ": " + exception);
+			closeFile();
+			buffer = null;
+		}
+	}
+
+	/**
+	 * @return true if the segment is open for writing
+	 */
+	public boolean isOpen() {
+		return buffer != null;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * @return number of bytes written to the segment, including the header
+	 */
+	public int getPosition() {
+		return (buffer == null) ? 0 : buffer.position();
+	}
+
+	/**
+	 * @return number of bytes left in the segment
+	 */
+	public int getRemaining() {
+		return (buffer == null) ? 0 : buffer.remaining();
+	}
+
+	/**
+	 * Writes text to the segment.  Characters above 0xFF are written as '?'.
+	 * @param text text to write
+	 * @return true = written, false = not enough room in the segment (nothing is written)
+	 */
+	public boolean write(CharSequence text) {
+		if (buffer == null) return false;
+		int length = text.length();
+		if (length > buffer.remaining()) return false;
+
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			buffer.put((byte) (c <= 0xff ? c : '?'));
+		}
+		return true;
+	}
+
+	/**
+	 * Forces the written data to disk, then records the new length in the header.
+	 */
+	public void commit() {
+		if (buffer == null || buffer.position() == committed) return;
+
+		int position = buffer.position();
+		buffer.force();
+		writeDigits(LENGTH_OFFSET, position, 12);
+		buffer.force();
+		committed = position;
+	}
+
+	/**
+	 * Renames the segment file.  The segment stays open.
+	 * @param newFile new name
+	 * @return true if the file was renamed
+	 */
+	public boolean renameTo(File newFile) {
+		if (file.renameTo(newFile)) {
+			file = newFile;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Commits the data, marks the segment Closed, and truncates the file to the data that was written.
+	 */
+	public void close() {
+		if (buffer == null) return;
+
+		commit();
+		writeState("Closed");
+		buffer.force();
+		buffer = null;
+		try {
+			raf.setLength(committed);
+		} catch (IOException exception) {
+		}
+		closeFile();
+	}
+
+	private void closeFile() {
+		try {
+			if (raf != null) raf.close();
+		} catch (IOException exception) {
+		}
+		raf = null;
+	}
+
+	private void writeDigits(int offset, long value, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			buffer.put(i, (byte) ('0' + (value % 10)));
+			value /= 10;
+		}
+	}
+
+	private void writeState(String state) {
+		for (int i = 0; i < state.length(); i++) {
+			buffer.put(STATE_OFFSET + i, (byte) state.charAt(i));
+		}
+	}
+
+	/**
+	 * Checks if a file is a segment that was not closed (ex. the robot lost power).  If so,
+	 * truncates it to the committed length from its header and marks it Closed.
+	 * @param file file to check
+	 * @return true if the file was an open segment and was recovered
+	 */
+	public static boolean recover(File file) {
+		if (file.length() < HEADER_SIZE) return false;
+
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			byte[] header = new byte[HEADER_SIZE];
+			raf.readFully(header);
+			String text = new String(header, StandardCharsets.ISO_8859_1);
+			if (!text.startsWith(HEADER_PREFIX) || !text.startsWith("Open", STATE_OFFSET)) return false;
+
+			long length = Long.parseLong(text.substring(LENGTH_OFFSET, LENGTH_OFFSET + 12));
+			length = Math.max(HEADER_SIZE, Math.min(length, raf.length()));
+
+			raf.seek(STATE_OFFSET);
+			raf.write("Closed".getBytes(StandardCharsets.ISO_8859_1));
+			raf.setLength(length);
+			return true;
+		} catch (IOException | NumberFormatException exception) {
+			return false;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package frc.robot.utilities;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+/**
+ * Motion Magic position control on a Talon SRX, in inches instead of Talon units.  The Talon runs the
+ * profile and the PIDF loop at 1 kHz, so the roboRIO only sends a new target when the target changes.
+ * <p>
+ * The Talon gains are set from the same units as the roboRIO profile gains (percent output per in/s
+ * and per inch), and a feed forward (ex. to hold a mechanism up against gravity) is sent with the
+ * target as an arbitrary feed forward.
+ * <p>
+ * Use MotionMagicController.Talon on the robot.  SimulatedTalon is a stand-in for testing without hardware.
+ */
+public abstract class MotionMagicController {
+
+	public static final int SLOT = 1;			// Talon PID slot for Motion Magic (slot 0 is for Position control)
+
+	private final double ticksPerInch;
+
+	/**
+	 * @param ticksPerInch encoder ticks per inch of travel
+	 */
+	public MotionMagicController(double ticksPerInch) {
+		this.ticksPerInch = ticksPerInch;
+	}
+
+	/**
+	 * Sets the Motion Magic profile limits and PID gains
+	 * @param cruiseVelocity max velocity, in in/s
+	 * @param acceleration max acceleration, in in/s^2
+	 * @param kV velocity feed forward, in percent output per in/s
+	 * @param kP proportional gain, in percent output per inch of error
+	 */
+	public void configure(double cruiseVelocity, double acceleration, double kV, double kP) {
+		// Talon units:  velocity is ticks per 100ms, acceleration is ticks per 100ms per second,
+		// and gains are in units of 1023 = full output
+		configNative((int) Math.round(cruiseVelocity * ticksPerInch / 10), (int) Math.round(acceleration * ticksPerInch / 10),
+			kP * 1023 / ticksPerInch, kV * 1023 * 10 / ticksPerInch);
+	}
+
+	/**
+	 * Starts moving to a target position
+	 * @param position target, in inches from the encoder zero
+	 * @param feedForward percent output to add to the Talon PIDF output (-1 to +1)
+	 */
+	public void setTarget(double position, double feedForward) {
+		setNative(position * ticksPerInch, feedForward);
+	}
+
+	/**
+	 * @return position that the Talon profile is at now, in inches from the encoder zero
+	 */
+	public double getTrajectoryPosition() {
+		return getTrajectoryPositionNative() / ticksPerInch;
+	}
+
+	/**
+	 * @return encoder ticks per inch of travel
+	 */
+	public double getTicksPerInch() {
+		return ticksPerInch;
+	}
+
+	/**
+	 * Sets the Motion Magic limits and gains, in Talon units
+	 * @param cruiseVelocity ticks per 100ms
+	 * @param acceleration ticks per 100ms per second
+	 * @param kP 1023 per tick of error
+	 * @param kF 1023 per tick per 100ms
+	 */
+	protected abstract void configNative(int cruiseVelocity, int acceleration, double kP, double kF);
+
+	/**
+	 * Starts Motion Magic to a target, in Talon units
+	 * @param target encoder ticks
+	 * @param arbitraryFeedForward percent output (-1 to +1)
+	 */
+	protected abstract void setNative(double target, double arbitraryFeedForward);
+
+	/**
+	 * @return position that the Talon profile is at now, in encoder ticks
+	 */
+	protected abstract double getTrajectoryPositionNative();
+
+	/**
+	 * Motion Magic on a Talon SRX
+	 */
+	public static class Talon extends MotionMagicController {
+		private final BaseMotorController motor;
+
+		/**
+		 * @param motor Talon with the encoder (other motors should follow it)
+		 * @param ticksPerInch encoder ticks per inch of travel
+		 */
+		public Talon(BaseMotorController motor, double ticksPerInch) {
+			super(ticksPerInch);
+			this.motor = motor;
+		}
+
+		@Override
+		protected void configNative(int cruiseVelocity, int acceleration, double kP, double kF) {
+			motor.configMotionCruiseVelocity(cruiseVelocity);
+			motor.configMotionAcceleration(acceleration);
+			motor.config_kP(SLOT, kP);
+			motor.config_kI(SLOT, 0);
+			motor.config_kD(SLOT, 0);
+			motor.config_kF(SLOT, kF);
+		}
+
+		@Override
+		protected void setNative(double target, double arbitraryFeedForward) {
+			motor.selectProfileSlot(SLOT, 0);
+			motor.set(ControlMode.MotionMagic, target, DemandType.ArbitraryFeedForward, arbitraryFeedForward);
+		}
+
+		@Override
+		protected double getTrajectoryPositionNative() {
+			return motor.getActiveTrajectoryPosition();
+		}
+	}
+}
@@ -0,0 +1,263 @@
+package frc.robot.utilities;
+
+/**
+ * Time-indexed motion profile for a move of a given distance, starting at a given velocity and ending stopped.
+ * The profile is solved once in the constructor, then getPosition(), getVelocity(), and getAcceleration()
+ * can be evaluated for any time since the start of the profile without integrating, so loop timing jitter
+ * does not change the path.
+ * <p>
+ * The profile is a trapezoid (constant acceleration, cruise, constant deceleration) when maxJerk is 0,
+ * or an S-curve (each change in acceleration is limited to maxJerk) when maxJerk is greater than 0.
+ * If the starting velocity is away from the target, or too fast to stop at the target, the profile
+ * first stops and then moves back to the target.
+ * <p>
+ * Profiles are immutable, so they can be shared between threads.
+ */
+public class MotionProfile {
+
+	private static final int MAX_SEGMENTS = 10;	// stop (3) + speed up (3) + cruise (1) + slow down (3)
+
+	private final double distance;				// total change in position (+ or -)
+	private final double maxVelocity, maxAcceleration, maxDeceleration, maxJerk;
+
+	// Constant-jerk segments, in time order
+	private final double[] startTime = new double[MAX_SEGMENTS];
+	private final double[] startPos = new double[MAX_SEGMENTS];
+	private final double[] startVel = new double[MAX_SEGMENTS];
+	private final double[] startAccel = new double[MAX_SEGMENTS];
+	private final double[] jerk = new double[MAX_SEGMENTS];
+	private int segments = 0;
+	private double totalTime = 0;
+
+	// Position, velocity, and acceleration at the end of the last segment added (only used while solving)
+	private double endPos = 0, endVel, endAccel = 0;
+
+	/**
+	 * Creates a profile that moves by distance and ends stopped
+	 * @param distance change in position (+ or -)
+	 * @param initialVelocity velocity at the start of the profile (+ or -)
+	 * @param maxVelocity max speed (> 0)
+	 * @param maxAcceleration max acceleration when speeding up (> 0)
+	 * @param maxDeceleration max deceleration when slowing down (> 0)
+	 * @param maxJerk max change in acceleration per second (> 0), or 0 for a trapezoidal profile
+	 */
+	public MotionProfile(double distance, double initialVelocity, double maxVelocity,
+			double maxAcceleration, double maxDeceleration, double maxJerk) {
+		this.distance = distance;
+		this.maxVelocity = maxVelocity;
+		this.maxAcceleration = maxAcceleration;
+		this.maxDeceleration = maxDeceleration;
+		this.maxJerk = Math.max(0, maxJerk);
+		endVel = initialVelocity;
+
+		// Work in the direction of the move (sign = +1 or -1)
+		double sign = (distance >= 0) ? 1 : -1;
+		double remaining = Math.abs(distance);
+		double v0 = initialVelocity * sign;
+
+		if (v0 < 0) {
+			// Moving away from the target:  stop first
+			remaining -= changeDistance(v0, 0);		// Distance moved away from the target (v0 < 0)
+			addChange(v0, 0, sign);
+			v0 = 0;
+		}
+
+		double stoppingDistance = changeDistance(v0, 0);
+		if (remaining < stoppingDistance) {
+			// Too fast to stop at the target:  stop past the target, then move back from rest
+			addChange(v0, 0, sign);
+			sign = -sign;
+			remaining = stoppingDistance - remaining;
+			v0 = 0;
+		}
+
+		// Speed up (or slow down) to the peak velocity, cruise, then slow down to stop at the target
+		double peakVelocity = findPeakVelocity(remaining, v0);
+		double cruiseDistance = Math.max(0, remaining - changeDistance(v0, peakVelocity) - changeDistance(peakVelocity, 0));
+		addChange(v0, peakVelocity, sign);
+		if (cruiseDistance > 0 && peakVelocity > 0) {
+			addSegment(cruiseDistance / peakVelocity, 0);
+		}
+		addChange(peakVelocity, 0, sign);
+	}
+
+	/**
+	 * Finds the fastest peak velocity (up to maxVelocity) that can start at v0 and stop within distance.
+	 * Only called with distance >= the stopping distance from v0.
+	 */
+	private double findPeakVelocity(double distance, double v0) {
+		if (changeDistance(v0, maxVelocity) + changeDistance(maxVelocity, 0) <= distance) {
+			return maxVelocity;
+		}
+		if (v0 >= maxVelocity) {
+			// Already faster than maxVelocity, and slowing to maxVelocity first would go past the target:  just slow down
+			return v0;
+		}
+		if (maxJerk == 0) {
+			// Trapezoid:  (vp^2 - v0^2) / 2a + vp^2 / 2d = distance
+			return Math.sqrt((distance + v0 * v0 / (2 * maxAcceleration))
+				/ (1 / (2 * maxAcceleration) + 1 / (2 * maxDeceleration)));
+		}
+		// S-curve:  the distance increases with the peak velocity, so search between v0 and maxVelocity
+		double low = v0, high = maxVelocity;
+		for (int i = 0; i < 60; i++) {
+			double mid = (low + high) / 2;
+			if (changeDistance(v0, mid) + changeDistance(mid, 0) <= distance) {
+				low = mid;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Max acceleration for a change from speed va to speed vb (both in the same direction)
+	 */
+	private double changeAccelLimit(double va, double vb) {
+		return (Math.abs(vb) > Math.abs(va)) ? maxAcceleration : maxDeceleration;
+	}
+
+	/**
+	 * Time to change velocity from va to vb (starting and ending with no acceleration)
+	 */
+	private double changeTime(double va, double vb) {
+		double deltaV = Math.abs(vb - va);
+		double accel = changeAccelLimit(va, vb);
+		if (maxJerk == 0) {
+			return deltaV / accel;
+		} else if (deltaV >= accel * accel / maxJerk) {
+			return deltaV / accel + accel / maxJerk;
+		} else {
+			return 2 * Math.sqrt(deltaV / maxJerk);
+		}
+	}
+
+	/**
+	 * Distance travelled while changing velocity from va to vb.  Each change is symmetric,
+	 * so the average velocity is (va + vb) / 2.
+	 */
+	private double changeDistance(double va, double vb) {
+		return (va + vb) / 2 * changeTime(va, vb);
+	}
+
+	/**
+	 * Adds the segments to change velocity from va to vb
+	 * @param sign direction of va and vb (+1 or -1)
+	 */
+	private void addChange(double va, double vb, double sign) {
+		double deltaV = Math.abs(vb - va);
+		if (deltaV == 0) return;
+		double accelSign = Math.signum(vb - va) * sign;
+		double accel = changeAccelLimit(va, vb);
+		if (maxJerk == 0) {
+			endAccel = accelSign * accel;
+			addSegment(deltaV / accel, 0);
+		} else if (deltaV >= accel * accel / maxJerk) {
+			double jerkTime = accel / maxJerk;
+			addSegment(jerkTime, accelSign * maxJerk);
+			addSegment(deltaV / accel - jerkTime, 0);
+			addSegment(jerkTime, -accelSign * maxJerk);
+		} else {
+			double jerkTime = Math.sqrt(deltaV / maxJerk);
+			addSegment(jerkTime, accelSign * maxJerk);
+			addSegment(jerkTime, -accelSign * maxJerk);
+		}
+		endVel = vb * sign;		// Remove round-off
+		endAccel = 0;
+	}
+
+	/**
+	 * Adds a segment that starts at the end of the last segment
+	 * @param duration seconds
+	 * @param segmentJerk jerk during the segment
+	 */
+	private void addSegment(double duration, double segmentJerk) {
+		if (duration <= 0) return;
+		startTime[segments] = totalTime;
+		startPos[segments] = endPos;
+		startVel[segments] = endVel;
+		startAccel[segments] = endAccel;
+		jerk[segments] = segmentJerk;
+		segments++;
+
+		double t = duration;
+		endPos += endVel * t + endAccel * t * t / 2 + segmentJerk * t * t * t / 6;
+		endVel += endAccel * t + segmentJerk * t * t / 2;
+		endAccel += segmentJerk * t;
+		totalTime += duration;
+	}
+
+	/**
+	 * @param time seconds since the start of the profile
+	 * @return index of the segment at the given time
+	 */
+	private int findSegment(double time) {
+		int i = segments - 1;
+		while (i > 0 && time < startTime[i]) i--;
+		return i;
+	}
+
+	/**
+	 * @param time seconds since the start of the profile
+	 * @return change in position since the start of the profile
+	 */
+	public double getPosition(double time) {
+		if (time >= totalTime) return distance;
+		if (time <= 0 || segments == 0) return 0;
+		int i = findSegment(time);
+		double t = time - startTime[i];
+		return startPos[i] + startVel[i] * t + startAccel[i] * t * t / 2 + jerk[i] * t * t * t / 6;
+	}
+
+	/**
+	 * @param time seconds since the start of the profile
+	 * @return velocity
+	 */
+	public double getVelocity(double time) {
+		if (time >= totalTime) return 0;
+		if (segments == 0) return 0;
+		if (time <= 0) return startVel[0];
+		int i = findSegment(time);
+		double t = time - startTime[i];
+		return startVel[i] + startAccel[i] * t + jerk[i] * t * t / 2;
+	}
+
+	/**
+	 * @param time seconds since the start of the profile
+	 * @return acceleration
+	 */
+	public double getAcceleration(double time) {
+		if (time >= totalTime || time < 0 || segments == 0) return 0;
+		int i = findSegment(time);
+		return startAccel[i] + jerk[i] * (time - startTime[i]);
+	}
+
+	/**
+	 * @return total change in position (+ or -)
+	 */
+	public double getDistance() {
+		return distance;
+	}
+
+	/**
+	 * @return seconds from the start to the end of the profile
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * @param time seconds since the start of the profile
+	 * @return true = the profile has stopped at the target
+	 */
+	public boolean isFinished(double time) {
+		return time >= totalTime;
+	}
+
+	@Override
+	public String toString() {
+		return "Distance," + distance + ",Time," + totalTime + ",Max vel," + maxVelocity +
+			",Max accel," + maxAcceleration + ",Max decel," + maxDeceleration + ",Max jerk," + maxJerk;
+	}
+}
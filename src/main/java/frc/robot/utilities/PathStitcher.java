@@ -0,0 +1,327 @@
+package frc.robot.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import frc.robot.Robot;
+import frc.robot.pathfinder.Trajectory;
+import frc.robot.utilities.RobotPreferences.TurnDirection;
+import frc.robot.utilities.TrajectoryCache.TankPath;
+
+/**
+ * Joins several paths and in-place turns into one continuous path, so that DrivePathfinder can drive
+ * an autonomous routine in one command (no stops to reset encoders between commands).
+ * <p>
+ * Paths in a row that drive the same direction are joined and re-timed as one path, so the robot keeps
+ * its speed through the joint.  The robot stops only where it must:  where it changes between driving
+ * forward and backward, and for in-place turns.  Wheel positions keep counting through the whole path
+ * (they go back down when the robot backs up or when a wheel turns backward).
+ * <p>
+ * Example:  new DrivePathfinder(new PathStitcher("Right1RocketB").path("Right1RocketB", false)
+ *     .turnTo(90, TurnDirection.shortest).path("Right1RocketB", true), true)
+ * <p>
+ * Headings are in the same frame as the gyro and DrivePathfinder (degrees, + = turn right).
+ */
+public class PathStitcher {
+
+	public final static double DEFAULT_TURN_VELOCITY = 40;			// Wheel speed for in-place turns, in in/s
+	public final static double DEFAULT_TURN_ACCELERATION = 80;		// Wheel acceleration for in-place turns, in in/s^2
+	private final static double TURN_STEP = Math.PI / 8;			// Max heading change between points of a turn before re-timing
+	private final static double MAX_JOINT_HEADING_CHANGE = 10;		// Warn if joined paths change heading by more than this, in degrees
+
+	/**
+	 * One path or turn in the stitched path
+	 */
+	private static class Piece {
+		final String pathName;		// null for a turn
+		final boolean driveForward;
+		final double angle;			// turn angle, in degrees
+		final boolean relative;
+		final TurnDirection direction;
+
+		Piece(String pathName, boolean driveForward, double angle, boolean relative, TurnDirection direction) {
+			this.pathName = pathName;
+			this.driveForward = driveForward;
+			this.angle = angle;
+			this.relative = relative;
+			this.direction = direction;
+		}
+	}
+
+	private final String name;
+	private final List<Piece> pieces = new ArrayList<Piece>();
+	private double maxVelocity = 0, maxAcceleration = 0;
+	private double turnVelocity = DEFAULT_TURN_VELOCITY, turnAcceleration = DEFAULT_TURN_ACCELERATION;
+
+	/**
+	 * @param name name of the stitched path (for logging)
+	 */
+	public PathStitcher(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Adds a path
+	 * @param pathName file name excluding .pf1.csv
+	 * @param driveForward true = drive forward, false = drive backward
+	 * @return this
+	 */
+	public PathStitcher path(String pathName, boolean driveForward) {
+		pieces.add(new Piece(pathName, driveForward, 0, false, TurnDirection.shortest));
+		return this;
+	}
+
+	/**
+	 * Adds an in-place turn to an absolute heading (like TurnWithGyro with isRelativeAngle = false).
+	 * A turn can not be the first piece (the starting heading is not known until the robot runs).
+	 * @param angle heading to turn to, in degrees
+	 * @param direction left, right, or shortest
+	 * @return this
+	 */
+	public PathStitcher turnTo(double angle, TurnDirection direction) {
+		pieces.add(new Piece(null, true, angle, false, direction));
+		return this;
+	}
+
+	/**
+	 * Adds an in-place turn relative to the heading at the end of the previous piece
+	 * @param angle degrees to turn (+ = turn right, - = turn left)
+	 * @return this
+	 */
+	public PathStitcher turn(double angle) {
+		pieces.add(new Piece(null, true, angle, true, (angle >= 0) ? TurnDirection.right : TurnDirection.left));
+		return this;
+	}
+
+	/**
+	 * Sets the limits for re-timing paths that are joined.  By default, the max velocity of the joined
+	 * paths and the max acceleration in RobotPreferences are used.
+	 * @param maxVelocity in in/s
+	 * @param maxAcceleration in in/s^2
+	 * @return this
+	 */
+	public PathStitcher setLimits(double maxVelocity, double maxAcceleration) {
+		this.maxVelocity = maxVelocity;
+		this.maxAcceleration = maxAcceleration;
+		return this;
+	}
+
+	/**
+	 * Sets the wheel speed limits for in-place turns (default DEFAULT_TURN_VELOCITY and DEFAULT_TURN_ACCELERATION)
+	 * @param velocity in in/s
+	 * @param acceleration in in/s^2
+	 * @return this
+	 */
+	public PathStitcher setTurnLimits(double velocity, double acceleration) {
+		turnVelocity = velocity;
+		turnAcceleration = acceleration;
+		return this;
+	}
+
+	/**
+	 * @return name of the stitched path
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Loads the paths (through the trajectory cache) and stitches them together on the cache's background thread
+	 * @return future that completes with the stitched path, or with null if a path file is missing or a limit is not greater than 0
+	 */
+	public CompletableFuture<TankPath> build() {
+		List<Piece> stitchPieces = new ArrayList<Piece>(pieces);
+		List<CompletableFuture<TankPath>> loads = new ArrayList<CompletableFuture<TankPath>>();
+		for (Piece piece : stitchPieces) {
+			if (piece.pathName != null) loads.add(Robot.trajectoryCache.get(piece.pathName, true));
+		}
+
+		return CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[0])).thenApplyAsync(done -> {
+			List<TankPath> loaded = new ArrayList<TankPath>();
+			for (CompletableFuture<TankPath> load : loads) {
+				TankPath path = load.join();
+				if (path == null) {
+					Robot.log.writeLogEcho("PathStitcher", "Build", "Path not loaded," + name);
+					return null;
+				}
+				loaded.add(path);
+			}
+
+			long startTime = System.nanoTime();
+			TankPath path;
+			try {
+				path = stitch(stitchPieces, loaded);
+			} catch (IllegalArgumentException exception) {
+				// Re-timing limits that are not greater than 0
+				Robot.log.writeLogEcho("PathStitcher", "Build", "Bad limits," + name + "," + exception.getMessage());
+				return null;
+			}
+			if (path != null) {
+				Robot.log.writeLog("PathStitcher", "Build", "Path," + name + ",Pieces," + stitchPieces.size()
+					+ ",Segments," + path.center.length() + ",Seconds," + path.center.length() * path.center.getDt(0)
+					+ ",ms," + (System.nanoTime() - startTime) / 1000000.0);
+			}
+			return path;
+		}, Robot.trajectoryCache.getExecutor());
+	}
+
+	/**
+	 * Makes the parts (joined paths and turns) and puts them end to end
+	 * @param loaded forward paths, in the same order as the path pieces
+	 */
+	private TankPath stitch(List<Piece> stitchPieces, List<TankPath> loaded) {
+		List<TankPath> parts = new ArrayList<TankPath>();
+		int pathIndex = 0;
+		int i = 0;
+		while (i < stitchPieces.size()) {
+			Piece piece = stitchPieces.get(i);
+			if (piece.pathName != null) {
+				// Join this path and any following paths that drive the same direction
+				List<Trajectory> centers = new ArrayList<Trajectory>();
+				while (i < stitchPieces.size() && stitchPieces.get(i).pathName != null && stitchPieces.get(i).driveForward == piece.driveForward) {
+					centers.add(loaded.get(pathIndex++).center);
+					i++;
+				}
+				TankPath part = (centers.size() == 1) ? loaded.get(pathIndex - 1) : joinPaths(centers);
+				parts.add(piece.driveForward ? part : part.reversed());
+			} else {
+				if (parts.isEmpty()) {
+					Robot.log.writeLogEcho("PathStitcher", "Build", "Path can not start with a turn," + name);
+					return null;
+				}
+				parts.add(makeTurn(parts.get(parts.size() - 1).center, piece));
+				i++;
+			}
+		}
+		return new TankPath(append(parts, 0), append(parts, 1), append(parts, 2));
+	}
+
+	/**
+	 * Joins paths that drive the same direction into one path, re-timed so it does not stop at the joints
+	 */
+	private TankPath joinPaths(List<Trajectory> centers) {
+		int n = 0;
+		double pathVelocity = 0;
+		for (Trajectory center : centers) {
+			n += center.length();
+			for (int i = 0; i < center.length(); i++) pathVelocity = Math.max(pathVelocity, Math.abs(center.getVelocity(i)));
+		}
+		double velocity = (maxVelocity > 0) ? maxVelocity : pathVelocity;
+		double acceleration = (maxAcceleration > 0) ? maxAcceleration : Robot.robotPrefs.max_acceleration_ipsps;
+
+		// Each path is moved to start where the previous path ended
+		double[] dt = new double[n], x = new double[n], y = new double[n], position = new double[n], heading = new double[n];
+		int k = 0;
+		double offset = 0, dx = 0, dy = 0;
+		for (Trajectory center : centers) {
+			if (k > 0) {
+				dx = x[k - 1] - center.getX(0);
+				dy = y[k - 1] - center.getY(0);
+				double headingChange = Math.toDegrees(Math.IEEEremainder(center.getHeading(0) - heading[k - 1], 2 * Math.PI));
+				if (Math.abs(headingChange) > MAX_JOINT_HEADING_CHANGE) {
+					Robot.log.writeLogEcho("PathStitcher", "Build", "Paths do not line up (add a turn)," + name + ",Heading change," + headingChange);
+				}
+			}
+			for (int i = 0; i < center.length(); i++, k++) {
+				dt[k] = center.getDt(i);
+				x[k] = center.getX(i) + dx;
+				y[k] = center.getY(i) + dy;
+				position[k] = offset + center.getPosition(i);
+				heading[k] = center.getHeading(i);
+			}
+			offset = position[k - 1];
+		}
+
+		// Only the path (x, y, position, heading) is used for re-timing
+		Trajectory joined = new Trajectory(dt, x, y, position, new double[n], new double[n], new double[n], heading);
+		return TrajectoryCache.makeTankPath(joined.retime(velocity, acceleration));
+	}
+
+	/**
+	 * Makes an in-place turn, starting at the end of the previous part
+	 * @param previous center trajectory of the previous part
+	 */
+	private TankPath makeTurn(Trajectory previous, Piece piece) {
+		int last = previous.length() - 1;
+		double x0 = previous.getX(last), y0 = previous.getY(last), h0 = previous.getHeading(last);
+		double delta;
+		if (piece.relative) {
+			delta = Math.toRadians(piece.angle);		// Relative turns may be more than 180 degrees
+		} else {
+			delta = Math.IEEEremainder(Math.toRadians(piece.angle) - h0, 2 * Math.PI);
+			if (piece.direction == TurnDirection.right && delta < 0) delta += 2 * Math.PI;
+			if (piece.direction == TurnDirection.left && delta > 0) delta -= 2 * Math.PI;
+		}
+
+		// Wheel distance vs. heading, re-timed to the turn limits
+		double w = Robot.robotPrefs.wheelbase_in / 2;
+		int points = (int) Math.ceil(Math.abs(delta) / TURN_STEP) + 2;
+		double[] dt = new double[points], x = new double[points], y = new double[points], position = new double[points], heading = new double[points];
+		for (int i = 0; i < points; i++) {
+			double fraction = (double) i / (points - 1);
+			dt[i] = previous.getDt(last);
+			x[i] = x0;
+			y[i] = y0;
+			position[i] = Math.abs(delta) * w * fraction;
+			heading[i] = h0 + delta * fraction;
+		}
+		Trajectory wheel = new Trajectory(dt, x, y, position, new double[points], new double[points], new double[points], heading)
+			.retime(turnVelocity, turnAcceleration);
+
+		// Turning right (heading increasing) drives the left wheel forward and the right wheel backward
+		int n = wheel.length();
+		double sign = Math.signum(delta);
+		double[] zero = new double[n], cx = new double[n], cy = new double[n], ch = new double[n], cdt = new double[n];
+		double[][] left = new double[6][n], right = new double[6][n];		// x, y, position, velocity, acceleration, jerk
+		for (int i = 0; i < n; i++) {
+			double h = wheel.getHeading(i);
+			cdt[i] = wheel.getDt(i);
+			cx[i] = x0;
+			cy[i] = y0;
+			ch[i] = h;
+			left[0][i] = x0 + w * Math.sin(h);
+			left[1][i] = y0 - w * Math.cos(h);
+			right[0][i] = x0 - w * Math.sin(h);
+			right[1][i] = y0 + w * Math.cos(h);
+			left[2][i] = sign * wheel.getPosition(i);
+			left[3][i] = sign * wheel.getVelocity(i);
+			left[4][i] = sign * wheel.getAcceleration(i);
+			left[5][i] = sign * wheel.getJerk(i);
+			for (int c = 2; c < 6; c++) right[c][i] = -left[c][i];
+		}
+
+		return new TankPath(new Trajectory(cdt, cx, cy, zero, zero, zero, zero, ch),
+			new Trajectory(cdt, left[0], left[1], left[2], left[3], left[4], left[5], ch),
+			new Trajectory(cdt, right[0], right[1], right[2], right[3], right[4], right[5], ch));
+	}
+
+	/**
+	 * Puts one side of the parts end to end.  Positions of each part continue from the end of the previous part.
+	 * @param side 0 = center, 1 = left, 2 = right
+	 */
+	private static Trajectory append(List<TankPath> parts, int side) {
+		int n = 0;
+		for (TankPath part : parts) n += part.center.length();
+
+		double[] dt = new double[n], x = new double[n], y = new double[n], position = new double[n];
+		double[] velocity = new double[n], acceleration = new double[n], jerk = new double[n], heading = new double[n];
+		int k = 0;
+		double offset = 0;
+		for (TankPath part : parts) {
+			Trajectory traj = (side == 0) ? part.center : (side == 1) ? part.left : part.right;
+			for (int i = 0; i < traj.length(); i++, k++) {
+				dt[k] = traj.getDt(i);
+				x[k] = traj.getX(i);
+				y[k] = traj.getY(i);
+				position[k] = offset + traj.getPosition(i);
+				velocity[k] = traj.getVelocity(i);
+				acceleration[k] = traj.getAcceleration(i);
+				jerk[k] = traj.getJerk(i);
+				heading[k] = traj.getHeading(i);
+			}
+			offset = position[k - 1];
+		}
+		return new Trajectory(dt, x, y, position, velocity, acceleration, jerk, heading);
+	}
+}
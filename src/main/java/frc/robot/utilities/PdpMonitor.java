@@ -0,0 +1,122 @@
+package frc.robot.utilities;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.PowerDistributionPanel;
+
+/**
+ * Reads all of the PDP channel currents on its own Notifier thread, so subsystems (motor checks, logging, etc.)
+ * never wait for a PDP CAN read in the robot loop.
+ * <p>
+ * Every poll reads all 16 channels, then publishes the latest current and the mean and peak current over the
+ * last WINDOW_SECONDS for each channel.  The values are published through atomic arrays, so getCurrent(),
+ * getMeanCurrent(), and getPeakCurrent() never lock and can be called from any thread.  Each value is
+ * consistent by itself, but values for different channels may be from polls one period apart.
+ */
+public class PdpMonitor {
+
+	public final static int CHANNELS = 16;
+	public final static double DEFAULT_PERIOD = 0.02;	// seconds between polls
+	public final static double WINDOW_SECONDS = 0.5;	// mean and peak are over this time
+
+	private final PowerDistributionPanel pdp;
+	private final RobotClock clock;
+	private final double period;
+	private final Notifier notifier;
+
+	// Published values (double bits, so reads are lock free)
+	private final AtomicLongArray current = new AtomicLongArray(CHANNELS);
+	private final AtomicLongArray meanCurrent = new AtomicLongArray(CHANNELS);
+	private final AtomicLongArray peakCurrent = new AtomicLongArray(CHANNELS);
+	private volatile long pollTimeNanos;
+
+	// Only used in poll() (Notifier thread)
+	private final WindowedStats[] windows = new WindowedStats[CHANNELS];
+
+	/**
+	 * Creates a PDP monitor.  Call start() to start polling.
+	 * @param pdp PDP to read
+	 * @param period seconds between polls (ex. DEFAULT_PERIOD)
+	 */
+	public PdpMonitor(PowerDistributionPanel pdp, double period) {
+		this(pdp, period, RobotClock.get());
+	}
+
+	/**
+	 * Creates a PDP monitor.  Call start() to start polling.
+	 * @param pdp PDP to read
+	 * @param period seconds between polls (ex. DEFAULT_PERIOD)
+	 * @param clock clock for poll time stamps
+	 */
+	public PdpMonitor(PowerDistributionPanel pdp, double period, RobotClock clock) {
+		this.pdp = pdp;
+		this.clock = clock;
+		this.period = (period > 0) ? period : DEFAULT_PERIOD;
+		int windowSize = (int) Math.round(WINDOW_SECONDS / this.period);
+		for (int i = 0; i < CHANNELS; i++) {
+			windows[i] = new WindowedStats(windowSize);
+		}
+		notifier = new Notifier(this::poll);
+	}
+
+	/**
+	 * Starts polling the PDP
+	 */
+	public void start() {
+		notifier.startPeriodic(period);
+	}
+
+	/**
+	 * Stops polling the PDP
+	 */
+	public void stop() {
+		notifier.stop();
+	}
+
+	/**
+	 * @param channel PDP channel (see RobotMap)
+	 * @return current from the latest poll, in amps
+	 */
+	public double getCurrent(int channel) {
+		return Double.longBitsToDouble(current.get(channel));
+	}
+
+	/**
+	 * @param channel PDP channel (see RobotMap)
+	 * @return mean current over the last WINDOW_SECONDS, in amps
+	 */
+	public double getMeanCurrent(int channel) {
+		return Double.longBitsToDouble(meanCurrent.get(channel));
+	}
+
+	/**
+	 * @param channel PDP channel (see RobotMap)
+	 * @return peak current over the last WINDOW_SECONDS, in amps
+	 */
+	public double getPeakCurrent(int channel) {
+		return Double.longBitsToDouble(peakCurrent.get(channel));
+	}
+
+	/**
+	 * @return RobotClock time of the latest poll, in nanoseconds
+	 */
+	public long getPollTimeNanos() {
+		return pollTimeNanos;
+	}
+
+	/**
+	 * Reads all of the channels and publishes the results (called by the Notifier)
+	 */
+	void poll() {
+		for (int i = 0; i < CHANNELS; i++) {
+			double amps = pdp.getCurrent(i);
+			WindowedStats window = windows[i];
+			window.add(amps);
+			current.set(i, Double.doubleToRawLongBits(amps));
+			meanCurrent.set(i, Double.doubleToRawLongBits(window.getMean()));
+			peakCurrent.set(i, Double.doubleToRawLongBits(window.getMax()));
+		}
+		pollTimeNanos = clock.nanos();
+	}
+}
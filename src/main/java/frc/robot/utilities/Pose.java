@@ -0,0 +1,27 @@
+package frc.robot.utilities;
+
+/**
+ * Position and heading of the robot on the field at one time (from PoseEstimator).
+ * Poses are immutable, so they can be shared between threads.
+ * <p>
+ * Same coordinates as the gyro and PathWeaver paths:  x is forward and y is to the right of the
+ * robot's starting position (or of the position given to PoseEstimator.resetPose()), and heading
+ * is clockwise (+ = turned right).
+ */
+public class Pose {
+	public final double x, y;				// inches
+	public final double heading;			// degrees, -180 to +180
+	public final long timeNanos;			// RobotClock time of the sensor readings
+
+	public Pose(double x, double y, double heading, long timeNanos) {
+		this.x = x;
+		this.y = y;
+		this.heading = heading;
+		this.timeNanos = timeNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "X," + x + ",Y," + y + ",Heading," + heading;
+	}
+}
@@ -0,0 +1,127 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.Notifier;
+import frc.robot.Robot;
+import frc.robot.subsystems.DriveTrain;
+
+/**
+ * Tracks the robot's position on the field (odometry), on its own Notifier thread at 200 Hz,
+ * whatever command is driving (paths, turns, teleop, etc.).
+ * <p>
+ * Each update moves the robot along an arc:  the distance is the average of the shaft encoders and
+ * the change in heading is from the navX (or from the encoders, if the navX is not connected).
+ * The shaft encoder Talons send their positions every 5ms (see Elevator and Climb), so each update
+ * gets new readings.
+ * <p>
+ * The latest pose is published as an immutable Pose through a volatile field, so any thread
+ * can call getPose() without locking, and every command and the dashboard see the same pose.
+ * <p>
+ * The estimator uses the raw encoder and gyro readings, so zeroing the encoders or the gyro
+ * (ex. at the start of a path) does not move the pose.  Use resetPose() to set the pose.
+ */
+public class PoseEstimator {
+
+	public final static double PERIOD = 0.005;		// seconds between updates
+
+	private final DriveTrain driveTrain;
+	private final RobotClock clock;
+	private final Notifier notifier;
+	private volatile Pose pose;
+
+	// Only used in update() and resetPose() (synchronized)
+	private double x, y;				// inches
+	private double heading;				// degrees (not normalized)
+	private double lastLeftRaw, lastRightRaw, lastGyroRaw;
+
+	/**
+	 * Creates a pose estimator at (0, 0) with the current heading as 0.  Call start() to start updating the pose.
+	 * @param driveTrain drive train to read encoders and gyro from
+	 */
+	public PoseEstimator(DriveTrain driveTrain) {
+		this(driveTrain, RobotClock.get());
+	}
+
+	/**
+	 * Creates a pose estimator at (0, 0) with the current heading as 0.  Call start() to start updating the pose.
+	 * @param driveTrain drive train to read encoders and gyro from
+	 * @param clock clock for pose time stamps
+	 */
+	public PoseEstimator(DriveTrain driveTrain, RobotClock clock) {
+		this.driveTrain = driveTrain;
+		this.clock = clock;
+		resetPose(0, 0, 0);
+		notifier = new Notifier(this::update);
+	}
+
+	/**
+	 * Starts updating the pose every PERIOD seconds
+	 */
+	public void start() {
+		notifier.startPeriodic(PERIOD);
+	}
+
+	/**
+	 * Stops updating the pose
+	 */
+	public void stop() {
+		notifier.stop();
+	}
+
+	/**
+	 * @return the latest pose (never null)
+	 */
+	public Pose getPose() {
+		return pose;
+	}
+
+	/**
+	 * Sets the current position and heading of the robot (ex. its starting position on the field)
+	 * @param x inches
+	 * @param y inches
+	 * @param heading degrees (+ = turned right)
+	 */
+	public synchronized void resetPose(double x, double y, double heading) {
+		lastLeftRaw = driveTrain.getLeftEncoderRaw();
+		lastRightRaw = driveTrain.getRightEncoderRaw();
+		lastGyroRaw = driveTrain.getGyroRaw();
+		this.heading = heading;
+		this.x = x;
+		this.y = y;
+		pose = new Pose(x, y, driveTrain.normalizeAngle(heading), clock.nanos());
+	}
+
+	/**
+	 * Reads the sensors and moves the pose (called by the Notifier)
+	 */
+	synchronized void update() {
+		long timeNanos = clock.nanos();
+		double leftRaw = driveTrain.getLeftEncoderRaw();
+		double rightRaw = driveTrain.getRightEncoderRaw();
+		double gyroRaw = driveTrain.getGyroRaw();
+
+		double left = driveTrain.encoderTicksToInches(leftRaw - lastLeftRaw);
+		double right = -driveTrain.encoderTicksToInches(rightRaw - lastRightRaw);		// Right encoder counts backwards (see getRightEncoderTicks())
+		double distance = (left + right) / 2.0;
+
+		// Change in heading (clockwise), from the navX if it is working
+		double deltaHeading;
+		if (driveTrain.isGyroConnected()) {
+			deltaHeading = gyroRaw - lastGyroRaw;
+		} else {
+			deltaHeading = Math.toDegrees((left - right) / Robot.robotPrefs.wheelbase_in);
+		}
+
+		// Move along an arc:  the chord is at the average of the start and end headings
+		double halfAngle = Math.toRadians(deltaHeading) / 2.0;
+		double chord = (Math.abs(halfAngle) < 1e-9) ? distance : distance * Math.sin(halfAngle) / halfAngle;
+		double chordHeading = Math.toRadians(heading) + halfAngle;
+		x += chord * Math.cos(chordHeading);
+		y += chord * Math.sin(chordHeading);
+		heading += deltaHeading;
+
+		lastLeftRaw = leftRaw;
+		lastRightRaw = rightRaw;
+		lastGyroRaw = gyroRaw;
+		pose = new Pose(x, y, driveTrain.normalizeAngle(heading), timeNanos);
+	}
+}
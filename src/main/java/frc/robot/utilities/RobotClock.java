@@ -0,0 +1,84 @@
+package frc.robot.utilities;
+
+import edu.wpi.first.wpilibj.RobotController;
+
+/**
+ * Monotonic clock for everything that measures time (profile generators, path followers, LEDs, logging).
+ * Unlike System.currentTimeMillis(), this clock never jumps when the Driver Station sets the
+ * date and time, and it has better than millisecond resolution.
+ * <p>
+ * Code should get the time from RobotClock.get() (or from a clock passed to its constructor)
+ * instead of from System.  Robot.robotInit() installs the FPGA clock.  Off the robot, the
+ * default is System.nanoTime(), and tests and benchmarks can install a VirtualClock to run
+ * faster than real time.
+ */
+public abstract class RobotClock {
+
+	/**
+	 * Clock from System.nanoTime()
+	 */
+	public static final RobotClock SYSTEM = new RobotClock() {
+		@Override
+		public long nanos() {
+			return System.nanoTime();
+		}
+	};
+
+	/**
+	 * Clock from the roboRIO FPGA (microsecond resolution, same time base as Timer.getFPGATimestamp()).
+	 * Only use this on the robot or in the simulator.
+	 */
+	public static final RobotClock FPGA = new RobotClock() {
+		@Override
+		public long nanos() {
+			return RobotController.getFPGATime() * 1000;
+		}
+	};
+
+	private static volatile RobotClock clock = SYSTEM;
+
+	/**
+	 * @return the clock that the robot code is using
+	 */
+	public static RobotClock get() {
+		return clock;
+	}
+
+	/**
+	 * Sets the clock that the robot code uses.  Objects that already saved the clock
+	 * (ex. a DistanceFollower) keep using the old clock.
+	 * @param newClock clock to use
+	 */
+	public static void set(RobotClock newClock) {
+		clock = newClock;
+	}
+
+	/**
+	 * @return current time in nanoseconds.  Only differences between times are meaningful.
+	 */
+	public abstract long nanos();
+
+	/**
+	 * @return current time in milliseconds.  Only differences between times are meaningful.
+	 */
+	public long millis() {
+		return nanos() / 1000000;
+	}
+
+	/**
+	 * @return current time in seconds.  Only differences between times are meaningful.
+	 */
+	public double seconds() {
+		return nanos() / 1e9;
+	}
+
+	/**
+	 * Converts a time from this clock to wall clock time (System.currentTimeMillis() format),
+	 * using the current difference between the two clocks.  Use this to print dates.
+	 * @param clockMillis time from millis()
+	 * @return wall clock time in milliseconds since 1970
+	 */
+	public long toWallMillis(long clockMillis) {
+		return clockMillis + (System.currentTimeMillis() - millis());
+	}
+}
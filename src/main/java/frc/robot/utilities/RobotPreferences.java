@@ -17,6 +17,17 @@ public class RobotPreferences {
 	public boolean inBCRLab;			// Set true if in the BCR lab (with a big pole in the middle of the field)
 	public boolean prototypeRobot;		// Set true if using code for prototype bots, false for practice and competition bots
 	public boolean neoDrivetrain;		// Set true if using neos on the drive train (mutually exclusive with prototypeRobot)
+	public boolean elevatorMotionMagic;	// Set true to run elevator profiles on the Talon (Motion Magic), false to run them on the roboRIO
+	public double elevatorMMCruiseVelocity;	// Elevator Motion Magic cruise velocity, in inches per second
+	public double elevatorMMAcceleration;	// Elevator Motion Magic acceleration, in inches per second^2 (the Talon uses it for speeding up and slowing down)
+	public double elevatorMMKV;			// Elevator Motion Magic feed forward per inch per second, in percent output
+	public double elevatorMMKP;			// Elevator Motion Magic proportional gain per inch of error, in percent output
+	public double elevatorMMKGravity;	// Elevator Motion Magic feed forward to hold the elevator up, in percent output
+	public boolean wristProfile;		// Set true to move the wrist along a motion profile with gravity feed forward, false to jump to the target (Talon Position)
+	public double wristProfileVelocity;		// Wrist profile cruise velocity, in degrees per second (also used to plan moves with the elevator)
+	public double wristProfileAcceleration;	// Wrist profile acceleration, in degrees per second^2 (also used to plan moves with the elevator)
+	public double wristKGravity;		// Wrist profile feed forward to hold the wrist up when horizontal, in percent output (see Wrist)
+	public double wristKV;				// Wrist profile feed forward per degree per second of profile velocity, in percent output (see Wrist)
 	public double wheelCircumference;	// Wheel circumference, in inches
 	public double elevatorGearCircumference; //circumference of the gear driving the elevator in inches
 	public double elevatorBottomToFloor; //distance of elevator 0 value from the ground
@@ -28,6 +39,8 @@ public class RobotPreferences {
 	public boolean wristCalibrated = false;     // Default to wrist being uncalibrated.  Calibrate from robot preferences or "Calibrate Wrist Zero" button on dashboard
 	public double climbCalZero; // Climb encoder position at 0 degrees in encoder ticks
 	public boolean climbCalibrated = false; // Default to climb being uncalibrated
+	public double logQuotaMB;			// Max total size of the log files in /home/lvuser, in MB.  Oldest files are deleted first.
+	public double pdpPollPeriod;		// Seconds between PDP current readings (see PdpMonitor)
 
 	/*
 	* Measurements
@@ -103,6 +116,17 @@ public class RobotPreferences {
 		inBCRLab = prefs.getBoolean("inBCRLab", false);
 		prototypeRobot = prefs.getBoolean("prototypeRobot", false); // true if testing code on a prototype, default to false (competition bot w/ Victors)
 		neoDrivetrain = prefs.getBoolean("neoDrivetrain", true); // Default to true (using Neos) on competition bot
+		elevatorMotionMagic = prefs.getBoolean("elevatorMotionMagic", false);
+		elevatorMMCruiseVelocity = prefs.getDouble("elevatorMMCruiseVelocity", 50.0);
+		elevatorMMAcceleration = prefs.getDouble("elevatorMMAcceleration", 50.0);
+		elevatorMMKV = prefs.getDouble("elevatorMMKV", 0.0139);
+		elevatorMMKP = prefs.getDouble("elevatorMMKP", 0.15);
+		elevatorMMKGravity = prefs.getDouble("elevatorMMKGravity", 0.14);
+		wristProfile = prefs.getBoolean("wristProfile", false);
+		wristProfileVelocity = prefs.getDouble("wristProfileVelocity", 180.0);
+		wristProfileAcceleration = prefs.getDouble("wristProfileAcceleration", 600.0);
+		wristKGravity = prefs.getDouble("wristKGravity", 0.075);
+		wristKV = prefs.getDouble("wristKV", 0.0);
 		wheelCircumference = prefs.getDouble("wheelDiameter", 6) * Math.PI;	
 		elevatorGearCircumference = prefs.getDouble("elevatorGearDiameter", 1.43) * Math.PI; // TODO Recheck that value is correct (at OC Regional) Conversion factor for makeshift elevator 18/32.3568952084);
 		elevatorBottomToFloor = prefs.getDouble("elevatorBottomToFloor", 15.5); // inches from ground to elevator's lowest position
@@ -124,6 +148,8 @@ public class RobotPreferences {
 			recordStickyFaults("Preferences-climbCalZero");
 			climbCalZero = 0;
 		}
+		logQuotaMB = prefs.getDouble("logQuotaMB", LogMaintenance.DEFAULT_QUOTA_MB);
+		pdpPollPeriod = prefs.getDouble("pdpPollPeriod", PdpMonitor.DEFAULT_PERIOD);
 	}
 
 	/**
@@ -172,6 +198,39 @@ public class RobotPreferences {
 		if (!prefs.containsKey("neoDrivetrain")){
 			prefs.putBoolean("neoDrivetrain", true);
 		}
+		if (!prefs.containsKey("elevatorMotionMagic")){
+			prefs.putBoolean("elevatorMotionMagic", false);
+		}
+		if (!prefs.containsKey("elevatorMMCruiseVelocity")) {
+			prefs.putDouble("elevatorMMCruiseVelocity", 50.0);
+		}
+		if (!prefs.containsKey("elevatorMMAcceleration")) {
+			prefs.putDouble("elevatorMMAcceleration", 50.0);
+		}
+		if (!prefs.containsKey("elevatorMMKV")) {
+			prefs.putDouble("elevatorMMKV", 0.0139);
+		}
+		if (!prefs.containsKey("elevatorMMKP")) {
+			prefs.putDouble("elevatorMMKP", 0.15);
+		}
+		if (!prefs.containsKey("elevatorMMKGravity")) {
+			prefs.putDouble("elevatorMMKGravity", 0.14);
+		}
+		if (!prefs.containsKey("wristProfile")){
+			prefs.putBoolean("wristProfile", false);
+		}
+		if (!prefs.containsKey("wristProfileVelocity")) {
+			prefs.putDouble("wristProfileVelocity", 180.0);
+		}
+		if (!prefs.containsKey("wristProfileAcceleration")) {
+			prefs.putDouble("wristProfileAcceleration", 600.0);
+		}
+		if (!prefs.containsKey("wristKGravity")) {
+			prefs.putDouble("wristKGravity", 0.075);
+		}
+		if (!prefs.containsKey("wristKV")) {
+			prefs.putDouble("wristKV", 0.0);
+		}
 		if (!prefs.containsKey("driveDirection")){
 			prefs.putBoolean("driveDirection", false);
 		}
@@ -202,6 +261,12 @@ public class RobotPreferences {
 		if (!prefs.containsKey("climbCalZero")) {
 			prefs.putDouble("climbCalZero", -9999);
 		}
+		if (!prefs.containsKey("logQuotaMB")) {
+			prefs.putDouble("logQuotaMB", LogMaintenance.DEFAULT_QUOTA_MB);
+		}
+		if (!prefs.containsKey("pdpPollPeriod")) {
+			prefs.putDouble("pdpPollPeriod", PdpMonitor.DEFAULT_PERIOD);
+		}
 	}
 
 	/**
@@ -251,6 +316,9 @@ public class RobotPreferences {
 			putBoolean("problemExists", problemExists);
 		}
 		showStickyFaults();
+
+		// Save the last few seconds of subsystem data leading up to the fault
+		if (Robot.flightRecorder != null) Robot.flightRecorder.dump("StickyFault-" + subsystem);
 	}
 
 	/**
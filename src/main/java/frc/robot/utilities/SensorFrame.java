@@ -0,0 +1,56 @@
+package frc.robot.utilities;
+
+import frc.robot.Robot;
+
+/**
+ * Sensor readings for one robot cycle.  Robot captures the frame once at the start of each loop (before
+ * any periodic() or command runs), and the subsystem getters (encoders, gyro, limit switches, etc.)
+ * return the values in the frame instead of reading the hardware again.  This saves a CAN/HAL call for
+ * every getter call, and every decision in a cycle (interlocks, commands, logging) sees the same readings.
+ * <p>
+ * Each subsystem reads its own sensors into the frame in readSensors().  Code that needs a live reading
+ * (ex. PoseEstimator on its own thread, or a constructor before the first capture) reads the hardware directly.
+ * <p>
+ * Not thread safe.  Only use the frame from the main robot thread.
+ */
+public class SensorFrame {
+	public long timeNanos;						// RobotClock time of the capture
+
+	// Drive train
+	public double gyroRaw;						// degrees, not zeroed
+	public double leftEncoderRaw, rightEncoderRaw;			// ticks, not zeroed
+	public double leftEncoderVelocityRaw, rightEncoderVelocityRaw;	// ticks per 100ms
+
+	// Elevator
+	public double elevatorEncTicks;				// ticks (0 = bottom)
+	public double elevatorVelocityRaw;			// ticks per 100ms
+	public double elevatorClosedLoopTarget;		// ticks
+	public boolean elevatorUpperLimit, elevatorLowerLimit;
+
+	// Wrist
+	public double wristEncTicksRaw;				// ticks, not calibrated
+	public double wristClosedLoopTarget;		// ticks, not calibrated
+	public boolean wristUpperLimit, wristLowerLimit;
+
+	// Climb
+	public double climbEncTicksRaw;				// ticks, not calibrated
+	public double climbClosedLoopTarget;		// ticks, not calibrated
+	public boolean climbAtLimitSwitch;
+	public double vacuumPressure;				// averaged, see Climb.getVacuumPressure()
+
+	// Cargo
+	public boolean cargoPhotoSwitch;			// raw, false = has ball
+
+	/**
+	 * Reads all of the subsystem sensors into the frame.  Call once at the start of each robot cycle,
+	 * after all of the subsystems are created.
+	 */
+	public void capture() {
+		timeNanos = RobotClock.get().nanos();
+		Robot.driveTrain.readSensors(this);
+		Robot.elevator.readSensors(this);
+		Robot.wrist.readSensors(this);
+		Robot.climb.readSensors(this);
+		Robot.cargo.readSensors(this);
+	}
+}
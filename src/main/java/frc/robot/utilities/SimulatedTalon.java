@@ -0,0 +1,172 @@
+package frc.robot.utilities;
+
+/**
+ * Stand-in for a Talon SRX running Motion Magic, for trying gains and profile limits without hardware
+ * (ex. in a desktop program or a benchmark).  The Talon profile and PIDF loop run every 1ms, like the
+ * Talon firmware, and drive a simple model of a mechanism lifted by a DC motor.
+ * <p>
+ * The model:  at full output with no load the mechanism moves at freeSpeed, the motor needs
+ * holdOutput to hold the mechanism up against gravity, and the velocity approaches its steady state
+ * with the given time constant.  The mechanism can't move below position 0 (the lower hard stop).
+ * <p>
+ * Example:  SimulatedTalon talon = new SimulatedTalon(ticksPerInch, 80, 0.14, 0.05);
+ * talon.configure(...);  talon.setTarget(30, 0.14);  talon.update(0.02);  talon.getPosition();
+ * <p>
+ * Not thread safe.
+ */
+public class SimulatedTalon extends MotionMagicController {
+
+	private static final double STEP = 0.001;		// seconds per Talon loop
+
+	private final double freeSpeed;				// ticks per second at full output with no load
+	private final double holdOutput;			// percent output to hold against gravity
+	private final double timeConstant;			// seconds
+
+	// Talon settings (Talon units)
+	private double cruiseVelocity, acceleration;	// ticks per second, ticks per second^2
+	private double kP, kF;
+	private boolean enabled = false;
+	private double target, arbitraryFeedForward;
+
+	// Talon profile and mechanism state
+	private double trajectoryPosition, trajectoryVelocity;	// ticks, ticks per second
+	private double position, velocity;						// ticks, ticks per second
+	private double output;									// percent output
+	private double time;									// seconds
+
+	/**
+	 * Creates a simulated Talon with the mechanism stopped at position 0 and the motor off
+	 * @param ticksPerInch encoder ticks per inch of travel
+	 * @param freeSpeed speed at full output with no load, in in/s
+	 * @param holdOutput percent output to hold the mechanism up against gravity
+	 * @param timeConstant seconds for the velocity to get 63% of the way to its steady state
+	 */
+	public SimulatedTalon(double ticksPerInch, double freeSpeed, double holdOutput, double timeConstant) {
+		super(ticksPerInch);
+		this.freeSpeed = freeSpeed * ticksPerInch;
+		this.holdOutput = holdOutput;
+		this.timeConstant = timeConstant;
+	}
+
+	@Override
+	protected void configNative(int cruiseVelocity, int acceleration, double kP, double kF) {
+		this.cruiseVelocity = cruiseVelocity * 10.0;
+		this.acceleration = acceleration * 10.0;
+		this.kP = kP;
+		this.kF = kF;
+	}
+
+	@Override
+	protected void setNative(double target, double arbitraryFeedForward) {
+		if (!enabled) {
+			// The Talon starts the profile from the current position and velocity
+			trajectoryPosition = position;
+			trajectoryVelocity = velocity;
+			enabled = true;
+		}
+		this.target = target;
+		this.arbitraryFeedForward = arbitraryFeedForward;
+	}
+
+	@Override
+	protected double getTrajectoryPositionNative() {
+		return trajectoryPosition;
+	}
+
+	/**
+	 * Stops Motion Magic and sets the motor output (like ControlMode.PercentOutput)
+	 * @param percentOutput -1 to +1
+	 */
+	public void setPercentOutput(double percentOutput) {
+		enabled = false;
+		output = percentOutput;
+	}
+
+	/**
+	 * Runs the Talon and the mechanism forward in time
+	 * @param seconds time to run (ex. 0.02 for one robot cycle)
+	 */
+	public void update(double seconds) {
+		for (double t = 0; t < seconds - STEP / 2; t += STEP) {
+			if (enabled) {
+				stepTrajectory();
+				double error = trajectoryPosition - position;
+				output = (kP * error + kF * trajectoryVelocity / 10) / 1023 + arbitraryFeedForward;
+			}
+			output = Math.max(-1, Math.min(1, output));
+			stepMechanism();
+			time += STEP;
+		}
+	}
+
+	/**
+	 * Moves the Talon profile one step towards the target (trapezoid)
+	 */
+	private void stepTrajectory() {
+		double remaining = target - trajectoryPosition;
+		double direction = Math.signum(remaining);
+		double speed = trajectoryVelocity * direction;		// + = towards the target
+		double stoppingDistance = (speed > 0) ? speed * speed / (2 * acceleration) : 0;
+
+		if (Math.abs(remaining) <= acceleration * STEP * STEP && Math.abs(trajectoryVelocity) <= acceleration * STEP) {
+			// At the target
+			trajectoryPosition = target;
+			trajectoryVelocity = 0;
+			return;
+		}
+
+		if (Math.abs(remaining) <= stoppingDistance) {
+			speed = Math.max(0, speed - acceleration * STEP);
+		} else if (speed < cruiseVelocity) {
+			speed = Math.min(cruiseVelocity, speed + acceleration * STEP);
+		} else {
+			speed = Math.max(cruiseVelocity, speed - acceleration * STEP);
+		}
+		trajectoryVelocity = speed * direction;
+		trajectoryPosition += trajectoryVelocity * STEP;
+		if ((target - trajectoryPosition) * direction < 0) {
+			trajectoryPosition = target;
+		}
+	}
+
+	/**
+	 * Moves the mechanism one step
+	 */
+	private void stepMechanism() {
+		double steadyVelocity = (output - holdOutput) * freeSpeed;
+		velocity += (steadyVelocity - velocity) * STEP / timeConstant;
+		position += velocity * STEP;
+		if (position < 0) {
+			position = 0;
+			velocity = Math.max(0, velocity);
+		}
+	}
+
+	/**
+	 * @return mechanism position, in inches from the encoder zero
+	 */
+	public double getPosition() {
+		return position / getTicksPerInch();
+	}
+
+	/**
+	 * @return mechanism velocity, in in/s
+	 */
+	public double getVelocity() {
+		return velocity / getTicksPerInch();
+	}
+
+	/**
+	 * @return motor percent output (-1 to +1)
+	 */
+	public double getOutput() {
+		return output;
+	}
+
+	/**
+	 * @return seconds since the simulated Talon was created
+	 */
+	public double getTime() {
+		return time;
+	}
+}
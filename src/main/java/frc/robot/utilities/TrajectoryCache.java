@@ -0,0 +1,210 @@
+package frc.robot.utilities;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import frc.robot.Robot;
+import frc.robot.pathfinder.Pathfinder;
+import frc.robot.pathfinder.Trajectory;
+import frc.robot.pathfinder.Waypoint;
+import frc.robot.pathfinder.modifiers.TankModifier;
+
+/**
+ * Loads the deployed Pathfinder paths on a background thread, so commands never read files on the robot thread.
+ * Each path is loaded once and shared:  get() returns the same future for the same path and direction,
+ * and the backwards direction is a reversed view of the forward trajectories (no second load).
+ * Most paths are deployed as the center trajectory only, and the left and right wheel trajectories are made
+ * from it with TankModifier, using the wheelbase in RobotPreferences (this matches Pathfinder's side files).
+ * Paths whose side files can't be made from the center (ex. made by another tool, or with another wheelbase)
+ * are deployed with their .left and .right files, and those files are used instead.
+ * <p>
+ * preloadAll() is called in robotInit to start loading every path in the deploy/paths directory.
+ */
+public class TrajectoryCache {
+
+	/**
+	 * Center, left, and right trajectories for a tank drive path
+	 */
+	public static class TankPath {
+		public final Trajectory center, left, right;
+
+		public TankPath(Trajectory center, Trajectory left, Trajectory right) {
+			this.center = center;
+			this.left = left;
+			this.right = right;
+		}
+
+		/**
+		 * @return this path driven backwards (reversed views, with the left and right wheels swapped)
+		 */
+		public TankPath reversed() {
+			return new TankPath(center.reversed(), right.reversed(), left.reversed());
+		}
+	}
+
+	private final ExecutorService loader = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "TrajectoryCache");
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		return thread;
+	});
+
+	private final ConcurrentHashMap<String, CompletableFuture<TankPath>> forwardPaths = new ConcurrentHashMap<String, CompletableFuture<TankPath>>();
+	private final ConcurrentHashMap<String, CompletableFuture<TankPath>> backwardPaths = new ConcurrentHashMap<String, CompletableFuture<TankPath>>();
+
+	/**
+	 * @return the background thread that loads paths (for other work on loaded paths, ex. PathStitcher)
+	 */
+	public Executor getExecutor() {
+		return loader;
+	}
+
+	/**
+	 * Starts loading every path in the deploy/paths directory
+	 */
+	public void preloadAll() {
+		File[] files = new File(Pathfinder.PATH_DIRECTORY).listFiles((dir, name) -> name.endsWith(".pf1.csv") || name.endsWith(".pf1.bin"));
+		if (files == null) {
+			Robot.log.writeLogEcho("TrajectoryCache", "Preload", "Path directory not found," + Pathfinder.PATH_DIRECTORY);
+			return;
+		}
+
+		int count = 0;
+		for (File file : files) {
+			String name = file.getName();
+			String pathName = name.substring(0, name.length() - ".pf1.csv".length());
+			if (pathName.endsWith(".left") || pathName.endsWith(".right")) continue;
+			if (!forwardPaths.containsKey(pathName)) count++;
+			get(pathName, true);
+		}
+		Robot.log.writeLog("TrajectoryCache", "Preload", "Paths," + count);
+	}
+
+	/**
+	 * Gets a path, loading it on the background thread if it has not been loaded yet
+	 * @param pathName file name excluding .pf1.csv
+	 * @param driveForward true = drive forward, false = drive backward
+	 * @return future that completes with the path, or with null if the path file is missing
+	 */
+	public CompletableFuture<TankPath> get(String pathName, boolean driveForward) {
+		if (driveForward) {
+			return forwardPaths.computeIfAbsent(pathName,
+				name -> CompletableFuture.supplyAsync(() -> load(name), loader));
+		}
+		return backwardPaths.computeIfAbsent(pathName,
+			name -> get(name, true).thenApply(path -> (path == null) ? null : path.reversed()));
+	}
+
+	/**
+	 * Gets a path re-timed for different velocity and acceleration limits than it was made with
+	 * (ex. slower when the battery is low).  The path is loaded if needed, then re-timed on the background thread.
+	 * Re-timed paths are not cached.
+	 * @param pathName file name excluding .pf1.csv
+	 * @param driveForward true = drive forward, false = drive backward
+	 * @param maxVelocity max velocity, in inches per second
+	 * @param maxAcceleration max acceleration, in inches per second per second
+	 * @return future that completes with the path, or with null if the path file is missing or the limits are not greater than 0
+	 */
+	public CompletableFuture<TankPath> get(String pathName, boolean driveForward, double maxVelocity, double maxAcceleration) {
+		return get(pathName, true).thenApplyAsync(path -> {
+			if (path == null) return null;
+			long startTime = System.nanoTime();
+			TankPath retimed;
+			try {
+				retimed = makeTankPath(path.center.retime(maxVelocity, maxAcceleration));
+			} catch (IllegalArgumentException exception) {
+				Robot.log.writeLogEcho("TrajectoryCache", "Retime", "Bad limits," + pathName + "," + exception.getMessage());
+				return null;
+			}
+			Robot.log.writeLog("TrajectoryCache", "Retime", "Path," + pathName + ",Max vel," + maxVelocity + ",Max accel," + maxAcceleration
+				+ ",Segments," + retimed.center.length() + ",ms," + (System.nanoTime() - startTime) / 1000000.0);
+			return driveForward ? retimed : retimed.reversed();
+		}, loader);
+	}
+
+	/**
+	 * Generates a path from waypoints on the background thread (instead of loading it from files),
+	 * using the velocity, acceleration, jerk, and wheelbase from RobotPreferences.  After this is called,
+	 * get(pathName, ...) and DrivePathfinder use the generated path.
+	 * @param pathName name to store the path under
+	 * @param waypoints waypoints in PathWeaver field coordinates (inches, radians)
+	 * @return future that completes with the path, or with null if there are less than 2 waypoints
+	 */
+	public CompletableFuture<TankPath> generate(String pathName, Waypoint... waypoints) {
+		backwardPaths.remove(pathName);
+		CompletableFuture<TankPath> path = CompletableFuture.supplyAsync(() -> generatePath(pathName, waypoints), loader);
+		forwardPaths.put(pathName, path);
+		return path;
+	}
+
+	/**
+	 * Makes the left and right wheel trajectories for a center trajectory
+	 */
+	static TankPath makeTankPath(Trajectory center) {
+		TankModifier modifier = new TankModifier(center).modify(Robot.robotPrefs.wheelbase_in);
+		// PathWeaver's y axis points the other way, so its left side is the robot's right side
+		return new TankPath(center, modifier.getRightTrajectory(), modifier.getLeftTrajectory());
+	}
+
+	/**
+	 * Generates the center, left, and right trajectories of a path (on the background thread)
+	 */
+	private static TankPath generatePath(String pathName, Waypoint[] waypoints) {
+		long startTime = System.nanoTime();
+		Trajectory.Config config = new Trajectory.Config(Trajectory.FitMethod.HERMITE_CUBIC, Trajectory.Config.SAMPLES_LOW, 0.02,
+			Robot.robotPrefs.max_velocity_ips, Robot.robotPrefs.max_acceleration_ipsps, Robot.robotPrefs.max_jerk_ipspsps);
+		Trajectory center = Pathfinder.generate(waypoints, config);
+		if (center == null) {
+			Robot.log.writeLogEcho("TrajectoryCache", "Generate", "Not enough waypoints," + pathName);
+			return null;
+		}
+		TankPath path = makeTankPath(center);
+
+		Robot.log.writeLog("TrajectoryCache", "Generate", "Path," + pathName + ",Segments," + center.length()
+			+ ",ms," + (System.nanoTime() - startTime) / 1000000.0);
+		return path;
+	}
+
+	/**
+	 * Reads the center trajectory of a path, and reads or makes the left and right trajectories (on the background thread)
+	 */
+	private static TankPath load(String pathName) {
+		long startTime = System.nanoTime();
+		Trajectory center = Pathfinder.readPath(pathName + ".pf1.csv", true);
+		if (center == null) {
+			Robot.log.writeLogEcho("TrajectoryCache", "Load", "File not found," + pathName);
+			return null;
+		}
+
+		TankPath path;
+		if (isDeployed(pathName + ".left.pf1.csv") || isDeployed(pathName + ".right.pf1.csv")) {
+			// PathWeaver swaps the names of the left and right wheel files
+			Trajectory left = Pathfinder.readPath(pathName + ".right.pf1.csv", true);
+			Trajectory right = Pathfinder.readPath(pathName + ".left.pf1.csv", true);
+			if (left == null || right == null) {
+				Robot.log.writeLogEcho("TrajectoryCache", "Load", "Side file not found," + pathName);
+				return null;
+			}
+			path = new TankPath(center, left, right);
+		} else {
+			path = makeTankPath(center);
+		}
+
+		Robot.log.writeLog("TrajectoryCache", "Load", "Path," + pathName + ",Segments," + center.length()
+			+ ",ms," + (System.nanoTime() - startTime) / 1000000.0);
+		return path;
+	}
+
+	/**
+	 * @param fileName CSV file name in the deploy/paths directory
+	 * @return true = the CSV file (or its compiled .bin file) is deployed
+	 */
+	private static boolean isDeployed(String fileName) {
+		return new File(Pathfinder.PATH_DIRECTORY, fileName).isFile() ||
+			new File(Pathfinder.PATH_DIRECTORY, fileName.replaceFirst("\\.csv$", ".bin")).isFile();
+	}
+}
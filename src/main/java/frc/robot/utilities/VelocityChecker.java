@@ -7,13 +7,10 @@
 
 package frc.robot.utilities;
 
-import java.util.Arrays;
-
 import frc.robot.*;
 
 public class VelocityChecker {
-	private double[] histArray;
-	private int histArrayIndex = 0;
+	private WindowedStats history;
 	
 	/**
 	 * Creates VelocityChecker object to return the running average velocity for the last X seconds.
@@ -22,8 +19,7 @@ public class VelocityChecker {
 	 * @param secs Length of time to compute the running average.
 	 */
 	public VelocityChecker(double secs) {
-		histArray = new double[(int)(secs*50)];
-		clearHistory();
+		history = new WindowedStats((int)(secs*50));
 	}
 
 	private VelocityChecker() {}
@@ -36,8 +32,7 @@ public class VelocityChecker {
 	 */
 	public static VelocityChecker getBySize(int size) {
 		VelocityChecker temp = new VelocityChecker();
-		temp.histArray = new double[size];
-		temp.clearHistory();
+		temp.history = new WindowedStats(size);
 		return temp;
 	}
 
@@ -46,23 +41,21 @@ public class VelocityChecker {
 	 * @param val velocity data point to add to running average
 	 */
 	public void addValue(double val) {
-		histArray[histArrayIndex] = val;
-		histArrayIndex = ++histArrayIndex % histArray.length;
+		history.add(val);
 	}
 
 	/**
 	 * Clears the running average history.
 	 */
 	public void clearHistory() {
-		Arrays.fill(histArray, Double.MAX_VALUE); // histArray is filled with big numbers to skew average at start
-		histArrayIndex = 0;
+		history.clear();
 	}
 	
 	/**
-	 * Dumps the HistArray to standard out and the file log
+	 * Dumps the history (oldest first) to the file log
 	 */
 	public void dumpArray() {
-		Robot.log.writeLog(false, "Velocity Checker", "Update", "Hist Array dump," + Arrays.toString(histArray));
+		Robot.log.writeLog(false, "Velocity Checker", "Update", "Hist Array dump," + history);
 	}
 
 	/**
@@ -71,11 +64,8 @@ public class VelocityChecker {
 	 * @return running average
 	 */
 	public double getAverage() {
-		double sum = 0;
-		for (double d : histArray) {
-			sum += d;
-		}
-		return sum / histArray.length;
+		if (!history.isFull()) return Double.MAX_VALUE;		// Big number to skew average at start
+		return history.getMean();
 	}
 }
 
@@ -0,0 +1,55 @@
+package frc.robot.utilities;
+
+/**
+ * Clock that only moves when it is told to, for running trajectory followers and profile
+ * generators faster than real time (in tests, benchmarks, and log replay).
+ * <p>
+ * Example:  VirtualClock clock = new VirtualClock();  RobotClock.set(clock);  ...  clock.advance(0.02);
+ */
+public class VirtualClock extends RobotClock {
+
+	private volatile long nanos;
+
+	/**
+	 * Creates a virtual clock starting at time 0
+	 */
+	public VirtualClock() {
+		this(0);
+	}
+
+	/**
+	 * @param startNanos starting time, in nanoseconds
+	 */
+	public VirtualClock(long startNanos) {
+		nanos = startNanos;
+	}
+
+	@Override
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * Moves the clock forward
+	 * @param seconds time to add, in seconds
+	 */
+	public synchronized void advance(double seconds) {
+		advanceNanos(Math.round(seconds * 1e9));
+	}
+
+	/**
+	 * Moves the clock forward
+	 * @param deltaNanos time to add, in nanoseconds
+	 */
+	public synchronized void advanceNanos(long deltaNanos) {
+		nanos += deltaNanos;
+	}
+
+	/**
+	 * Sets the clock time
+	 * @param newNanos time, in nanoseconds
+	 */
+	public synchronized void setNanos(long newNanos) {
+		nanos = newNanos;
+	}
+}
@@ -103,9 +103,10 @@ public class VisionData {
      * Calculate the distance to target using the X-size of the target, as calculated across
      * the top of the target (since the bottom of the target may get clipped by the intake
      * in the field of view).
+     * Package-private so it can be benchmarked (see src/jmh).
      * @return true = target was found, false = target not found
      */
-    private boolean calcDistanceUsingCorners() {
+    boolean calcDistanceUsingCorners() {
         if (!valid || cornX.length != cornY.length || cornX.length<5) {
             distanceUsingCorners = 0;
             return false;
@@ -0,0 +1,181 @@
+package frc.robot.utilities;
+
+/**
+ * Statistics over the last N samples (a sliding window), for stall checks, velocity averages, etc.
+ * The sum, mean, variance, and least-squares slope are kept up to date as samples are added,
+ * so add() and the getters (except getMax()) are O(1) and nothing is allocated after the constructor.
+ * <p>
+ * The running sums are re-added from the samples each time the window wraps around (O(N) once every
+ * N samples), so round-off error does not build up over a long match.
+ * <p>
+ * Not thread safe.  Use one WindowedStats per thread (ex. in a subsystem's periodic() or a command).
+ */
+public class WindowedStats {
+	private final double[] samples;
+	private int next = 0;				// Index in samples where the next sample goes
+	private int count = 0;				// Number of samples in the window (up to samples.length)
+
+	private double mean;				// Mean of the samples in the window
+	private double m2;					// Sum of squared differences from the mean (variance * count)
+	private double indexedSum;			// Sum of i * sample, where i = 0 for the oldest sample in the window
+
+	/**
+	 * Creates an empty window
+	 * @param size number of samples in the window (at least 1)
+	 */
+	public WindowedStats(int size) {
+		samples = new double[Math.max(1, size)];
+	}
+
+	/**
+	 * Adds a sample.  If the window is full, the oldest sample is removed.
+	 * @param value sample to add
+	 */
+	public void add(double value) {
+		int size = samples.length;
+		if (count < size) {
+			// Window is filling:  Welford's update
+			indexedSum += count * value;
+			count++;
+			double delta = value - mean;
+			mean += delta / count;
+			m2 += delta * (value - mean);
+		} else {
+			// Window is full:  replace the oldest sample.  Every other sample moves one index older.
+			double oldest = samples[next];
+			double oldMean = mean;
+			indexedSum += (size - 1) * value - (mean * size - oldest);
+			mean += (value - oldest) / size;
+			m2 += (value - oldest) * (value - mean + oldest - oldMean);
+		}
+
+		samples[next] = value;
+		next++;
+		if (next == size) {
+			next = 0;
+			if (count == size) resum();
+		}
+	}
+
+	/**
+	 * Removes all samples
+	 */
+	public void clear() {
+		next = 0;
+		count = 0;
+		mean = 0;
+		m2 = 0;
+		indexedSum = 0;
+	}
+
+	/**
+	 * Recalculates the running sums from the samples (only called when the window is full and next = 0,
+	 * so samples[0] is the oldest sample)
+	 */
+	private void resum() {
+		double sum = 0;
+		for (int i = 0; i < count; i++) {
+			sum += samples[i];
+		}
+		mean = sum / count;
+
+		double squares = 0, indexed = 0;
+		for (int i = 0; i < count; i++) {
+			double delta = samples[i] - mean;
+			squares += delta * delta;
+			indexed += i * samples[i];
+		}
+		m2 = squares;
+		indexedSum = indexed;
+	}
+
+	/**
+	 * @return number of samples in the window
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return max number of samples in the window
+	 */
+	public int getSize() {
+		return samples.length;
+	}
+
+	/**
+	 * @return true = the window has size samples
+	 */
+	public boolean isFull() {
+		return count == samples.length;
+	}
+
+	/**
+	 * @return the most recent sample, or 0 if there are no samples
+	 */
+	public double getLast() {
+		if (count == 0) return 0;
+		return samples[(next == 0) ? samples.length - 1 : next - 1];
+	}
+
+	/**
+	 * @return sum of the samples in the window
+	 */
+	public double getSum() {
+		return mean * count;
+	}
+
+	/**
+	 * @return mean of the samples in the window, or 0 if there are no samples
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Largest sample in the window (ex. peak current).  Searches the window, so this is O(N).
+	 * @return largest sample, or 0 if there are no samples
+	 */
+	public double getMax() {
+		if (count == 0) return 0;
+		double max = samples[0];
+		for (int i = 1; i < count; i++) {
+			max = Math.max(max, samples[i]);
+		}
+		return max;
+	}
+
+	/**
+	 * @return variance (population) of the samples in the window, or 0 if there are less than 2 samples
+	 */
+	public double getVariance() {
+		if (count < 2) return 0;
+		return Math.max(0, m2 / count);
+	}
+
+	/**
+	 * Least-squares slope of the samples vs. sample number (ex. for encoder positions sampled every 20ms,
+	 * the slope is in ticks per 20ms).
+	 * @return slope, in units per sample, or 0 if there are less than 2 samples
+	 */
+	public double getSlope() {
+		if (count < 2) return 0;
+		double n = count;
+		// Sample numbers are 0 to n-1:  sum = n(n-1)/2, and n * (sum of squares) - sum^2 = n^2(n^2-1)/12
+		return (12.0 * indexedSum - 6.0 * (n - 1) * mean * n) / (n * (n * n - 1));
+	}
+
+	/**
+	 * @return the samples, from oldest to newest (for logging)
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("[");
+		int start = (count == samples.length) ? next : 0;
+		for (int i = 0; i < count; i++) {
+			if (i > 0) builder.append(", ");
+			builder.append(samples[(start + i) % samples.length]);
+		}
+		return builder.append(']').toString();
+	}
+}